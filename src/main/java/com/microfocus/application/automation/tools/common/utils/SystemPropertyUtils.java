@@ -0,0 +1,82 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.common.utils;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads the tuning parameters the plugin accepts as system properties
+ * - a value that is not a number or is below the lower bound is logged and replaced by the default
+ */
+public final class SystemPropertyUtils {
+    private static final Logger logger = LogManager.getLogger(SystemPropertyUtils.class);
+
+    private SystemPropertyUtils() {
+        //hiding public constructor
+    }
+
+    /**
+     * @param name         system property name
+     * @param defaultValue value used when the property is not set or not valid
+     * @return positive integer value of the property
+     */
+    public static int getIntProperty(String name, int defaultValue) {
+        return getIntProperty(name, defaultValue, 1);
+    }
+
+    /**
+     * @param name         system property name
+     * @param defaultValue value used when the property is not set or not valid
+     * @param minValue     lowest valid value
+     * @return integer value of the property
+     */
+    public static int getIntProperty(String name, int defaultValue, int minValue) {
+        return (int) getLongProperty(name, defaultValue, minValue, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param name         system property name
+     * @param defaultValue value used when the property is not set or not valid
+     * @param minValue     lowest valid value
+     * @return long value of the property
+     */
+    public static long getLongProperty(String name, long defaultValue, long minValue) {
+        return getLongProperty(name, defaultValue, minValue, Long.MAX_VALUE);
+    }
+
+    private static long getLongProperty(String name, long defaultValue, long minValue, long maxValue) {
+        String paramValue = System.getProperty(name);
+        if (StringUtils.isNotEmpty(paramValue)) {
+            try {
+                long value = Long.parseLong(paramValue.trim());
+                if (value >= minValue && value <= maxValue) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                //falling back to the default below
+            }
+            logger.warn("illegal value '" + paramValue + "' of " + name + ", falling back to " + defaultValue);
+        }
+        return defaultValue;
+    }
+}
@@ -21,27 +21,55 @@
 package com.microfocus.application.automation.tools.octane;
 
 import com.squareup.tape.FileObjectQueue;
+import com.squareup.tape.QueueFile;
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
 import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by benmeior on 11/21/2016
  *
  * Base implementation of ResultQueue: backed up by FileObjectQueue, persisted
+ * - items may be leased in batches and acknowledged/failed individually and out of order,
+ * completed items are removed from the persisted queue once they reach its head
+ * - failed items are re-appended with exponential backoff, items out of retries are moved to a dead letter queue file
+ * - postponed items are re-appended with the requested delay, keeping their trials
+ * - a lease expires when the item is neither acknowledged nor failed in time, the item is then leased again
+ * - delivery is at least once: completed items not yet removed from the head are delivered again after restart
  */
 
 public abstract class AbstractResultQueueImpl implements ResultQueue {
+	private static final Logger logger = LogManager.getLogger(AbstractResultQueueImpl.class);
 
 	private static final int RETRIES = 3;
+	private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+	private static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(1);
+	private static final int MAX_DEAD_LETTER_ITEMS = 1000;
+	static final long LEASE_TIMEOUT = TimeUnit.MINUTES.toMillis(15);
 	private final int MAX_RETRIES;
 
 	private FileObjectQueue<QueueItem> queue;
+	private FileObjectQueue<QueueItem> deadLetterQueue;
+
+	//  in memory mirror of the persisted queue (same order)
+	private final ArrayDeque<QueueItem> items = new ArrayDeque<>();
+	//  leased items and expiration times of their leases
+	private final Map<QueueItem, Long> leased = new IdentityHashMap<>();
+	private final Set<QueueItem> completed = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	private QueueItem currentItem;
 
+	private long acknowledgedCount;
+	private long totalLatency;
+	private long maxLatency;
+
 	public AbstractResultQueueImpl() {
 		this.MAX_RETRIES = RETRIES;
 	}
@@ -51,13 +79,29 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	}
 
 	protected void init(File queueFile) throws IOException {
-		queue = new FileObjectQueue<>(queueFile, new JsonConverter());
+		BinaryConverter converter = new BinaryConverter();
+		if (queueFile.exists()) {
+			//  FileObjectQueue allows to peek only the head, so the persisted items are read directly from the underlying file
+			QueueFile existingQueue = new QueueFile(queueFile);
+			try {
+				existingQueue.forEach((in, length) -> {
+					byte[] bytes = new byte[length];
+					IOUtils.readFully(in, bytes);
+					items.add(converter.from(bytes));
+				});
+			} finally {
+				existingQueue.close();
+			}
+		}
+		queue = new FileObjectQueue<>(queueFile, converter);
+		deadLetterQueue = new FileObjectQueue<>(new File(queueFile.getPath() + ".dead"), converter);
 	}
 
 	@Override
 	public synchronized QueueItem peekFirst() {
 		if (currentItem == null) {
-			currentItem = queue.peek();
+			List<QueueItem> leasedItems = lease(1);
+			currentItem = leasedItems.isEmpty() ? null : leasedItems.get(0);
 		}
 		return currentItem;
 	}
@@ -65,16 +109,8 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized boolean failed() {
 		if (currentItem != null) {
-			boolean retry;
-			if (++currentItem.failCount <= MAX_RETRIES) {
-				queue.add(currentItem);
-				retry = true;
-			} else {
-				retry = false;
-			}
-
-			remove();
-
+			boolean retry = failed(currentItem);
+			currentItem = null;
 			return retry;
 		} else {
 			throw new IllegalStateException("no outstanding item");
@@ -84,37 +120,150 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized void remove() {
 		if (currentItem != null) {
-			queue.remove();
+			acknowledge(Collections.singletonList(currentItem));
 			currentItem = null;
 		} else {
 			throw new IllegalStateException("no outstanding item");
 		}
 	}
 
+	@Override
+	public synchronized List<QueueItem> lease(int maxItems) {
+		List<QueueItem> result = new ArrayList<>(Math.min(maxItems, items.size()));
+		long now = now();
+		expireLeases(now);
+		for (QueueItem item : items) {
+			if (result.size() >= maxItems) {
+				break;
+			}
+			if (!leased.containsKey(item) && !completed.contains(item) && item.nextAttemptTime <= now) {
+				leased.put(item, now + LEASE_TIMEOUT);
+				result.add(item);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized void acknowledge(Collection<QueueItem> itemsToAcknowledge) {
+		long now = now();
+		for (QueueItem item : itemsToAcknowledge) {
+			//  acknowledgement arriving after the lease expired still completes the item
+			if (leased.remove(item) != null || isPending(item)) {
+				completed.add(item);
+				long latency = now - item.enqueueTime;
+				acknowledgedCount++;
+				totalLatency += latency;
+				maxLatency = Math.max(maxLatency, latency);
+			}
+		}
+		removeCompletedHead();
+	}
+
+	@Override
+	public synchronized boolean failed(QueueItem item) {
+		if (leased.remove(item) == null) {
+			if (isPending(item)) {
+				//  the lease expired, the item is already available for another attempt
+				return true;
+			}
+			throw new IllegalStateException("item is not leased");
+		}
+
+		boolean retry;
+		QueueItem retryItem = new QueueItem(item);
+		if (++retryItem.failCount <= MAX_RETRIES) {
+			retryItem.nextAttemptTime = now() + getBackoff(retryItem.failCount);
+			addItem(retryItem);
+			retry = true;
+		} else {
+			addToDeadLetterQueue(retryItem);
+			retry = false;
+		}
+
+		completed.add(item);
+		removeCompletedHead();
+		return retry;
+	}
+
+	@Override
+	public synchronized void postpone(QueueItem item, long delay) {
+		if (leased.remove(item) == null) {
+			if (isPending(item)) {
+				//  the lease expired, the item is already available for another attempt
+				return;
+			}
+			throw new IllegalStateException("item is not leased");
+		}
+
+		QueueItem postponedItem = new QueueItem(item);
+		postponedItem.nextAttemptTime = now() + delay;
+		addItem(postponedItem);
+		completed.add(item);
+		removeCompletedHead();
+	}
+
 	@Override
 	public synchronized void add(String projectName, int buildNumber) {
-		queue.add(new QueueItem(projectName, buildNumber));
+		addItem(new QueueItem(projectName, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, String type, int buildNumber) {
-		queue.add(new QueueItem(projectName, type, buildNumber));
+		addItem(new QueueItem(projectName, type, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, int buildNumber, String workspace) {
-		queue.add(new QueueItem(projectName, buildNumber, workspace));
+		addItem(new QueueItem(projectName, buildNumber, workspace));
 	}
 
 	@Override
 	public synchronized void add(String instanceId, String projectName, int buildNumber, String workspace) {
 		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
 		item.setInstanceId(instanceId);
-		queue.add(item);
+		addItem(item);
 	}
 
-	public int size() {
-		return queue.size();
+	/**
+	 * @return number of items waiting or in flight (queue depth)
+	 */
+	@Override
+	public synchronized int size() {
+		return items.size() - completed.size();
+	}
+
+	public synchronized int getLeasedCount() {
+		expireLeases(now());
+		return leased.size();
+	}
+
+	public synchronized int getDeadLetterCount() {
+		return deadLetterQueue.size();
+	}
+
+	/**
+	 * @return age of the oldest pending item in milliseconds, 0 if the queue is empty
+	 */
+	public synchronized long getOldestItemAge() {
+		long now = now();
+		for (QueueItem item : items) {
+			if (!completed.contains(item)) {
+				return now - item.enqueueTime;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return average time from enqueueing to acknowledgement in milliseconds
+	 */
+	public synchronized long getAverageLatency() {
+		return acknowledgedCount == 0 ? 0 : totalLatency / acknowledgedCount;
+	}
+
+	public synchronized long getMaxLatency() {
+		return maxLatency;
 	}
 
 	@Override
@@ -122,6 +271,9 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		while (queue.size() > 0) {
 			queue.remove();
 		}
+		items.clear();
+		leased.clear();
+		completed.clear();
 		currentItem = null;
 	}
 
@@ -130,22 +282,107 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		if (queue != null) {
 			queue.close();
 		}
+		if (deadLetterQueue != null) {
+			deadLetterQueue.close();
+		}
 	}
 
-	private static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
+	private void addItem(QueueItem item) {
+		queue.add(item);
+		items.addLast(item);
+	}
+
+	private boolean isPending(QueueItem item) {
+		return !completed.contains(item) && items.contains(item);
+	}
+
+	private void expireLeases(long now) {
+		Iterator<Map.Entry<QueueItem, Long>> iterator = leased.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<QueueItem, Long> lease = iterator.next();
+			if (lease.getValue() <= now) {
+				QueueItem item = lease.getKey();
+				logger.warn("lease of " + item.getProjectName() + " #" + item.getBuildNumber() + " expired, the item will be leased again");
+				iterator.remove();
+			}
+		}
+	}
+
+	private void removeCompletedHead() {
+		while (!items.isEmpty() && completed.remove(items.peekFirst())) {
+			items.removeFirst();
+			queue.remove();
+		}
+	}
+
+	private void addToDeadLetterQueue(QueueItem item) {
+		while (deadLetterQueue.size() >= MAX_DEAD_LETTER_ITEMS) {
+			deadLetterQueue.remove();
+		}
+		deadLetterQueue.add(item);
+	}
+
+	/**
+	 * Clock of the leases and backoffs, overridable by tests
+	 */
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	private static long getBackoff(int failCount) {
+		long backoff = INITIAL_BACKOFF << Math.min(failCount - 1, 20);
+		return Math.min(backoff, MAX_BACKOFF);
+	}
+
+	/**
+	 * Compact binary format of the queue items, items persisted by older versions as JSON are still readable
+	 */
+	private static class BinaryConverter implements FileObjectQueue.Converter<QueueItem> {
+		private static final byte BINARY_FORMAT_V1 = 1;
 
 		@Override
 		public QueueItem from(byte[] bytes) throws IOException {
-			JSONObject json = (JSONObject) JSONSerializer.toJSON(IOUtils.toString(new ByteArrayInputStream(bytes)));
-			return objectFromJson(json);
+			if (bytes.length == 0 || bytes[0] != BINARY_FORMAT_V1) {
+				JSONObject json = (JSONObject) JSONSerializer.toJSON(IOUtils.toString(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+				return objectFromJson(json);
+			}
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+			String projectName = readString(in);
+			int buildNumber = in.readInt();
+			int failCount = in.readInt();
+			QueueItem item = new QueueItem(projectName, buildNumber, failCount, readString(in));
+			item.type = readString(in);
+			item.instanceId = readString(in);
+			item.enqueueTime = in.readLong();
+			item.nextAttemptTime = in.readLong();
+			return item;
 		}
 
 		@Override
 		public void toStream(QueueItem item, OutputStream bytes) throws IOException {
-			JSONObject json = jsonFromObject(item);
-			OutputStreamWriter writer = new OutputStreamWriter(bytes);
-			writer.append(json.toString());
-			writer.close();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(BINARY_FORMAT_V1);
+			writeString(out, item.projectName);
+			out.writeInt(item.buildNumber);
+			out.writeInt(item.failCount);
+			writeString(out, item.workspace);
+			writeString(out, item.type);
+			writeString(out, item.instanceId);
+			out.writeLong(item.enqueueTime);
+			out.writeLong(item.nextAttemptTime);
+			out.flush();
+		}
+
+		private static void writeString(DataOutputStream out, String value) throws IOException {
+			out.writeBoolean(value != null);
+			if (value != null) {
+				out.writeUTF(value);
+			}
+		}
+
+		private static String readString(DataInputStream in) throws IOException {
+			return in.readBoolean() ? in.readUTF() : null;
 		}
 
 		private static QueueItem objectFromJson(JSONObject json) {
@@ -164,15 +401,5 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 			}
 			return queueItem;
 		}
-
-		private static JSONObject jsonFromObject(QueueItem item) {
-			JSONObject json = new JSONObject();
-			json.put("project", item.projectName);
-			json.put("build", item.buildNumber);
-			json.put("count", item.failCount);
-			json.put("workspace", item.workspace);
-			json.put("type", item.type);
-			return json;
-		}
 	}
 }
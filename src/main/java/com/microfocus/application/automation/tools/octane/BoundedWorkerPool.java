@@ -0,0 +1,134 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of daemon workers running background work of the plugin as SYSTEM
+ * - a task that doesn't fit in the queue, or is submitted after shutdown, is rejected and logged;
+ * it never runs on the submitting thread, which may be a listener thread (e.g. CPS VM thread of pipelines)
+ * - counts and processing times are kept for the metrics shown in the global configuration
+ */
+public class BoundedWorkerPool {
+	private static final Logger logger = LogManager.getLogger(BoundedWorkerPool.class);
+
+	private final String name;
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong totalProcessingTime = new AtomicLong();
+	private final AtomicLong maxProcessingTime = new AtomicLong();
+
+	protected BoundedWorkerPool(String name, int poolSize, int queueCapacity) {
+		this.name = name;
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				new NamingThreadFactory(new DaemonThreadFactory(), name));
+		executor.allowCoreThreadTimeOut(true);
+		logger.info(name + " pool initialized with " + poolSize + " threads and queue capacity of " + queueCapacity);
+	}
+
+	/**
+	 * Schedules the task, the calling thread is never blocked
+	 *
+	 * @param description what the task does, for logging
+	 * @param task        the work
+	 * @return FALSE if the task was rejected and is not going to run
+	 */
+	protected boolean execute(String description, Runnable task) {
+		submitted.incrementAndGet();
+		try {
+			executor.execute(() -> run(description, task));
+			return true;
+		} catch (RejectedExecutionException e) {
+			rejected.incrementAndGet();
+			logger.error(name + " queue is full (" + executor.getQueue().size() + ") or shut down, " + description + " is skipped");
+			return false;
+		}
+	}
+
+	private void run(String description, Runnable task) {
+		long start = System.currentTimeMillis();
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			task.run();
+		} catch (Throwable t) {
+			failed.incrementAndGet();
+			logger.error("failed: " + description, t);
+		} finally {
+			long duration = System.currentTimeMillis() - start;
+			completed.incrementAndGet();
+			totalProcessingTime.addAndGet(duration);
+			maxProcessingTime.accumulateAndGet(duration, Math::max);
+			logger.debug(description + " done in " + duration + " ms");
+		}
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	public long getAverageProcessingTime() {
+		long count = completed.get();
+		return count == 0 ? 0 : totalProcessingTime.get() / count;
+	}
+
+	public long getMaxProcessingTime() {
+		return maxProcessingTime.get();
+	}
+}
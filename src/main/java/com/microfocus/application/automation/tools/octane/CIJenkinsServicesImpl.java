@@ -45,19 +45,19 @@ import com.hp.octane.integrations.dto.snapshots.SnapshotNode;
 import com.hp.octane.integrations.exceptions.ConfigurationException;
 import com.hp.octane.integrations.exceptions.PermissionException;
 import com.microfocus.application.automation.tools.model.OctaneServerSettingsModel;
+import com.microfocus.application.automation.tools.octane.buildLogs.BuildLogExporter;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
 import com.microfocus.application.automation.tools.octane.configuration.SSCServerConfigUtil;
 import com.microfocus.application.automation.tools.octane.executor.ExecutorConnectivityService;
 import com.microfocus.application.automation.tools.octane.executor.TestExecutionJobCreatorService;
 import com.microfocus.application.automation.tools.octane.executor.UftConstants;
 import com.microfocus.application.automation.tools.octane.executor.UftJobCleaner;
+import com.microfocus.application.automation.tools.octane.model.JobCatalog;
 import com.microfocus.application.automation.tools.octane.model.ModelFactory;
-import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.AbstractProjectProcessor;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
 import com.microfocus.application.automation.tools.octane.tests.TestListener;
 import hudson.ProxyConfiguration;
-import hudson.console.PlainTextConsoleOutputStream;
 import hudson.model.*;
 import hudson.security.ACLContext;
 import jenkins.model.Jenkins;
@@ -65,7 +65,6 @@ import org.acegisecurity.AccessDeniedException;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
-import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -136,62 +135,22 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 
 	@Override
 	public CIJobsList getJobsList(boolean includeParameters) {
+		return getJobsList(includeParameters, null, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Jobs list served from the {@link JobCatalog}, optionally limited to a folder and paged
+	 */
+	public CIJobsList getJobsList(boolean includeParameters, String folder, int offset, int limit) {
 		ACLContext securityContext = startImpersonation();
 		CIJobsList result = dtoFactory.newDTO(CIJobsList.class);
-		PipelineNode tmpConfig;
-		TopLevelItem tmpItem;
-		List<PipelineNode> list = new ArrayList<>();
 		try {
 			boolean hasReadPermission = Jenkins.getInstance().hasPermission(Item.READ);
 			if (!hasReadPermission) {
 				stopImpersonation(securityContext);
 				throw new PermissionException(403);
 			}
-			List<String> itemNames = (List<String>) Jenkins.getInstance().getTopLevelItemNames();
-			for (String name : itemNames) {
-				tmpItem = Jenkins.getInstance().getItem(name);
-
-				if (tmpItem == null) {
-					continue;
-				}
-
-				String jobName = tmpItem.getName();
-				String jobClassName = tmpItem.getClass().getName();
-				try {
-					if (tmpItem instanceof AbstractProject) {
-						AbstractProject abstractProject = (AbstractProject) tmpItem;
-						if (abstractProject.isDisabled()) {
-							continue;
-						}
-						tmpConfig = createPipelineNode(name, abstractProject, includeParameters);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_JOB_NAME)) {
-						tmpConfig = createPipelineNode(name, (Job) tmpItem, includeParameters);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.FOLDER_JOB_NAME)) {
-						for (Job tmpJob : tmpItem.getAllJobs()) {
-							jobName = tmpJob.getFullName();
-							tmpConfig = createPipelineNode(tmpJob.getName(), tmpJob, includeParameters);
-							list.add(tmpConfig);
-						}
-					} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME)) {
-						tmpConfig = createPipelineNodeFromJobName(name);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.GITHUB_ORGANIZATION_FOLDER)) {
-						Collection<? extends Item> items = ((AbstractFolder) tmpItem).getItems();
-						for (Item item : items) {
-							jobName = item.getFullName();
-							tmpConfig = createPipelineNodeFromJobNameAndFolder(item.getDisplayName(), name);
-							list.add(tmpConfig);
-						}
-					} else {
-						logger.info(String.format("getJobsList : Item '%s' of type '%s' is not supported", jobName, jobClassName));
-					}
-				} catch (Throwable e) {
-					logger.error("getJobsList : Failed to add job '" + jobName + "' to JobList  : " + e.getClass().getCanonicalName() + " - " + e.getMessage(), e);
-				}
-
-			}
+			List<PipelineNode> list = JobCatalog.getInstance().getJobs(includeParameters, folder, offset, limit).getJobs();
 			result.setJobs(list.toArray(new PipelineNode[0]));
 		} catch (AccessDeniedException e) {
 			throw new PermissionException(403);
@@ -306,9 +265,12 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 			Run run = getRunByRefNames(jobId, buildId);
 			if (run != null) {
 				try {
-					result = new FileInputStream(run.getRootDir() + File.separator + TestListener.TEST_RESULT_FILE);
+					result = TestListener.openTestResults(run.getRootDir());
 				} catch (Exception fnfe) {
-					logger.error("'" + TestListener.TEST_RESULT_FILE + "' file no longer exists, test results of '" + jobId + " #" + buildId + "' won't be pushed to Octane", fnfe);
+					logger.error("failed to open '" + TestListener.TEST_RESULT_FILE + "' file, test results of '" + jobId + " #" + buildId + "' won't be pushed to Octane", fnfe);
+				}
+				if (result == null) {
+					logger.error("'" + TestListener.TEST_RESULT_FILE + "' file no longer exists, test results of '" + jobId + " #" + buildId + "' won't be pushed to Octane");
 				}
 			} else {
 				logger.error("build '" + jobId + " #" + buildId + "' not found");
@@ -326,7 +288,11 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 			InputStream result = null;
 			Run run = getRunByRefNames(jobId, buildId);
 			if (run != null) {
-				result = getOctaneLogFile(run);
+				try {
+					result = BuildLogExporter.openLog(run, 0);
+				} catch (IOException ioe) {
+					logger.error("failed to obtain log for " + run, ioe);
+				}
 			} else {
 				logger.error("build '" + jobId + " #" + buildId + "' not found");
 			}
@@ -475,50 +441,12 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 		ImpersonationUtil.stopImpersonation(impersonatedContext);
 	}
 
-	private PipelineNode createPipelineNode(String name, Job job, boolean includeParameters) {
-		PipelineNode tmpConfig = dtoFactory.newDTO(PipelineNode.class)
-				.setJobCiId(JobProcessorFactory.getFlowProcessor(job).getTranslateJobName())
-				.setName(name);
-		if (includeParameters) {
-			tmpConfig.setParameters(ParameterProcessors.getConfigs(job));
-		}
-		return tmpConfig;
-	}
-
 	private PipelineNode createPipelineNodeFromJobName(String name) {
 		return dtoFactory.newDTO(PipelineNode.class)
 				.setJobCiId(name)
 				.setName(name);
 	}
 
-	private PipelineNode createPipelineNodeFromJobNameAndFolder(String name, String folderName) {
-		return dtoFactory.newDTO(PipelineNode.class)
-				.setJobCiId(folderName + "/" + name)
-				.setName(folderName + "/" + name);
-	}
-
-	private InputStream getOctaneLogFile(Run run) {
-		InputStream result = null;
-		String octaneLogFilePath = run.getLogFile().getParent() + File.separator + "octane_log";
-		File logFile = new File(octaneLogFilePath);
-		if (!logFile.exists()) {
-			try (FileOutputStream fileOutputStream = new FileOutputStream(logFile);
-			     InputStream logStream = run.getLogInputStream();
-			     PlainTextConsoleOutputStream out = new PlainTextConsoleOutputStream(fileOutputStream)) {
-				IOUtils.copy(logStream, out);
-				out.flush();
-			} catch (IOException ioe) {
-				logger.error("failed to transfer native log to Octane's one for " + run);
-			}
-		}
-		try {
-			result = new FileInputStream(octaneLogFilePath);
-		} catch (IOException ioe) {
-			logger.error("failed to obtain log for " + run);
-		}
-		return result;
-	}
-
 	private Run getRunByRefNames(String jobId, String buildId) {
 		Run result = null;
 		Job project = getJobByRefId(jobId);
@@ -21,6 +21,8 @@
 package com.microfocus.application.automation.tools.octane;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 
 @SuppressWarnings("squid:S2039")
 public interface ResultQueue {
@@ -43,6 +45,38 @@ public interface ResultQueue {
 
 	void close();
 
+	/**
+	 * Leases up to maxItems items for (parallel) dispatching, leased items are not returned by subsequent leases
+	 * until acknowledged, failed or their lease expires; items waiting for retry backoff are skipped
+	 *
+	 * @param maxItems max number of items to lease
+	 * @return leased items in queue order, empty list if nothing to lease
+	 */
+	List<QueueItem> lease(int maxItems);
+
+	/**
+	 * Removes successfully dispatched (leased) items from the queue
+	 */
+	void acknowledge(Collection<QueueItem> items);
+
+	/**
+	 * Releases leased item after failed dispatching, the item is scheduled for retry with exponential backoff
+	 * or moved to the dead letter queue when out of retries
+	 *
+	 * @return TRUE if the item will be retried
+	 */
+	boolean failed(QueueItem item);
+
+	/**
+	 * Releases leased item that was not dispatched because it must wait for a preceding item (e.g. of the same target),
+	 * the item is moved to the end of the queue and is not leased again before the delay elapses; no trial is charged
+	 *
+	 * @param delay minimal time in milliseconds before the item is leased again
+	 */
+	void postpone(QueueItem item, long delay);
+
+	int size();
+
 	class QueueItem implements Serializable {
 		private static final long serialVersionUID = 1;
 		String instanceId;
@@ -51,6 +85,8 @@ public interface ResultQueue {
 		int buildNumber;
 		String workspace;
 		int failCount;
+		long enqueueTime;
+		long nextAttemptTime;
 
 		public void setInstanceId(String instanceId) {
 			this.instanceId = instanceId;
@@ -78,15 +114,22 @@ public interface ResultQueue {
 			this.projectName = projectName;
 			this.buildNumber = buildNumber;
 			this.failCount = failCount;
+			this.enqueueTime = System.currentTimeMillis();
 		}
 
 		QueueItem(String projectName, int buildNumber, int failCount, String workspace) {
-			this.projectName = projectName;
-			this.buildNumber = buildNumber;
-			this.failCount = failCount;
+			this(projectName, buildNumber, failCount);
 			this.workspace = workspace;
 		}
 
+		QueueItem(QueueItem other) {
+			this(other.projectName, other.buildNumber, other.failCount, other.workspace);
+			this.instanceId = other.instanceId;
+			this.type = other.type;
+			this.enqueueTime = other.enqueueTime;
+			this.nextAttemptTime = other.nextAttemptTime;
+		}
+
 		public String getInstanceId() {
 			return instanceId;
 		}
@@ -114,5 +157,13 @@ public interface ResultQueue {
 		public String getWorkspace() {
 			return workspace;
 		}
+
+		public long getEnqueueTime() {
+			return enqueueTime;
+		}
+
+		public long getNextAttemptTime() {
+			return nextAttemptTime;
+		}
 	}
 }
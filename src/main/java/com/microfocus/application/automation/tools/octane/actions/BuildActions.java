@@ -20,6 +20,7 @@
 
 package com.microfocus.application.automation.tools.octane.actions;
 
+import com.microfocus.application.automation.tools.octane.buildLogs.LogApi;
 import com.microfocus.application.automation.tools.octane.tests.TestApi;
 import hudson.Extension;
 import hudson.model.AbstractBuild;
@@ -76,6 +77,10 @@ public class BuildActions extends TransientActionFactory<AbstractBuild> {
 		public TestApi getTests() {
 			return new TestApi(build);
 		}
+
+		public LogApi getLogs() {
+			return new LogApi(build);
+		}
 	}
 
 	@Override
@@ -27,14 +27,20 @@ import com.hp.octane.integrations.dto.connectivity.HttpMethod;
 import com.hp.octane.integrations.dto.connectivity.OctaneResultAbridged;
 import com.hp.octane.integrations.dto.connectivity.OctaneTaskAbridged;
 import com.hp.octane.integrations.dto.general.CIServerInfo;
+import com.hp.octane.integrations.dto.pipelines.PipelineNode;
 import com.hp.octane.integrations.services.tasking.TasksProcessor;
 import com.microfocus.application.automation.tools.model.OctaneServerSettingsModel;
 import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigApi;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
+import com.microfocus.application.automation.tools.octane.model.JobCatalog;
 import hudson.Extension;
+import hudson.model.Item;
 import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.http.entity.ContentType;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
@@ -55,8 +61,10 @@ import java.util.UUID;
 @Extension
 public class PluginActions implements RootAction {
 	private String STATUS_REQUEST = "/nga/api/v1/status";
+	private String JOBS_CATALOG_REQUEST = "/nga/api/v1/catalog/jobs";
 
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+	private static final int DEFAULT_JOBS_PAGE_SIZE = 100;
 
 	public String getIconFileName() {
 		return null;
@@ -82,6 +90,12 @@ public class PluginActions implements RootAction {
 			res.setStatus(200);
 			res.getWriter().write(result.toString());
 			return;
+		} else if (req.getRequestURI().toLowerCase().contains(JOBS_CATALOG_REQUEST)) {
+			JSONObject result = getJobsResult(req);
+			res.setHeader("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+			res.setStatus(200);
+			res.getWriter().write(result.toString());
+			return;
 		} else {
 			res.setStatus(404);
 			res.getWriter().write("");
@@ -120,6 +134,30 @@ public class PluginActions implements RootAction {
 		return result;
 	}
 
+	/**
+	 * Page of the jobs catalog as visible to the requesting user
+	 * - supported query parameters: folder (full name), offset (default 0), limit (default 100)
+	 */
+	private JSONObject getJobsResult(StaplerRequest req) {
+		Jenkins.getInstance().checkPermission(Item.READ);
+		int offset = Math.max(0, NumberUtils.toInt(req.getParameter("offset"), 0));
+		int limit = Math.max(0, NumberUtils.toInt(req.getParameter("limit"), DEFAULT_JOBS_PAGE_SIZE));
+		JobCatalog.JobsPage page = JobCatalog.getInstance().getJobs(false, req.getParameter("folder"), offset, limit);
+
+		JSONArray jobsJson = new JSONArray();
+		for (PipelineNode job : page.getJobs()) {
+			JSONObject jobJson = new JSONObject();
+			jobJson.put("jobCiId", job.getJobCiId());
+			jobJson.put("name", job.getName());
+			jobsJson.add(jobJson);
+		}
+		JSONObject result = new JSONObject();
+		result.put("total", page.getTotal());
+		result.put("offset", offset);
+		result.put("jobs", jobsJson);
+		return result;
+	}
+
 	private static String getBody(BufferedReader reader) throws IOException {
 		StringBuilder buffer = new StringBuilder();
 		String line;
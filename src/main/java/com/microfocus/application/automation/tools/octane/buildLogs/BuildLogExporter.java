@@ -0,0 +1,458 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.buildLogs;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import hudson.console.PlainTextConsoleOutputStream;
+import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the build console log in the form sent to Octane: plain text (console notes stripped), gzip compressed
+ * - the log is exported only once it is asked for, i.e. when Octane is interested in it: the logs push of the SDK
+ * exports it on its own (background) thread; requests of the log API never export on the HTTP thread, they schedule
+ * the export on a background thread with a bounded queue and are answered by 'retry later' until it is done
+ * - exported size is capped by 'octane.plugin.BuildLogExporter.maxSizeMB' system property (default 200MB of plain text),
+ * the rest of the log is replaced by a truncation marker
+ * - the log is compressed as a sequence of gzip members, indexed in a side file, so a stream resumed
+ * from an offset of the plain text only decompresses from the member holding the offset
+ */
+public final class BuildLogExporter {
+	private static final Logger logger = LogManager.getLogger(BuildLogExporter.class);
+
+	static final String EXPORTED_LOG_FILE_NAME = "octane_log.gz";
+	private static final String INDEX_FILE_SUFFIX = ".idx";
+	private static final String LEGACY_LOG_FILE_NAME = "octane_log";
+	private static final long DEFAULT_MAX_SIZE_MB = 200;
+	private static final int MAX_QUEUED_EXPORTS = 1000;
+	private static final int BUFFER_SIZE = 65536;
+	private static final long MEMBER_SIZE = 4 * 1024 * 1024;
+
+	private static final ExecutorService executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(MAX_QUEUED_EXPORTS),
+			new NamingThreadFactory(new DaemonThreadFactory(), "Octane build logs export"));
+	private static final Map<File, RunnableFuture<File>> exportsInProgress = new ConcurrentHashMap<>();
+
+	private BuildLogExporter() {
+		//hiding public constructor
+	}
+
+	/**
+	 * Source of the raw console log
+	 */
+	interface LogSource {
+		InputStream open() throws IOException;
+	}
+
+	/**
+	 * Schedules the export of the log of the (finalized) run, unless exported or being exported already
+	 *
+	 * @return the export; never done if the export queue is full
+	 */
+	static Future<File> exportAsync(Run run) {
+		return exportAsync(String.valueOf(run), run.getRootDir(), run::getLogInputStream);
+	}
+
+	static Future<File> exportAsync(String name, File rootDir, LogSource source) {
+		File target = new File(rootDir, EXPORTED_LOG_FILE_NAME);
+		if (target.isFile()) {
+			return CompletableFuture.completedFuture(target);
+		}
+		RunnableFuture<File> task = new ExportTask(name, target, source);
+		RunnableFuture<File> inProgress = exportsInProgress.putIfAbsent(target, task);
+		if (inProgress != null) {
+			return inProgress;
+		}
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			//the export is scheduled again by the next request of the log
+			exportsInProgress.remove(target, task);
+			logger.warn("log export queue is full, export of the log of " + name + " is postponed");
+		}
+		return task;
+	}
+
+	/**
+	 * Opens the exported log of the run, exporting it on the calling thread first if not done yet;
+	 * not to be called on request threads, see {@link #openExportedLog}
+	 *
+	 * @param run    run to get the log of
+	 * @param offset number of plain text bytes to skip, for resuming an interrupted transfer
+	 * @return plain text stream of the log; null if not available
+	 */
+	public static ExportedLog openLog(Run run, long offset) throws IOException {
+		return openLog(String.valueOf(run), run.getRootDir(), run::getLogInputStream, offset);
+	}
+
+	static ExportedLog openLog(String name, File rootDir, LogSource source, long offset) throws IOException {
+		File target = new File(rootDir, EXPORTED_LOG_FILE_NAME);
+		if (!target.isFile()) {
+			//runs the export on the calling thread, also when it is still queued; waits only if it is being exported right now
+			RunnableFuture<File> task = new ExportTask(name, target, source);
+			RunnableFuture<File> inProgress = exportsInProgress.putIfAbsent(target, task);
+			if (inProgress != null) {
+				task = inProgress;
+			}
+			task.run();
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the log export of " + name);
+			} catch (ExecutionException | CancellationException e) {
+				logger.error("failed to export log of " + name, e instanceof ExecutionException ? e.getCause() : e);
+				return null;
+			}
+		}
+		return ExportedLog.open(target, offset);
+	}
+
+	/**
+	 * Opens the log of a finished export, for request threads which must never export by themselves
+	 *
+	 * @param name   name of the run, for logging
+	 * @param export result of {@link #exportAsync(Run)}, done
+	 * @param offset number of plain text bytes to skip, for resuming an interrupted transfer
+	 * @return plain text stream of the log; null if the export failed
+	 */
+	static ExportedLog openExportedLog(String name, Future<File> export, long offset) throws IOException {
+		if (!export.isDone()) {
+			throw new IllegalStateException("export of the log of " + name + " is not done");
+		}
+		File target;
+		try {
+			target = export.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while getting the log export of " + name);
+		} catch (ExecutionException | CancellationException e) {
+			logger.error("failed to export log of " + name, e instanceof ExecutionException ? e.getCause() : e);
+			return null;
+		}
+		return ExportedLog.open(target, offset);
+	}
+
+	static File export(String name, File target, LogSource source) throws IOException {
+		if (target.isFile()) {
+			return target;
+		}
+		long start = System.currentTimeMillis();
+		long maxSize = getMaxSize();
+		File tmp = new File(target.getPath() + ".tmp");
+		File indexFile = getIndexFile(target);
+		try (InputStream logStream = source.open();
+		     MultiMemberGzipOutputStream gzip = new MultiMemberGzipOutputStream(new FileOutputStream(tmp), MEMBER_SIZE)) {
+			try (CappedOutputStream capped = new CappedOutputStream(gzip, maxSize);
+			     PlainTextConsoleOutputStream out = new PlainTextConsoleOutputStream(capped)) {
+				IOUtils.copyLarge(logStream, out, new byte[BUFFER_SIZE]);
+				out.flush();
+			}
+			gzip.close();
+			gzip.getIndex().write(indexFile);
+		} catch (IOException ioe) {
+			Files.deleteIfExists(tmp.toPath());
+			Files.deleteIfExists(indexFile.toPath());
+			throw ioe;
+		}
+		Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		//logs exported by previous versions are plain text duplicates, not needed anymore
+		Files.deleteIfExists(new File(target.getParentFile(), LEGACY_LOG_FILE_NAME).toPath());
+		logger.debug("log of " + name + " exported in " + (System.currentTimeMillis() - start) + " ms, " + target.length() + " bytes compressed");
+		return target;
+	}
+
+	private static File getIndexFile(File target) {
+		return new File(target.getPath() + INDEX_FILE_SUFFIX);
+	}
+
+	private static long getMaxSize() {
+		return SystemPropertyUtils.getLongProperty("octane.plugin.BuildLogExporter.maxSizeMB", DEFAULT_MAX_SIZE_MB, 1) * 1024 * 1024;
+	}
+
+	public static void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Export of a single log, unregistered from the exports in progress once done;
+	 * may be run by whichever comes first, the export thread or a request for the log
+	 */
+	private static final class ExportTask extends FutureTask<File> {
+		private final File target;
+
+		ExportTask(String name, File target, LogSource source) {
+			super(() -> export(name, target, source));
+			this.target = target;
+		}
+
+		@Override
+		protected void done() {
+			exportsInProgress.remove(target, this);
+		}
+	}
+
+	/**
+	 * Plain text stream of an exported log, positioned at the requested offset
+	 */
+	public static final class ExportedLog extends FilterInputStream {
+		private final long offset;
+		private final long length;
+
+		private ExportedLog(InputStream in, long offset, long length) {
+			super(in);
+			this.offset = offset;
+			this.length = length;
+		}
+
+		static ExportedLog open(File target, long offset) throws IOException {
+			LogIndex index = LogIndex.read(getIndexFile(target));
+			InputStream file = new FileInputStream(target);
+			try {
+				long position = 0;
+				if (index != null) {
+					int member = index.getMemberOf(offset);
+					IOUtils.skipFully(file, index.compressedOffsets[member]);
+					position = index.plainOffsets[member];
+				}
+				InputStream result = new GZIPInputStream(file, BUFFER_SIZE);
+				try {
+					IOUtils.skipFully(result, offset - position);
+				} catch (EOFException eofe) {
+					//offset is beyond the end, serve the empty remainder
+				}
+				return new ExportedLog(result, offset, index != null ? index.length : -1);
+			} catch (IOException ioe) {
+				file.close();
+				throw ioe;
+			}
+		}
+
+		/**
+		 * @return plain text offset the stream starts at
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return total plain text length of the log; -1 if not known (exported with no index)
+		 */
+		public long getLength() {
+			return length;
+		}
+	}
+
+	/**
+	 * Plain text and compressed offsets of the gzip members of an exported log
+	 */
+	static final class LogIndex {
+		private final long[] plainOffsets;
+		private final long[] compressedOffsets;
+		private final long length;
+
+		LogIndex(long[] plainOffsets, long[] compressedOffsets, long length) {
+			this.plainOffsets = plainOffsets;
+			this.compressedOffsets = compressedOffsets;
+			this.length = length;
+		}
+
+		int getMemberOf(long offset) {
+			int member = 0;
+			while (member + 1 < plainOffsets.length && plainOffsets[member + 1] <= offset) {
+				member++;
+			}
+			return member;
+		}
+
+		int getMembersCount() {
+			return plainOffsets.length;
+		}
+
+		void write(File file) throws IOException {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				out.writeInt(plainOffsets.length);
+				for (int i = 0; i < plainOffsets.length; i++) {
+					out.writeLong(plainOffsets[i]);
+					out.writeLong(compressedOffsets[i]);
+				}
+				out.writeLong(length);
+			}
+		}
+
+		/**
+		 * @return the index; null if there is none or it is not readable
+		 */
+		static LogIndex read(File file) {
+			if (!file.isFile()) {
+				return null;
+			}
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				int count = in.readInt();
+				if (count <= 0) {
+					return null;
+				}
+				long[] plainOffsets = new long[count];
+				long[] compressedOffsets = new long[count];
+				for (int i = 0; i < count; i++) {
+					plainOffsets[i] = in.readLong();
+					compressedOffsets[i] = in.readLong();
+				}
+				return new LogIndex(plainOffsets, compressedOffsets, in.readLong());
+			} catch (IOException e) {
+				logger.warn("failed to read log export index " + file, e);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Gzip stream written as a sequence of members of the given plain text size, each of them decompressible on its own
+	 */
+	static final class MultiMemberGzipOutputStream extends OutputStream {
+		private final CountingOutputStream out;
+		private final long memberSize;
+		private final List<Long> plainOffsets = new ArrayList<>();
+		private final List<Long> compressedOffsets = new ArrayList<>();
+		private GZIPOutputStream member;
+		private long memberWritten;
+		private long written;
+		private boolean closed;
+
+		MultiMemberGzipOutputStream(OutputStream out, long memberSize) throws IOException {
+			this.out = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+			this.memberSize = memberSize;
+			startMember();
+		}
+
+		private void startMember() throws IOException {
+			plainOffsets.add(written);
+			compressedOffsets.add(out.getByteCount());
+			member = new GZIPOutputStream(out, BUFFER_SIZE);
+			memberWritten = 0;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (memberWritten >= memberSize) {
+					member.finish();
+					startMember();
+				}
+				int chunk = (int) Math.min(len, memberSize - memberWritten);
+				member.write(b, off, chunk);
+				memberWritten += chunk;
+				written += chunk;
+				off += chunk;
+				len -= chunk;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			member.finish();
+			out.close();
+		}
+
+		LogIndex getIndex() {
+			long[] plain = new long[plainOffsets.size()];
+			long[] compressed = new long[compressedOffsets.size()];
+			for (int i = 0; i < plain.length; i++) {
+				plain[i] = plainOffsets.get(i);
+				compressed[i] = compressedOffsets.get(i);
+			}
+			return new LogIndex(plain, compressed, written);
+		}
+	}
+
+	/**
+	 * Passes through up to the given number of bytes, the rest is dropped and replaced by a single truncation marker
+	 */
+	static final class CappedOutputStream extends FilterOutputStream {
+		private final long maxSize;
+		private long written;
+		private long dropped;
+		private boolean closed;
+
+		CappedOutputStream(OutputStream out, long maxSize) {
+			super(out);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (written < maxSize) {
+				out.write(b);
+				written++;
+			} else {
+				dropped++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			int allowed = (int) Math.min(len, Math.max(0, maxSize - written));
+			if (allowed > 0) {
+				out.write(b, off, allowed);
+				written += allowed;
+			}
+			dropped += len - allowed;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (dropped > 0) {
+				out.write(("\n[log truncated: " + dropped + " more bytes were not exported to ALM Octane]\n").getBytes(StandardCharsets.UTF_8));
+			}
+			super.close();
+		}
+	}
+}
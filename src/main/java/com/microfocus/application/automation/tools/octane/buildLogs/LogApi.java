@@ -0,0 +1,107 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.buildLogs;
+
+import hudson.model.Item;
+import hudson.model.Run;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the build log as exported for Octane (see {@link BuildLogExporter})
+ * - transfer may be resumed either by 'start' query parameter or by 'Range: bytes=N-' header
+ * - a range is answered by 206 with Content-Range, or by 200 with the full log when the log length is not known
+ * - the log is never exported on the request thread: while its export is pending the request is answered by 503 with Retry-After
+ */
+public class LogApi {
+	private static final Pattern OPEN_RANGE = Pattern.compile("^bytes=(\\d+)-$");
+	private static final int RETRY_AFTER_SECONDS = 10;
+
+	private final Run build;
+
+	public LogApi(Run build) {
+		this.build = build;
+	}
+
+	public void doText(StaplerRequest req, StaplerResponse res) throws IOException {
+		build.getACL().checkPermission(Item.READ);
+		long offset = NumberUtils.toLong(req.getParameter("start"), 0);
+		boolean partial = false;
+		String range = req.getHeader("Range");
+		if (range != null) {
+			Matcher matcher = OPEN_RANGE.matcher(range.trim());
+			if (matcher.matches()) {
+				offset = Long.parseLong(matcher.group(1));
+				partial = true;
+			}
+		}
+
+		Future<File> export = BuildLogExporter.exportAsync(build);
+		if (!export.isDone()) {
+			res.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+			res.sendError(503, "Log export in progress");
+			return;
+		}
+		String name = String.valueOf(build);
+		BuildLogExporter.ExportedLog log = BuildLogExporter.openExportedLog(name, export, Math.max(0, offset));
+		if (log == null) {
+			res.sendError(404, "Information not available");
+			return;
+		}
+		if (partial && log.getLength() < 0) {
+			//length of the log is not known, the range can't be honored, full log is served instead
+			IOUtils.closeQuietly(log);
+			log = BuildLogExporter.openExportedLog(name, export, 0);
+			partial = false;
+			if (log == null) {
+				res.sendError(404, "Information not available");
+				return;
+			}
+		}
+		try {
+			res.setHeader("Accept-Ranges", "bytes");
+			if (partial) {
+				long length = log.getLength();
+				if (log.getOffset() >= length) {
+					res.setHeader("Content-Range", "bytes */" + length);
+					res.sendError(416, "Requested range not satisfiable");
+					return;
+				}
+				res.setStatus(206);
+				res.setHeader("Content-Range", "bytes " + log.getOffset() + "-" + (length - 1) + "/" + length);
+			} else {
+				res.setStatus(200);
+			}
+			res.setContentType("text/plain;charset=UTF-8");
+			IOUtils.copyLarge(log, res.getOutputStream());
+		} finally {
+			IOUtils.closeQuietly(log);
+		}
+	}
+}
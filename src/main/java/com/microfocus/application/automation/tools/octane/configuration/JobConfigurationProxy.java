@@ -34,6 +34,7 @@ import com.hp.octane.integrations.dto.pipelines.PipelineContext;
 import com.hp.octane.integrations.dto.pipelines.PipelineContextList;
 import com.hp.octane.integrations.dto.pipelines.PipelineNode;
 import com.hp.octane.integrations.services.entities.EntitiesService;
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
 import com.microfocus.application.automation.tools.model.OctaneServerSettingsModel;
 import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.Messages;
@@ -50,15 +51,25 @@ import org.kohsuke.stapler.bind.JavaScriptMethod;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * This class is a proxy between JS UI code and server-side job configuration.
+ * Octane lookups (autocomplete searches, entities by ids, fields metadata) go through a shared query cache,
+ * TTL and size of which are configurable via 'octane.plugin.JobConfigurationProxy.cacheTtl' (seconds, default 60)
+ * and 'octane.plugin.JobConfigurationProxy.cacheSize' (default 500) system properties.
  */
 public class JobConfigurationProxy {
 	private final static Logger logger = LogManager.getLogger(JobConfigurationProxy.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+	private static final int LIST_ITEMS_LIMIT = 100;
+	private static final OctaneQueryCache queryCache = new OctaneQueryCache(
+			TimeUnit.SECONDS.toMillis(SystemPropertyUtils.getIntProperty("octane.plugin.JobConfigurationProxy.cacheTtl", 60)),
+			SystemPropertyUtils.getIntProperty("octane.plugin.JobConfigurationProxy.cacheSize", 500));
 
 	final private Job job;
 
@@ -87,6 +98,7 @@ public class JobConfigurationProxy {
 					.setStructure(pipelineNode)
 					.setServer(ciServerInfo);
 			PipelineContext createdPipelineContext = octaneClient.getPipelineContextService().createPipeline(octaneClient.getInstanceId(), pipelineNode.getJobCiId(), pipelineContext);
+			queryCache.invalidate(cacheKey(octaneClient, pipelineContext.getWorkspaceId()));
 
 
 			//WORKAROUND BEGIN
@@ -171,6 +183,8 @@ public class JobConfigurationProxy {
 					.setListFields(fields);
 
 			PipelineContext pipeline = octaneClient.getPipelineContextService().updatePipeline(octaneClient.getInstanceId(), jobCiId, pipelineContext);
+			//update might have created new taxonomies and list items
+			queryCache.invalidate(cacheKey(octaneClient, pipelineContext.getWorkspaceId()));
 
 			//WORKAROUND BEGIN
 			//getting workspaceName - because the workspaceName is not returned from configuration API
@@ -843,14 +857,21 @@ public class JobConfigurationProxy {
 	}
 
 	private static ResponseEntityList queryWorkspacesByName(OctaneClient octaneClient, String name, int limit) {
-		return queryEntitiesByName(octaneClient, name, null, "workspaces", limit);
+		return searchByName(octaneClient, null, "workspaces", name, limit, JobConfigurationProxy::nameMatches,
+				() -> queryEntitiesByName(octaneClient, name, null, "workspaces", limit));
 	}
 
 	private static ResponseEntityList queryReleasesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
-		return queryEntitiesByName(octaneClient, name, workspaceId, "releases", limit);
+		return searchByName(octaneClient, workspaceId, "releases", name, limit, JobConfigurationProxy::nameMatches,
+				() -> queryEntitiesByName(octaneClient, name, workspaceId, "releases", limit));
 	}
 
 	private static ResponseEntityList queryTaxonomiesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
+		return searchByName(octaneClient, workspaceId, "taxonomy_nodes", name, limit, JobConfigurationProxy::nameMatches,
+				() -> loadTaxonomiesByName(octaneClient, name, workspaceId, limit));
+	}
+
+	private static ResponseEntityList loadTaxonomiesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
 
 		EntitiesService entityService = octaneClient.getEntitiesService();
 
@@ -878,27 +899,60 @@ public class JobConfigurationProxy {
 		return result;
 	}
 
+	/**
+	 * Searches the entities by name through the query cache
+	 * - typing in autocomplete only narrows the search, so if a complete result of a shorter term is cached, it is filtered locally
+	 */
+	private static ResponseEntityList searchByName(OctaneClient octaneClient, Long workspaceId, String collectionName, String name, int limit,
+												   BiPredicate<Entity, String> matches, Callable<ResponseEntityList> loader) {
+		String term = name == null ? "" : name.toLowerCase();
+		String keyPrefix = cacheKey(octaneClient, workspaceId) + collectionName + "|" + limit + "|";
+		for (int i = term.length() - 1; i >= 0; i--) {
+			ResponseEntityList shorterTermResult = queryCache.getIfPresent(keyPrefix + term.substring(0, i));
+			if (shorterTermResult != null && isComplete(shorterTermResult, limit)) {
+				List<Entity> data = shorterTermResult.getData().stream().filter(entity -> matches.test(entity, term)).collect(Collectors.toList());
+				return newEntityList(data, data.size());
+			}
+		}
+		return getCached(keyPrefix + term, loader);
+	}
+
+	private static boolean isComplete(ResponseEntityList result, int limit) {
+		return result.getData().size() < limit || result.getTotalCount() == result.getData().size();
+	}
+
+	private static boolean nameMatches(Entity entity, String lowerCaseTerm) {
+		return entity != null && entity.getName() != null && entity.getName().toLowerCase().contains(lowerCaseTerm);
+	}
+
 	private static ResponseEntityList queryListItems(OctaneClient octaneClient, String logicalListName, String name, long workspaceId, int limit) {
-		int myLimit = limit;
+		//list node are not filterable by name, so the list is loaded once (cached) and filtered locally
+		ResponseEntityList allItems = getCached(cacheKey(octaneClient, workspaceId) + "list_nodes|" + logicalListName,
+				() -> loadListItems(octaneClient, logicalListName, workspaceId));
+		if (StringUtils.isEmpty(name)) {
+			List<Entity> data = allItems.getData();
+			return data.size() <= limit ? allItems : newEntityList(data.subList(0, limit), allItems.getTotalCount());
+		}
+		List<Entity> data = allItems.getData().stream().filter(l -> l.getName().toLowerCase().contains(name.toLowerCase())).limit(limit).collect(Collectors.toList());
+		return newEntityList(data, data.size());
+	}
+
+	private static ResponseEntityList loadListItems(OctaneClient octaneClient, String logicalListName, long workspaceId) {
 		EntitiesService entityService = octaneClient.getEntitiesService();
 		List<String> conditions = new LinkedList();
-		if (!StringUtils.isEmpty(name)) {
-			//list node are not filterable by name
-			//conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.condition(EntityConstants.Base.NAME_FIELD, "*" + name + "*"));
-			myLimit = 100;
-		}
 		if (!StringUtils.isEmpty(logicalListName)) {
 			conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.conditionRef("list_root", EntityConstants.Base.LOGICAL_NAME_FIELD, logicalListName));
 		}
 
-		String url = entityService.buildEntityUrl(workspaceId, "list_nodes", conditions, null, 0, myLimit, null);
-		ResponseEntityList result = entityService.getPagedEntities(url);
-		ResponseEntityList myResult = result;
-		if (!StringUtils.isEmpty(name)) {
-			List<Entity> data = result.getData().stream().filter(l -> l.getName().toLowerCase().contains(name.toLowerCase())).limit(limit).collect(Collectors.toList());
-			myResult = (ResponseEntityList) dtoFactory.newDTO(ResponseEntityList.class).setData(data);
-		}
-		return myResult;
+		String url = entityService.buildEntityUrl(workspaceId, "list_nodes", conditions, null, 0, LIST_ITEMS_LIMIT, null);
+		return entityService.getPagedEntities(url);
+	}
+
+	private static ResponseEntityList newEntityList(List<Entity> data, int totalCount) {
+		ResponseEntityList result = dtoFactory.newDTO(ResponseEntityList.class);
+		result.setData(data);
+		result.setTotalCount(totalCount);
+		return result;
 	}
 
 	private static List<Entity> getWorkspacesById(OctaneClient client, Collection<?> itemIds) {
@@ -933,10 +987,16 @@ public class JobConfigurationProxy {
 	}
 
 	private static List<Entity> getEntitiesById(OctaneClient octaneClient, Long workspaceId, String collectionName, Collection<?> itemIds) {
-		return octaneClient.getEntitiesService().getEntitiesByIds(workspaceId, collectionName, itemIds);
+		Set<String> sortedIds = itemIds.stream().map(String::valueOf).collect(Collectors.toCollection(TreeSet::new));
+		return getCached(cacheKey(octaneClient, workspaceId) + collectionName + "|ids|" + String.join(",", sortedIds),
+				() -> octaneClient.getEntitiesService().getEntitiesByIds(workspaceId, collectionName, itemIds));
 	}
 
 	private static List<Entity> getPipelineListNodeFieldsMetadata(OctaneClient octaneClient, long workspaceId) {
+		return getCached(cacheKey(octaneClient, workspaceId) + "metadata/fields", () -> loadPipelineListNodeFieldsMetadata(octaneClient, workspaceId));
+	}
+
+	private static List<Entity> loadPipelineListNodeFieldsMetadata(OctaneClient octaneClient, long workspaceId) {
 		List<String> conditions = new LinkedList<>();
 		conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.condition("entity_name", "pipeline_node"));
 		conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.conditionIn("name", Arrays.asList("test_tool_type", "test_level", "test_type", "test_framework"), false));
@@ -974,4 +1034,21 @@ public class JobConfigurationProxy {
 		}
 		return fieldMetadataArray;
 	}
+
+	/**
+	 * @return key prefix of the cached queries of the Octane instance and workspace (null for shared space level queries)
+	 */
+	private static String cacheKey(OctaneClient octaneClient, Long workspaceId) {
+		return octaneClient.getInstanceId() + "|" + (workspaceId == null ? "" : workspaceId) + "|";
+	}
+
+	private static <T> T getCached(String key, Callable<T> loader) {
+		try {
+			return queryCache.get(key, loader);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
 }
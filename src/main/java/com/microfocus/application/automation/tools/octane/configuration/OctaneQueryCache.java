@@ -0,0 +1,169 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.configuration;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of Octane query results, used by the job configuration UI (autocomplete and metadata lookups)
+ * - entries expire after the TTL and the least recently used entries are evicted above the max size
+ * - identical concurrent queries are coalesced: only the first caller hits Octane, the others wait for its result
+ * - keys are expected to be prefixed by the instance id and workspace id, so that a workspace can be invalidated at once
+ * - failed queries are not cached
+ */
+class OctaneQueryCache {
+	private final long ttl;
+	private final int maxEntries;
+	private final Map<String, CachedValue> entries;
+	private final ConcurrentHashMap<String, FutureTask<Object>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private long generation;
+
+	/**
+	 * @param ttl        time to live of the entries in milliseconds
+	 * @param maxEntries max number of the cached entries
+	 */
+	OctaneQueryCache(long ttl, int maxEntries) {
+		this.ttl = ttl;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, CachedValue>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+				return size() > OctaneQueryCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return cached value of the key or null if not cached (or expired)
+	 */
+	@SuppressWarnings("unchecked")
+	synchronized <T> T getIfPresent(String key) {
+		CachedValue cached = entries.get(key);
+		if (cached == null) {
+			return null;
+		}
+		if (cached.expiration < System.currentTimeMillis()) {
+			entries.remove(key);
+			return null;
+		}
+		return (T) cached.value;
+	}
+
+	/**
+	 * Returns cached value of the key, loads it if not cached; concurrent loads of the same key are coalesced
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T get(String key, Callable<T> loader) throws Exception {
+		T cached = getIfPresent(key);
+		if (cached != null) {
+			hits.incrementAndGet();
+			return cached;
+		}
+
+		FutureTask<Object> task = new FutureTask<>(loader::call);
+		FutureTask<Object> running = inFlight.putIfAbsent(key, task);
+		try {
+			if (running == null) {
+				misses.incrementAndGet();
+				long startGeneration = getGeneration();
+				try {
+					task.run();
+					Object value = task.get();
+					put(key, value, startGeneration);
+					return (T) value;
+				} finally {
+					inFlight.remove(key, task);
+				}
+			} else {
+				coalesced.incrementAndGet();
+				return (T) running.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes all the entries the key of which starts with the prefix
+	 */
+	synchronized void invalidate(String keyPrefix) {
+		generation++;
+		Iterator<String> keys = entries.keySet().iterator();
+		while (keys.hasNext()) {
+			if (keys.next().startsWith(keyPrefix)) {
+				keys.remove();
+			}
+		}
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	long getHitCount() {
+		return hits.get();
+	}
+
+	long getMissCount() {
+		return misses.get();
+	}
+
+	long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	private synchronized long getGeneration() {
+		return generation;
+	}
+
+	private synchronized void put(String key, Object value, long startGeneration) {
+		//value loaded before an invalidation might be outdated already
+		if (value != null && startGeneration == generation) {
+			entries.put(key, new CachedValue(value, System.currentTimeMillis() + ttl));
+		}
+	}
+
+	private static final class CachedValue {
+		private final Object value;
+		private final long expiration;
+
+		private CachedValue(Object value, long expiration) {
+			this.value = value;
+			this.expiration = expiration;
+		}
+	}
+}
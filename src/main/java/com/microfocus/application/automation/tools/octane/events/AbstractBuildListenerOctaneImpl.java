@@ -110,7 +110,8 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 						.setCommonHashId(commonOriginRevision.revision)
 						.setBranchName(commonOriginRevision.branch);
 			}
-			CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+			//  SCM events are published in background, FINISHED must not overtake them
+			SCMEventPublisher.getInstance().publishAfterScmEvents(build, event);
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch FINISHED event for " + build, throwable);
 		}
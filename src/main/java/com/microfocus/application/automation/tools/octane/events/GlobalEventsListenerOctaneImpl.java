@@ -24,8 +24,10 @@ import com.hp.octane.integrations.OctaneSDK;
 import com.hp.octane.integrations.dto.DTOFactory;
 import com.hp.octane.integrations.dto.events.CIEvent;
 import com.hp.octane.integrations.dto.events.CIEventType;
+import com.microfocus.application.automation.tools.octane.buildLogs.BuildLogExporter;
 import com.microfocus.application.automation.tools.octane.executor.UftTestDiscoveryDispatcher;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
+import com.microfocus.application.automation.tools.octane.tests.TestListener;
 import com.microfocus.application.automation.tools.settings.OctaneServerSettingsBuilder;
 import hudson.Extension;
 import hudson.model.Item;
@@ -74,5 +76,9 @@ public class GlobalEventsListenerOctaneImpl extends ItemListener {
 
 		UftTestDiscoveryDispatcher dispatcher = Jenkins.getInstance().getExtensionList(UftTestDiscoveryDispatcher.class).get(0);
 		dispatcher.close();
+
+		TestListener.shutdownProcessingPool();
+		SCMEventPublisher.getInstance().shutdown();
+		BuildLogExporter.shutdown();
 	}
 }
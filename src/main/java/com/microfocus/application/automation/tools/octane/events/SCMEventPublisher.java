@@ -0,0 +1,165 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import com.hp.octane.integrations.dto.events.CIEvent;
+import com.hp.octane.integrations.dto.scm.SCMData;
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import com.microfocus.application.automation.tools.octane.BoundedWorkerPool;
+import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
+import com.microfocus.application.automation.tools.octane.model.CIEventFactory;
+import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessor;
+import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessors;
+import hudson.model.Run;
+import hudson.scm.SCM;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes SCM events off the build thread
+ * - only the basic SCM data (changelog commits and their files) is extracted on the build thread,
+ * the enrichment, causes processing and the publishing itself run in background
+ * - pool size is configurable via 'octane.plugin.SCMEventPublisher.poolSize' system property (default 2)
+ * - queue capacity is configurable via 'octane.plugin.SCMEventPublisher.queueCapacity' system property (default 100)
+ * - when the queue is full the SCM event is not published and the rejection is logged, the build thread never waits
+ * - events that must follow the SCM events of their run (FINISHED) are held back until the SCM events of the run are published
+ */
+public final class SCMEventPublisher extends BoundedWorkerPool {
+	private static final Logger logger = LogManager.getLogger(SCMEventPublisher.class);
+
+	private static final int DEFAULT_POOL_SIZE = 2;
+	private static final int DEFAULT_QUEUE_CAPACITY = 100;
+	private static final SCMEventPublisher instance = new SCMEventPublisher();
+
+	//  runs with SCM events still in progress and the actions waiting for them
+	private final Map<Run<?, ?>, PendingRun> pendingRuns = new HashMap<>();
+
+	private SCMEventPublisher() {
+		this(SystemPropertyUtils.getIntProperty("octane.plugin.SCMEventPublisher.poolSize", DEFAULT_POOL_SIZE),
+				SystemPropertyUtils.getIntProperty("octane.plugin.SCMEventPublisher.queueCapacity", DEFAULT_QUEUE_CAPACITY));
+	}
+
+	SCMEventPublisher(int poolSize, int queueCapacity) {
+		super("Octane SCM events publisher", poolSize, queueCapacity);
+	}
+
+	public static SCMEventPublisher getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Snapshots the SCM data of the run and schedules the SCM event creation and publishing
+	 *
+	 * @param run run the changelog of which was just parsed
+	 * @param scm SCM the changelog came from
+	 */
+	void publish(Run<?, ?> run, SCM scm) {
+		SCMProcessor scmProcessor = SCMProcessors.getAppropriate(scm.getClass().getName());
+		if (scmProcessor == null) {
+			logger.debug("no processors found for SCM provider of type '" + scm.getType() + "', SCM data won't be extracted");
+			return;
+		}
+
+		SCMData scmData;
+		try {
+			scmData = CIEventFactory.extractSCMData(run, scm, scmProcessor);
+		} catch (Exception e) {
+			logger.error("failed to extract SCM data of " + run, e);
+			return;
+		}
+		if (scmData == null) {
+			return;
+		}
+
+		schedule(run, () -> {
+			CIEvent scmEvent = CIEventFactory.createScmEvent(run, scmProcessor, scmData);
+			CIJenkinsServicesImpl.publishEventToRelevantClients(scmEvent);
+		});
+	}
+
+	/**
+	 * Publishes the event once all SCM events of the run scheduled so far are published (or failed),
+	 * immediately on the calling thread if there are none
+	 *
+	 * @param run   run the event belongs to
+	 * @param event event to follow the SCM events of the run, typically FINISHED
+	 */
+	public void publishAfterScmEvents(Run<?, ?> run, CIEvent event) {
+		runAfterScmEvents(run, () -> CIJenkinsServicesImpl.publishEventToRelevantClients(event));
+	}
+
+	void schedule(Run<?, ?> run, Runnable scmPublishing) {
+		synchronized (pendingRuns) {
+			pendingRuns.computeIfAbsent(run, r -> new PendingRun()).scmEvents++;
+		}
+		boolean scheduled = execute("SCM event of " + run, () -> {
+			try {
+				scmPublishing.run();
+			} finally {
+				scmEventDone(run);
+			}
+		});
+		if (!scheduled) {
+			scmEventDone(run);
+		}
+	}
+
+	void runAfterScmEvents(Run<?, ?> run, Runnable action) {
+		synchronized (pendingRuns) {
+			PendingRun pendingRun = pendingRuns.get(run);
+			if (pendingRun != null) {
+				logger.debug("SCM events of " + run + " are still in progress, postponing the following events");
+				pendingRun.waitingActions.add(action);
+				return;
+			}
+		}
+		action.run();
+	}
+
+	private void scmEventDone(Run<?, ?> run) {
+		List<Runnable> waitingActions;
+		synchronized (pendingRuns) {
+			PendingRun pendingRun = pendingRuns.get(run);
+			if (pendingRun == null || --pendingRun.scmEvents > 0) {
+				return;
+			}
+			pendingRuns.remove(run);
+			waitingActions = pendingRun.waitingActions;
+		}
+		for (Runnable action : waitingActions) {
+			try {
+				action.run();
+			} catch (Throwable t) {
+				logger.error("failed to publish event following the SCM events of " + run, t);
+			}
+		}
+	}
+
+	private static final class PendingRun {
+		private int scmEvents;
+		private final List<Runnable> waitingActions = new ArrayList<>();
+	}
+}
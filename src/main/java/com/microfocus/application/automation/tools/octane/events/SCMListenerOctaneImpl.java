@@ -20,9 +20,6 @@
 
 package com.microfocus.application.automation.tools.octane.events;
 
-import com.hp.octane.integrations.dto.events.CIEvent;
-import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
-import com.microfocus.application.automation.tools.octane.model.CIEventFactory;
 import hudson.Extension;
 import hudson.model.Run;
 import hudson.model.TaskListener;
@@ -32,6 +29,7 @@ import hudson.scm.SCM;
 
 /**
  * Run Listener that handles SCM CI events and dispatches notifications to the Octane server
+ * - the event is built and published asynchronously by {@link SCMEventPublisher}
  * Created by gullery on 10/07/2016.
  */
 
@@ -41,9 +39,6 @@ public class SCMListenerOctaneImpl extends SCMListener {
     @Override
     public void onChangeLogParsed(Run<?, ?> run, SCM scm, TaskListener listener, ChangeLogSet<?> changelog) throws Exception {
         super.onChangeLogParsed(run, scm, listener, changelog);
-        CIEvent scmEvent = CIEventFactory.createScmEvent(run, scm);
-        if (scmEvent != null) {
-            CIJenkinsServicesImpl.publishEventToRelevantClients(scmEvent);
-        }
+        SCMEventPublisher.getInstance().publish(run, scm);
     }
 }
@@ -105,7 +105,8 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 	private void sendPipelineFinishedEvent(FlowEndNode flowEndNode) {
 		WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowEndNode);
-		boolean hasTests = testListener.processBuild(parentRun);
+		//  test results are converted in background, the listener (CPS VM) thread must not wait for them
+		boolean hasTests = testListener.processBuildAsync(parentRun);
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.FINISHED)
@@ -119,7 +120,8 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 				.setResult(BuildHandlerUtils.translateRunResult(parentRun))
 				.setCauses(CIEventCausesFactory.processCauses(parentRun))
 				.setTestResultExpected(hasTests);
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+		//  SCM events are published in background, FINISHED must not overtake them
+		SCMEventPublisher.getInstance().publishAfterScmEvents(parentRun, event);
 	}
 
 	private void sendStageStartedEvent(StepStartNode stepStartNode) {
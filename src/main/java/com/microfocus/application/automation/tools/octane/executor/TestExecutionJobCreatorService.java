@@ -564,7 +564,7 @@ public class TestExecutionJobCreatorService {
 			String testRunnerLogicalName = parts[parts.length - 1];
 
 			//find matching discovery job
-			List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
+			List<FreeStyleProject> jobs = UftJobIndex.getInstance().getDiscoveryJobsByExecutor(testRunnerLogicalName);
 			FreeStyleProject foundDiscoveryJob = null;
 			for (FreeStyleProject job : jobs) {
 				if (UftJobRecognizer.isDiscoveryJob(job)) {
@@ -0,0 +1,81 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trie of test folder paths, by path segments
+ * - tells whether a folder is a test folder or lies inside one in time proportional to the folder depth, regardless the number of tests
+ */
+class TestFolderTrie {
+	private final String separator;
+	private final Node root = new Node();
+
+	/**
+	 * @param separator separator of the path segments
+	 */
+	TestFolderTrie(String separator) {
+		this.separator = separator;
+	}
+
+	void add(String testFolderPath) {
+		Node node = root;
+		int start = 0;
+		while (start <= testFolderPath.length()) {
+			int end = nextSeparator(testFolderPath, start);
+			node = node.children.computeIfAbsent(testFolderPath.substring(start, end), k -> new Node());
+			start = end + separator.length();
+		}
+		node.testFolder = true;
+	}
+
+	/**
+	 * @return true if the folder is one of the test folders or a sub folder of one of them
+	 */
+	boolean isInTestFolder(String folderPath) {
+		Node node = root;
+		int start = 0;
+		while (start <= folderPath.length()) {
+			int end = nextSeparator(folderPath, start);
+			node = node.children.get(folderPath.substring(start, end));
+			if (node == null) {
+				return false;
+			}
+			if (node.testFolder) {
+				return true;
+			}
+			start = end + separator.length();
+		}
+		return false;
+	}
+
+	private int nextSeparator(String path, int start) {
+		int end = path.indexOf(separator, start);
+		return end == -1 ? path.length() : end;
+	}
+
+	private static final class Node {
+		private final Map<String, Node> children = new HashMap<>(4);
+		private boolean testFolder;
+	}
+}
@@ -20,7 +20,6 @@
 
 package com.microfocus.application.automation.tools.octane.executor;
 
-import com.hp.octane.integrations.uft.UftTestDiscoveryUtils;
 import com.hp.octane.integrations.uft.items.*;
 import com.hp.octane.integrations.utils.SdkConstants;
 import com.hp.octane.integrations.utils.SdkStringUtils;
@@ -55,13 +54,23 @@ public class UFTTestDetectionService {
 
         try {
 
-            boolean fullScan = build.getId().equals("1") || !initialDetectionFileExist(build.getWorkspace()) || isFullScan((build));
+            FilePath workspace = build.getWorkspace();
+            boolean fullScan = build.getId().equals("1") || !initialDetectionFileExist(workspace) || isFullScan((build));
+            List<UftTestDiscoveryCallable.ChangedPath> changedPaths;
             if (fullScan) {
                 printToConsole(buildListener, "Executing full sync");
-                result = UftTestDiscoveryUtils.doFullDiscovery(new File(build.getWorkspace().getRemote()));
+                changedPaths = Collections.emptyList();
             } else {
                 printToConsole(buildListener, "Executing changeSet sync");
-                result = doChangeSetDetection(changeSetItems, new File(build.getWorkspace().getRemote()));
+                changedPaths = getChangedPaths(changeSetItems);
+            }
+
+            //discovery runs on the node of the workspace, only its result is sent back
+            UftTestDiscoveryCallable.Outcome outcome = workspace.act(new UftTestDiscoveryCallable(fullScan, changedPaths));
+            result = outcome.getResult();
+            if (fullScan) {
+                printToConsole(buildListener, String.format("Parsed %s tests and data tables, %s unchanged ones were taken from the previous sync", outcome.getParsedCount(), outcome.getReusedCount()));
+            } else {
                 removeTestDuplicatedForUpdateTests(result);
                 removeFalsePositiveDataTables(result, result.getDeletedTests(), result.getDeletedScmResourceFiles());
                 removeFalsePositiveDataTables(result, result.getNewTests(), result.getNewScmResourceFiles());
@@ -156,7 +165,7 @@ public class UFTTestDetectionService {
 
     /**
      * Deleted data table might be part of deleted test. During discovery its very hard to know.
-     * Here we pass through all deleted data tables, if we found data table parent is test folder - we know that the delete was part of test delete
+     * Here we pass through all deleted data tables, if we found data table parent is test folder (or inside it) - we know that the delete was part of test delete
      *
      * @param tests
      * @param scmResourceFiles
@@ -164,22 +173,22 @@ public class UFTTestDetectionService {
     private static void removeFalsePositiveDataTables(UftTestDiscoveryResult result, List<AutomatedTest> tests, List<ScmResourceFile> scmResourceFiles) {
         if (!scmResourceFiles.isEmpty() && !tests.isEmpty()) {
 
-            List<ScmResourceFile> falsePositive = new ArrayList<>();
+            TestFolderTrie testFolders = new TestFolderTrie(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+            for (AutomatedTest test : tests) {
+                testFolders.add(SdkStringUtils.isEmpty(test.getPackage()) ? test.getName() : test.getPackage() + SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER + test.getName());
+            }
+
+            Set<ScmResourceFile> falsePositive = Collections.newSetFromMap(new IdentityHashMap<>());
             for (ScmResourceFile item : scmResourceFiles) {
                 int parentSplitterIndex = item.getRelativePath().lastIndexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
-                if (parentSplitterIndex != -1) {
-                    String parentName = item.getRelativePath().substring(0, parentSplitterIndex);
-                    for (AutomatedTest test : tests) {
-                        String testPath = SdkStringUtils.isEmpty(test.getPackage()) ? test.getName() : test.getPackage() + SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER + test.getName();
-                        if (parentName.contains(testPath)) {
-                            falsePositive.add(item);
-                            break;
-                        }
-                    }
+                if (parentSplitterIndex != -1 && testFolders.isInTestFolder(item.getRelativePath().substring(0, parentSplitterIndex))) {
+                    falsePositive.add(item);
                 }
             }
 
-            result.getAllScmResourceFiles().removeAll(falsePositive);
+            if (!falsePositive.isEmpty()) {
+                result.getAllScmResourceFiles().removeIf(falsePositive::contains);
+            }
         }
     }
 
@@ -220,77 +229,24 @@ public class UFTTestDetectionService {
         }
     }
 
-    private static UftTestDiscoveryResult doChangeSetDetection(Object[] changeSetItems, File workspace) {
-        UftTestDiscoveryResult result = new UftTestDiscoveryResult();
-        if (changeSetItems.length == 0) {
-            return result;
-        }
-
-        for (int i = 0; i < changeSetItems.length; i++) {
-            ChangeLogSet.Entry changeSet = (ChangeLogSet.Entry) changeSetItems[i];
+    private static List<UftTestDiscoveryCallable.ChangedPath> getChangedPaths(Object[] changeSetItems) {
+        List<UftTestDiscoveryCallable.ChangedPath> changedPaths = new ArrayList<>();
+        for (Object changeSetItem : changeSetItems) {
+            ChangeLogSet.Entry changeSet = (ChangeLogSet.Entry) changeSetItem;
             for (ChangeLogSet.AffectedFile affectedFileChange : changeSet.getAffectedFiles()) {
-                if (affectedFileChange.getPath().startsWith("\"")) {
-                    result.setHasQuotedPaths(true);
-                }
-                boolean isDir = isDir(affectedFileChange);
-                String affectedFileFullPath = workspace + File.separator + affectedFileChange.getPath();
-                if (!isDir) {
-                    if (UftTestDiscoveryUtils.isTestMainFilePath(affectedFileChange.getPath())) {
-                        File testFolder = UftTestDiscoveryUtils.getTestFolderForTestMainFile(affectedFileFullPath);
-                        File affectedFile = new File(affectedFileFullPath);
-                        boolean fileExist = affectedFile.exists();
-                        UftTestType uftTestType = UftTestDiscoveryUtils.getUftTestType(affectedFileChange.getPath());
-
-                        AutomatedTest test = UftTestDiscoveryUtils.createAutomatedTest(workspace, testFolder, uftTestType);
-                        addChangeSetSrcAndDst(test, affectedFileChange);
-
-                        if (EditType.ADD.equals(affectedFileChange.getEditType())) {
-                            if (fileExist) {
-                                result.getAllTests().add(test);
-                            }
-                        } else if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
-                            if (!fileExist) {
-                                test.setOctaneStatus(OctaneStatus.DELETED);
-                                test.setExecutable(false);
-                                result.getAllTests().add(test);
-                            }
-                        } else if (EditType.EDIT.equals(affectedFileChange.getEditType())) {
-                            if (fileExist) {
-                                test.setOctaneStatus(OctaneStatus.MODIFIED);
-                                result.getAllTests().add(test);
-                            }
-                        }
-                    } else if (UftTestDiscoveryUtils.isUftDataTableFile(affectedFileChange.getPath())) {
-                        File affectedFile = new File(affectedFileFullPath);
-                        ScmResourceFile resourceFile = UftTestDiscoveryUtils.createDataTable(workspace, affectedFile);
-                        addChangeSetSrcAndDst(resourceFile, affectedFileChange);
-                        if (EditType.ADD.equals(affectedFileChange.getEditType())) {
-                            UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(affectedFile.getParentFile().listFiles());
-                            if (testType.isNone()) {
-                                if (affectedFile.exists()) {
-                                    result.getAllScmResourceFiles().add(resourceFile);
-                                }
-                            }
-                        } else if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
-                            if (!affectedFile.exists()) {
-                                resourceFile.setOctaneStatus(OctaneStatus.DELETED);
-                                result.getAllScmResourceFiles().add(resourceFile);
-                            }
-                        }
-                    }
-                } else //isDir
-                {
-                    if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
-
-                        FilePath filePath = new FilePath(new File(affectedFileChange.getPath()));
-                        String deletedFolder = filePath.getRemote().replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
-                        result.getDeletedFolders().add(deletedFolder);
-                    }
+                String changeSetSrc = null;
+                String changeSetDst = null;
+                ScmPluginHandler handler = ScmPluginFactory.getScmHandlerByChangePathClass(affectedFileChange.getClass().getName());
+                if (handler != null) {
+                    changeSetSrc = handler.getChangeSetSrc(affectedFileChange);
+                    changeSetDst = handler.getChangeSetDst(affectedFileChange);
                 }
+                EditType editType = affectedFileChange.getEditType();
+                changedPaths.add(new UftTestDiscoveryCallable.ChangedPath(affectedFileChange.getPath(), editType == null ? null : editType.getName(),
+                        isDir(affectedFileChange), changeSetSrc, changeSetDst));
             }
         }
-
-        return result;
+        return changedPaths;
     }
 
     private static boolean isDir(ChangeLogSet.AffectedFile path) {
@@ -306,22 +262,9 @@ public class UFTTestDetectionService {
         return false;
     }
 
-    private static void addChangeSetSrcAndDst(SupportsMoveDetection entity, ChangeLogSet.AffectedFile affectedFile) {
-        if (affectedFile != null) {
-            ScmPluginHandler handler = ScmPluginFactory.getScmHandlerByChangePathClass(affectedFile.getClass().getName());
-            if (handler != null) {
-                entity.setChangeSetSrc(handler.getChangeSetSrc(affectedFile));
-                entity.setChangeSetDst(handler.getChangeSetDst(affectedFile));
-            }
-        }
-    }
-
     private static boolean initialDetectionFileExist(FilePath workspace) {
         try {
-            File rootFile = new File(workspace.toURI());
-            File file = new File(rootFile, INITIAL_DETECTION_FILE);
-            return file.exists();
-
+            return workspace.child(INITIAL_DETECTION_FILE).exists();
         } catch (Exception e) {
             return false;
         }
@@ -329,10 +272,9 @@ public class UFTTestDetectionService {
 
     private static void createInitialDetectionFile(FilePath workspace) {
         try {
-            File rootFile = new File(workspace.toURI());
-            File file = new File(rootFile, INITIAL_DETECTION_FILE);
-            logger.info("Initial detection file path : " + file.getPath());
-            file.createNewFile();
+            FilePath file = workspace.child(INITIAL_DETECTION_FILE);
+            logger.info("Initial detection file path : " + file.getRemote());
+            file.touch(System.currentTimeMillis());
         } catch (IOException | InterruptedException e) {
             logger.error("Failed to createInitialDetectionFile : " + e.getMessage());
         }
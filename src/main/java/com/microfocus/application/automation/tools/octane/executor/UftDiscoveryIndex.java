@@ -0,0 +1,291 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.UftTestDiscoveryUtils;
+import com.hp.octane.integrations.uft.items.AutomatedTest;
+import com.hp.octane.integrations.uft.items.ScmResourceFile;
+import com.hp.octane.integrations.uft.items.UftTestDiscoveryResult;
+import com.hp.octane.integrations.uft.items.UftTestType;
+import com.hp.octane.integrations.utils.SdkConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Fingerprint index of the UFT tests and data tables of a workspace, used by the full discovery (runs on the node of the workspace)
+ * - test folders and data tables are fingerprinted by their path, modification time and size;
+ * a content hash of the test folder is computed only when its modification time or size changed (e.g. fresh checkout)
+ * - tests and data tables with unchanged fingerprint are taken from the snapshot of the previous discovery instead of being parsed again
+ * - index and snapshot are kept in the workspace root, next to the initial detection marker
+ */
+class UftDiscoveryIndex {
+	private static final Logger logger = LogManager.getLogger(UftDiscoveryIndex.class);
+	static final String INDEX_FILE = "octane-uft-discovery.idx";
+	static final String SNAPSHOT_FILE = "octane-uft-discovery.json";
+	private static final String HEADER = "octane-uft-discovery-index 1";
+	private static final char TEST = 'T';
+	private static final char DATA_TABLE = 'D';
+
+	private final File root;
+	private final Map<String, Fingerprint> previousFingerprints = new HashMap<>();
+	private final Map<String, Fingerprint> fingerprints = new LinkedHashMap<>();
+	private List<AutomatedTest> previousTests = Collections.emptyList();
+	private List<ScmResourceFile> previousDataTables = Collections.emptyList();
+	private int reusedCount;
+	private int parsedCount;
+
+	UftDiscoveryIndex(File root) {
+		this.root = root;
+		load();
+	}
+
+	/**
+	 * Discovers all the tests and data tables of the workspace and updates the index
+	 */
+	UftTestDiscoveryResult discover() {
+		UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+		scan(root, result);
+		store(result);
+		return result;
+	}
+
+	int getReusedCount() {
+		return reusedCount;
+	}
+
+	int getParsedCount() {
+		return parsedCount;
+	}
+
+	private void scan(File dir, UftTestDiscoveryResult result) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		//test folder is a test, other folders are drilled down (same as UftTestDiscoveryUtils.doFullDiscovery)
+		UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(files);
+		if (!testType.isNone()) {
+			String path = getRelativePath(dir);
+			Fingerprint previous = previousFingerprints.get(path);
+			Fingerprint fingerprint = fingerprintTestFolder(path, dir, previous);
+			AutomatedTest test = previous != null && previous.kind == TEST && fingerprint.sameAs(previous) ? getPrevious(previousTests, previous.position) : null;
+			if (test != null && dir.getName().equals(test.getName())) {
+				reusedCount++;
+			} else {
+				test = parseTest(dir, testType);
+				parsedCount++;
+			}
+			fingerprint.position = result.getAllTests().size();
+			fingerprints.put(path, fingerprint);
+			result.getAllTests().add(test);
+		} else {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					scan(file, result);
+				} else if (UftTestDiscoveryUtils.isUftDataTableFile(file.getName())) {
+					String path = getRelativePath(file);
+					Fingerprint previous = previousFingerprints.get(path);
+					Fingerprint fingerprint = new Fingerprint(DATA_TABLE, path, file.lastModified(), file.length(), null);
+					ScmResourceFile dataTable = previous != null && previous.kind == DATA_TABLE && fingerprint.sameAs(previous) ? getPrevious(previousDataTables, previous.position) : null;
+					if (dataTable != null && file.getName().equals(dataTable.getName())) {
+						reusedCount++;
+					} else {
+						dataTable = UftTestDiscoveryUtils.createDataTable(root, file);
+						parsedCount++;
+					}
+					fingerprint.position = result.getAllScmResourceFiles().size();
+					fingerprints.put(path, fingerprint);
+					result.getAllScmResourceFiles().add(dataTable);
+				}
+			}
+		}
+	}
+
+	AutomatedTest parseTest(File dir, UftTestType testType) {
+		return UftTestDiscoveryUtils.createAutomatedTest(root, dir, testType);
+	}
+
+	private Fingerprint fingerprintTestFolder(String path, File dir, Fingerprint previous) {
+		List<File> files = new ArrayList<>();
+		collectFiles(dir, files);
+		long modified = 0;
+		long size = 0;
+		for (File file : files) {
+			modified = Math.max(modified, file.lastModified());
+			size += file.length();
+		}
+
+		String hash;
+		if (previous != null && previous.modified == modified && previous.size == size) {
+			hash = previous.hash;
+		} else {
+			hash = computeHash(dir, files);
+		}
+		return new Fingerprint(TEST, path, modified, size, hash);
+	}
+
+	private static void collectFiles(File dir, List<File> result) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			Arrays.sort(files);
+			for (File file : files) {
+				if (file.isDirectory()) {
+					collectFiles(file, result);
+				} else {
+					result.add(file);
+				}
+			}
+		}
+	}
+
+	private String computeHash(File dir, List<File> files) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] buffer = new byte[64 * 1024];
+			int dirPathLength = dir.getPath().length();
+			for (File file : files) {
+				digest.update(file.getPath().substring(dirPathLength).getBytes(StandardCharsets.UTF_8));
+				try (InputStream in = new FileInputStream(file)) {
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						digest.update(buffer, 0, read);
+					}
+				}
+			}
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest()) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (IOException | NoSuchAlgorithmException e) {
+			//no hash - the test is parsed again
+			logger.warn("Failed to compute hash of " + dir + " : " + e.getMessage());
+			return null;
+		}
+	}
+
+	private String getRelativePath(File file) {
+		String path = file.getPath().substring(root.getPath().length());
+		if (path.startsWith(File.separator)) {
+			path = path.substring(1);
+		}
+		return path.replace(File.separator, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+	}
+
+	private static <T> T getPrevious(List<T> items, int position) {
+		return position >= 0 && position < items.size() ? items.get(position) : null;
+	}
+
+	private void load() {
+		File indexFile = new File(root, INDEX_FILE);
+		File snapshotFile = new File(root, SNAPSHOT_FILE);
+		if (!indexFile.exists() || !snapshotFile.exists()) {
+			return;
+		}
+		try {
+			List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+			if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+				logger.warn("Ignoring UFT discovery index of unknown format " + indexFile);
+				return;
+			}
+			for (String line : lines.subList(1, lines.size())) {
+				Fingerprint fingerprint = Fingerprint.parse(line);
+				previousFingerprints.put(fingerprint.path, fingerprint);
+			}
+			UftTestDiscoveryResult snapshot = UftTestDiscoveryResult.readFromFile(snapshotFile);
+			previousTests = snapshot.getAllTests();
+			previousDataTables = snapshot.getAllScmResourceFiles();
+		} catch (Exception e) {
+			logger.warn("Failed to load UFT discovery index " + indexFile + ", all tests will be parsed : " + e.getMessage());
+			previousFingerprints.clear();
+			previousTests = Collections.emptyList();
+			previousDataTables = Collections.emptyList();
+		}
+	}
+
+	private void store(UftTestDiscoveryResult result) {
+		File indexFile = new File(root, INDEX_FILE);
+		try {
+			result.writeToFile(new File(root, SNAPSHOT_FILE));
+			try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(indexFile), StandardCharsets.UTF_8))) {
+				writer.write(HEADER);
+				writer.newLine();
+				for (Fingerprint fingerprint : fingerprints.values()) {
+					writer.write(fingerprint.format());
+					writer.newLine();
+				}
+			}
+		} catch (Exception e) {
+			//next full discovery parses everything again
+			logger.warn("Failed to store UFT discovery index " + indexFile + " : " + e.getMessage());
+			indexFile.delete();
+		}
+	}
+
+	/**
+	 * Fingerprint of a test folder or a data table, with its position in the snapshot
+	 */
+	private static final class Fingerprint {
+		private final char kind;
+		private final String path;
+		private final long modified;
+		private final long size;
+		private final String hash;
+		private int position;
+
+		private Fingerprint(char kind, String path, long modified, long size, String hash) {
+			this.kind = kind;
+			this.path = path;
+			this.modified = modified;
+			this.size = size;
+			this.hash = hash;
+		}
+
+		private boolean sameAs(Fingerprint other) {
+			if (modified == other.modified && size == other.size) {
+				return true;
+			}
+			return hash != null && hash.equals(other.hash);
+		}
+
+		private String format() {
+			return kind + "\t" + position + "\t" + modified + "\t" + size + "\t" + (hash == null ? "" : hash) + "\t" + path;
+		}
+
+		private static Fingerprint parse(String line) throws IOException {
+			String[] parts = line.split("\t", 6);
+			if (parts.length != 6 || parts[0].length() != 1) {
+				throw new IOException("illegal index entry '" + line + "'");
+			}
+			Fingerprint fingerprint = new Fingerprint(parts[0].charAt(0), parts[5], Long.parseLong(parts[2]), Long.parseLong(parts[3]), parts[4].isEmpty() ? null : parts[4]);
+			fingerprint.position = Integer.parseInt(parts[1]);
+			return fingerprint;
+		}
+	}
+}
@@ -81,10 +81,9 @@ public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
 
     @Override
     protected void doExecute(TaskListener listener) throws IOException, InterruptedException {
-        List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
-
-        clearExecutionJobs(jobs);
-        clearDiscoveryJobs(jobs);
+        UftJobIndex index = UftJobIndex.getInstance();
+        clearExecutionJobs(index.getExecutionJobs());
+        clearDiscoveryJobs(index.getDiscoveryJobs());
     }
 
     private void clearExecutionJobs(List<FreeStyleProject> jobs) {
@@ -168,7 +167,7 @@ public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
     }
 
     public static void deleteExecutionJobByExecutorIfNeverExecuted(String executorToDelete) {
-        List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
+        List<FreeStyleProject> jobs = UftJobIndex.getInstance().getExecutionJobsByExecutor(executorToDelete);
         for (FreeStyleProject proj : jobs) {
             if (UftJobRecognizer.isExecutorJob(proj)) {
                 String executorId = UftJobRecognizer.getExecutorId(proj);
@@ -195,7 +194,7 @@ public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
      */
     public static void deleteDiscoveryJobByExecutor(String executorToDelete) {
 
-        List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
+        List<FreeStyleProject> jobs = UftJobIndex.getInstance().getDiscoveryJobsByExecutor(executorToDelete);
         for (FreeStyleProject proj : jobs) {
             if (UftJobRecognizer.isDiscoveryJob(proj)) {
                 String executorId = UftJobRecognizer.getExecutorId(proj);
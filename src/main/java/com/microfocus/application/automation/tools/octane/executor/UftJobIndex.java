@@ -0,0 +1,253 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.*;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * Index of the UFT execution and discovery jobs, kept up to date by item events
+ * - jobs are indexed by the executor (test runner) ids and logical names found in their parameters
+ * - the controller is scanned once, on load or on the first lookup; afterwards only the jobs touched by item events are re-indexed
+ * - lookups return the candidate jobs only, callers still apply their own matching (see {@link UftJobRecognizer})
+ */
+@Extension
+public class UftJobIndex extends ItemListener {
+	private static final Logger logger = LogManager.getLogger(UftJobIndex.class);
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final Map<String, Set<String>> fullNamesByExecutor = new HashMap<>();
+	private boolean initialized;
+
+	public static UftJobIndex getInstance() {
+		return ExtensionList.lookup(UftJobIndex.class).get(0);
+	}
+
+	/**
+	 * @return all the UFT execution jobs visible to the current user
+	 */
+	public List<FreeStyleProject> getExecutionJobs() {
+		return resolve(getFullNames(null, false));
+	}
+
+	/**
+	 * @return all the UFT discovery jobs visible to the current user
+	 */
+	public List<FreeStyleProject> getDiscoveryJobs() {
+		return resolve(getFullNames(null, true));
+	}
+
+	/**
+	 * @param executor executor (test runner) id or logical name
+	 * @return UFT execution jobs having the executor in their parameters
+	 */
+	public List<FreeStyleProject> getExecutionJobsByExecutor(String executor) {
+		return StringUtils.isEmpty(executor) ? Collections.emptyList() : resolve(getFullNames(executor, false));
+	}
+
+	/**
+	 * @param executor executor (test runner) id or logical name
+	 * @return UFT discovery jobs having the executor in their parameters
+	 */
+	public List<FreeStyleProject> getDiscoveryJobsByExecutor(String executor) {
+		return StringUtils.isEmpty(executor) ? Collections.emptyList() : resolve(getFullNames(executor, true));
+	}
+
+	@Override
+	public void onLoaded() {
+		ensureInitialized();
+	}
+
+	@Override
+	public void onCreated(Item item) {
+		reindex(item);
+	}
+
+	@Override
+	public void onCopied(Item src, Item item) {
+		reindex(item);
+	}
+
+	@Override
+	public void onUpdated(Item item) {
+		reindex(item);
+	}
+
+	@Override
+	public void onDeleted(Item item) {
+		remove(item.getFullName());
+	}
+
+	@Override
+	public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+		remove(oldFullName);
+		reindex(item);
+	}
+
+	@Extension
+	public static final class JobSaveListener extends SaveableListener {
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			//parameters of the jobs are changed by API (e.g. upgrade to test runners) and saved, no item event is fired
+			if (o instanceof FreeStyleProject) {
+				getInstance().reindex((Item) o);
+			}
+		}
+	}
+
+	private synchronized Set<String> getFullNames(String executor, boolean discovery) {
+		ensureInitialized();
+		Collection<String> candidates = executor == null ? entries.keySet() : fullNamesByExecutor.getOrDefault(executor, Collections.emptySet());
+		Set<String> result = new TreeSet<>();
+		for (String fullName : candidates) {
+			if (entries.get(fullName).discovery == discovery) {
+				result.add(fullName);
+			}
+		}
+		return result;
+	}
+
+	private static List<FreeStyleProject> resolve(Collection<String> fullNames) {
+		List<FreeStyleProject> result = new ArrayList<>(fullNames.size());
+		Jenkins jenkins = Jenkins.getInstance();
+		for (String fullName : fullNames) {
+			//lookup by full name takes care of the READ permission of the current user
+			FreeStyleProject job = jenkins.getItemByFullName(fullName, FreeStyleProject.class);
+			if (job != null) {
+				result.add(job);
+			}
+		}
+		return result;
+	}
+
+	private synchronized void ensureInitialized() {
+		if (initialized) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		//index holds everything, the permissions are applied on lookup
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			for (FreeStyleProject job : Jenkins.getInstance().getAllItems(FreeStyleProject.class)) {
+				put(job);
+			}
+		}
+		initialized = true;
+		logger.info("UFT job index initialized with " + entries.size() + " jobs in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private synchronized void reindex(Item item) {
+		if (!initialized) {
+			//the initial scan will pick it up
+			return;
+		}
+		if (item instanceof FreeStyleProject) {
+			remove(item.getFullName());
+			put((FreeStyleProject) item);
+		} else if (item instanceof ItemGroup) {
+			//folder copied or moved - its jobs have to be indexed under their new names
+			for (FreeStyleProject job : Items.getAllItems((ItemGroup<?>) item, FreeStyleProject.class)) {
+				remove(job.getFullName());
+				put(job);
+			}
+		}
+	}
+
+	private synchronized void remove(String fullName) {
+		if (fullName == null) {
+			return;
+		}
+		String folderPrefix = fullName + "/";
+		Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Entry> e = it.next();
+			//deleting a folder fires a single event, its jobs are dropped along with it
+			if (e.getKey().equals(fullName) || e.getKey().startsWith(folderPrefix)) {
+				for (String executor : e.getValue().executors) {
+					Set<String> fullNames = fullNamesByExecutor.get(executor);
+					if (fullNames != null) {
+						fullNames.remove(e.getKey());
+						if (fullNames.isEmpty()) {
+							fullNamesByExecutor.remove(executor);
+						}
+					}
+				}
+				it.remove();
+			}
+		}
+	}
+
+	private void put(FreeStyleProject job) {
+		boolean discovery;
+		if (UftJobRecognizer.isDiscoveryJob(job)) {
+			discovery = true;
+		} else if (UftJobRecognizer.isExecutorJob(job)) {
+			discovery = false;
+		} else {
+			return;
+		}
+		Entry entry = new Entry(discovery, getExecutors(job));
+		entries.put(job.getFullName(), entry);
+		for (String executor : entry.executors) {
+			fullNamesByExecutor.computeIfAbsent(executor, k -> new HashSet<>()).add(job.getFullName());
+		}
+	}
+
+	private static Set<String> getExecutors(FreeStyleProject job) {
+		Set<String> executors = new HashSet<>();
+		ParametersDefinitionProperty parameters = job.getProperty(ParametersDefinitionProperty.class);
+		if (parameters != null) {
+			for (String parameterName : Arrays.asList(UftConstants.EXECUTOR_ID_PARAMETER_NAME, UftConstants.EXECUTOR_LOGICAL_NAME_PARAMETER_NAME,
+					UftConstants.TEST_RUNNER_ID_PARAMETER_NAME, UftConstants.TEST_RUNNER_LOGICAL_NAME_PARAMETER_NAME)) {
+				ParameterDefinition pd = parameters.getParameterDefinition(parameterName);
+				ParameterValue value = pd == null ? null : pd.getDefaultParameterValue();
+				if (value != null && value.getValue() != null && StringUtils.isNotEmpty(value.getValue().toString())) {
+					executors.add(value.getValue().toString());
+				}
+			}
+		}
+		return executors;
+	}
+
+	/**
+	 * Indexed UFT job
+	 */
+	private static final class Entry {
+		private final boolean discovery;
+		private final Set<String> executors;
+
+		private Entry(boolean discovery, Set<String> executors) {
+			this.discovery = discovery;
+			this.executors = executors;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.UftTestDiscoveryUtils;
+import com.hp.octane.integrations.uft.items.*;
+import com.hp.octane.integrations.utils.SdkConstants;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Runs the UFT test discovery on the node of the workspace
+ * - full discovery goes through the workspace fingerprint index ({@link UftDiscoveryIndex}), so only changed tests are parsed
+ * - change set discovery checks the affected paths only
+ * - only the discovery result is sent back to the controller
+ */
+public class UftTestDiscoveryCallable extends MasterToSlaveFileCallable<UftTestDiscoveryCallable.Outcome> {
+	private static final long serialVersionUID = 1L;
+
+	private final boolean fullScan;
+	private final List<ChangedPath> changedPaths;
+
+	public UftTestDiscoveryCallable(boolean fullScan, List<ChangedPath> changedPaths) {
+		this.fullScan = fullScan;
+		this.changedPaths = changedPaths;
+	}
+
+	@Override
+	public Outcome invoke(File workspace, VirtualChannel channel) throws IOException {
+		UftTestDiscoveryResult result;
+		int reusedCount = 0;
+		int parsedCount = 0;
+		if (fullScan) {
+			UftDiscoveryIndex index = new UftDiscoveryIndex(workspace);
+			result = index.discover();
+			reusedCount = index.getReusedCount();
+			parsedCount = index.getParsedCount();
+		} else {
+			result = doChangeSetDetection(workspace);
+		}
+
+		File resultFile = File.createTempFile("octane-uft-discovery", ".json");
+		try {
+			result.writeToFile(resultFile);
+			return new Outcome(Files.readAllBytes(resultFile.toPath()), reusedCount, parsedCount);
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Failed to serialize discovery result : " + e.getMessage(), e);
+		} finally {
+			Files.deleteIfExists(resultFile.toPath());
+		}
+	}
+
+	private UftTestDiscoveryResult doChangeSetDetection(File workspace) {
+		UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+		for (ChangedPath changedPath : changedPaths) {
+			if (changedPath.path.startsWith("\"")) {
+				result.setHasQuotedPaths(true);
+			}
+			String affectedFileFullPath = workspace + File.separator + changedPath.path;
+			if (!changedPath.dir) {
+				if (UftTestDiscoveryUtils.isTestMainFilePath(changedPath.path)) {
+					File testFolder = UftTestDiscoveryUtils.getTestFolderForTestMainFile(affectedFileFullPath);
+					File affectedFile = new File(affectedFileFullPath);
+					boolean fileExist = affectedFile.exists();
+					UftTestType uftTestType = UftTestDiscoveryUtils.getUftTestType(changedPath.path);
+
+					AutomatedTest test = UftTestDiscoveryUtils.createAutomatedTest(workspace, testFolder, uftTestType);
+					changedPath.applyChangeSetSrcAndDst(test);
+
+					if (ChangedPath.ADD.equals(changedPath.editType)) {
+						if (fileExist) {
+							result.getAllTests().add(test);
+						}
+					} else if (ChangedPath.DELETE.equals(changedPath.editType)) {
+						if (!fileExist) {
+							test.setOctaneStatus(OctaneStatus.DELETED);
+							test.setExecutable(false);
+							result.getAllTests().add(test);
+						}
+					} else if (ChangedPath.EDIT.equals(changedPath.editType)) {
+						if (fileExist) {
+							test.setOctaneStatus(OctaneStatus.MODIFIED);
+							result.getAllTests().add(test);
+						}
+					}
+				} else if (UftTestDiscoveryUtils.isUftDataTableFile(changedPath.path)) {
+					File affectedFile = new File(affectedFileFullPath);
+					ScmResourceFile resourceFile = UftTestDiscoveryUtils.createDataTable(workspace, affectedFile);
+					changedPath.applyChangeSetSrcAndDst(resourceFile);
+					if (ChangedPath.ADD.equals(changedPath.editType)) {
+						UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(affectedFile.getParentFile().listFiles());
+						if (testType.isNone()) {
+							if (affectedFile.exists()) {
+								result.getAllScmResourceFiles().add(resourceFile);
+							}
+						}
+					} else if (ChangedPath.DELETE.equals(changedPath.editType)) {
+						if (!affectedFile.exists()) {
+							resourceFile.setOctaneStatus(OctaneStatus.DELETED);
+							result.getAllScmResourceFiles().add(resourceFile);
+						}
+					}
+				}
+			} else if (ChangedPath.DELETE.equals(changedPath.editType)) {
+				String deletedFolder = new File(changedPath.path).getPath().replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+				result.getDeletedFolders().add(deletedFolder);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Path affected by the change set of the build, as collected on the controller
+	 */
+	public static final class ChangedPath implements Serializable {
+		private static final long serialVersionUID = 1L;
+		static final String ADD = "add";
+		static final String DELETE = "delete";
+		static final String EDIT = "edit";
+
+		private final String path;
+		private final String editType;
+		private final boolean dir;
+		private final String changeSetSrc;
+		private final String changeSetDst;
+
+		/**
+		 * @param editType name of the edit type ({@link hudson.scm.EditType#getName()})
+		 */
+		public ChangedPath(String path, String editType, boolean dir, String changeSetSrc, String changeSetDst) {
+			this.path = path;
+			this.editType = editType;
+			this.dir = dir;
+			this.changeSetSrc = changeSetSrc;
+			this.changeSetDst = changeSetDst;
+		}
+
+		private void applyChangeSetSrcAndDst(SupportsMoveDetection entity) {
+			if (changeSetSrc != null || changeSetDst != null) {
+				entity.setChangeSetSrc(changeSetSrc);
+				entity.setChangeSetDst(changeSetDst);
+			}
+		}
+	}
+
+	/**
+	 * Discovery result (serialized) and the index statistics of a full discovery
+	 */
+	public static final class Outcome implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] result;
+		private final int reusedCount;
+		private final int parsedCount;
+
+		private Outcome(byte[] result, int reusedCount, int parsedCount) {
+			this.result = result;
+			this.reusedCount = reusedCount;
+			this.parsedCount = parsedCount;
+		}
+
+		public UftTestDiscoveryResult getResult() throws IOException {
+			File resultFile = File.createTempFile("octane-uft-discovery", ".json");
+			try {
+				Files.write(resultFile.toPath(), result);
+				return UftTestDiscoveryResult.readFromFile(resultFile);
+			} finally {
+				Files.deleteIfExists(resultFile.toPath());
+			}
+		}
+
+		public int getReusedCount() {
+			return reusedCount;
+		}
+
+		public int getParsedCount() {
+			return parsedCount;
+		}
+	}
+}
@@ -30,6 +30,7 @@ import com.hp.octane.integrations.services.entities.EntitiesService;
 import com.hp.octane.integrations.uft.UftTestDispatchUtils;
 import com.hp.octane.integrations.uft.items.*;
 import com.hp.octane.integrations.utils.SdkStringUtils;
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
 import com.microfocus.application.automation.tools.octane.ResultQueue;
 import com.microfocus.application.automation.tools.octane.tests.AbstractSafeLoggingAsyncPeriodWork;
 import hudson.Extension;
@@ -38,6 +39,10 @@ import hudson.model.FreeStyleProject;
 import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
@@ -48,7 +53,8 @@ import javax.xml.bind.JAXBException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is responsible to send discovered uft tests to Octane.
@@ -56,30 +62,57 @@ import java.util.concurrent.TimeUnit;
  * after connection is up - this dispatcher will send tests to Octane.
  * <p>
  * Actually list of discovered tests are persisted in job run directory. Queue contains only reference to that job run.
+ * <p>
+ * Dispatching pool size and lease batch size are configurable via 'octane.plugin.UftTestDiscoveryDispatcher.poolSize' (default 4)
+ * and 'octane.plugin.UftTestDiscoveryDispatcher.batchSize' (default 50) system properties.
  */
 @Extension
 public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWork {
 
 	private final static Logger logger = LogManager.getLogger(UftTestDiscoveryDispatcher.class);
 
-	private final static int MAX_DISPATCH_TRIALS = 5;
 	private static final String OCTANE_VERSION_SUPPORTING_TEST_RENAME = "12.60.3";
+	private static final int DEFAULT_POOL_SIZE = 4;
+	private static final int DEFAULT_BATCH_SIZE = 50;
+	private static final long POSTPONE_DELAY = TimeUnit.SECONDS.toMillis(30);
 
 	private UftTestDiscoveryQueue queue;
 	private volatile boolean stopped = false;
+	private final ThreadPoolExecutor executor;
+	private final int batchSize;
+	private final AtomicLong dispatched = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong totalDispatchTime = new AtomicLong();
+	private final AtomicLong maxDispatchTime = new AtomicLong();
+	//  workspaces blocked by their failed head item (project#build) waiting for retry
+	private final Map<String, String> blockedWorkspaces = new ConcurrentHashMap<>();
 
 	public UftTestDiscoveryDispatcher() {
 		super("Uft Test Discovery Dispatcher");
+		int poolSize = SystemPropertyUtils.getIntProperty("octane.plugin.UftTestDiscoveryDispatcher.poolSize", DEFAULT_POOL_SIZE);
+		batchSize = SystemPropertyUtils.getIntProperty("octane.plugin.UftTestDiscoveryDispatcher.batchSize", DEFAULT_BATCH_SIZE);
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(),
+				new NamingThreadFactory(new DaemonThreadFactory(), "Octane UFT test discovery dispatcher"));
+		executor.allowCoreThreadTimeOut(true);
 	}
 
 
+	/**
+	 * Drains the queue in batches
+	 * - items of different Octane workspaces are dispatched concurrently, items of the same workspace one by one in queue order
+	 * - failed item is scheduled by the queue for retry with backoff (or moved to its dead letter file), the rest of the queue goes on
+	 * except for the items of its workspace: they are postponed until the failed item is dispatched, so discovery diffs
+	 * of a workspace are never sent out of order
+	 */
 	@Override
 	protected void doExecute(TaskListener listener) {
 		if (stopped) {
 			return;
 		}
 
-		if (queue.peekFirst() == null) {
+		if (queue.size() == 0) {
 			return;
 		}
 
@@ -90,44 +123,112 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 			return;
 		}
 
-		ResultQueue.QueueItem item = null;
-		try {
-			while ((item = queue.peekFirst()) != null) {
+		dispatchQueue();
+	}
 
-				Job project = (Job) Jenkins.getInstance().getItemByFullName(item.getProjectName());
-				if (project == null) {
-					logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
-					queue.remove();
-					continue;
+	/**
+	 * Leases and dispatches batches until the queue has no item ready for dispatch
+	 */
+	void dispatchQueue() {
+		List<ResultQueue.QueueItem> items;
+		while (!stopped && !(items = queue.lease(batchSize)).isEmpty()) {
+			Map<String, List<PendingDispatch>> dispatchesByWorkspace = new LinkedHashMap<>();
+			for (ResultQueue.QueueItem item : items) {
+				PendingDispatch pendingDispatch = prepareDispatch(item);
+				if (pendingDispatch != null) {
+					dispatchesByWorkspace.computeIfAbsent(pendingDispatch.workspaceKey, k -> new ArrayList<>()).add(pendingDispatch);
 				}
+			}
 
-				Run build = project.getBuildByNumber(item.getBuildNumber());
-				if (build == null) {
-					logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
-					queue.remove();
-					continue;
+			List<Future<?>> futures = new ArrayList<>(dispatchesByWorkspace.size());
+			for (List<PendingDispatch> workspaceDispatches : dispatchesByWorkspace.values()) {
+				futures.add(executor.submit(() -> dispatchWorkspace(workspaceDispatches)));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					logger.error("Failed to dispatch discovered UFT tests : " + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					//leased items are acknowledged or failed by the running dispatches
+					Thread.currentThread().interrupt();
+					return;
 				}
+			}
+		}
 
-				UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
-				if (result == null) {
-					logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
-					queue.remove();
-					continue;
-				}
+		logger.info("Dispatched " + dispatched.get() + ", failed " + failed.get() + ", dropped " + dropped.get() + " discovery results so far; " + queue.size() + " pending");
+	}
 
-				OctaneClient client = null;
-				try {
-					client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
-				} catch (Exception e) {
-					logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
-					queue.remove();
-					continue;
-				}
+	/**
+	 * Resolves the build and the discovery result of the leased item; items that can never be dispatched are removed from the queue
+	 *
+	 * @return pending dispatch or null if there is nothing to dispatch
+	 */
+	PendingDispatch prepareDispatch(ResultQueue.QueueItem item) {
+		try {
+			Job project = (Job) Jenkins.getInstance().getItemByFullName(item.getProjectName());
+			if (project == null) {
+				logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
+				drop(item);
+				return null;
+			}
 
-				logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
-				dispatchDetectionResults(item, client.getEntitiesService(), result);
-				queue.remove();
+			Run build = project.getBuildByNumber(item.getBuildNumber());
+			if (build == null) {
+				logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
+				drop(item);
+				return null;
 			}
+
+			UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
+			if (result == null) {
+				logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
+				drop(item);
+				return null;
+			}
+
+			OctaneClient client;
+			try {
+				client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
+			} catch (Exception e) {
+				logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
+				drop(item);
+				return null;
+			}
+			return new PendingDispatch(item, client, result);
+		} catch (Throwable e) {
+			fail(item, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Dispatches the items of one workspace in queue order, items behind a failed item of the workspace are postponed
+	 */
+	private void dispatchWorkspace(List<PendingDispatch> workspaceDispatches) {
+		for (PendingDispatch pendingDispatch : workspaceDispatches) {
+			ResultQueue.QueueItem item = pendingDispatch.item;
+			String blockingItem = blockedWorkspaces.get(pendingDispatch.workspaceKey);
+			if (blockingItem != null && !blockingItem.equals(getItemKey(item))) {
+				logger.info("Discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "] is postponed until [" + blockingItem + "] is dispatched");
+				queue.postpone(item, POSTPONE_DELAY);
+			} else {
+				dispatch(pendingDispatch);
+			}
+		}
+	}
+
+	private void dispatch(PendingDispatch pendingDispatch) {
+		ResultQueue.QueueItem item = pendingDispatch.item;
+		long start = System.currentTimeMillis();
+		//dispatching threads have no authentication of their own
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
+			persist(pendingDispatch);
+			queue.acknowledge(Collections.singletonList(item));
+			dispatched.incrementAndGet();
+			unblock(item);
 		} catch (OctaneRestException e) {
 			String reasonDesc = StringUtils.isNotEmpty(e.getData().getDescriptionTranslated()) ? e.getData().getDescriptionTranslated() : e.getData().getDescription();
 			if (e.getResponseStatus() == HttpStatus.SC_FORBIDDEN) {
@@ -135,24 +236,109 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 			} else {
 				logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  : " + reasonDesc);
 			}
-			queue.remove();
-		} catch (Exception e) {
-			if (item != null) {
-				item.incrementFailCount();
-				if (item.incrementFailCount() > MAX_DISPATCH_TRIALS) {
-					queue.remove();
-					logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + MAX_DISPATCH_TRIALS + " trials");
-				}
+			drop(item);
+		} catch (Throwable e) {
+			//any failure, errors included, must release the leased item
+			if (fail(item, e)) {
+				blockedWorkspaces.put(pendingDispatch.workspaceKey, getItemKey(item));
 			}
+		} finally {
+			long duration = System.currentTimeMillis() - start;
+			totalDispatchTime.addAndGet(duration);
+			maxDispatchTime.accumulateAndGet(duration, Math::max);
+		}
+	}
+
+	/**
+	 * Sends the discovery result to Octane
+	 */
+	void persist(PendingDispatch pendingDispatch) {
+		dispatchDetectionResults(pendingDispatch.item, pendingDispatch.client.getEntitiesService(), pendingDispatch.result);
+	}
+
+	void drop(ResultQueue.QueueItem item) {
+		queue.acknowledge(Collections.singletonList(item));
+		dropped.incrementAndGet();
+		unblock(item);
+	}
+
+	/**
+	 * @return TRUE if the item will be retried
+	 */
+	boolean fail(ResultQueue.QueueItem item, Throwable e) {
+		failed.incrementAndGet();
+		if (queue.failed(item)) {
+			logger.warn("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "], will be retried : " + e.getMessage());
+			return true;
+		} else {
+			logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + UftTestDiscoveryQueue.MAX_DISPATCH_TRIALS + " trials : " + e.getMessage());
+			unblock(item);
+			return false;
 		}
 	}
 
+	/**
+	 * Releases the workspace blocked by the item, if any, once the item is done with (dispatched, dropped or out of trials)
+	 */
+	private void unblock(ResultQueue.QueueItem item) {
+		blockedWorkspaces.values().remove(getItemKey(item));
+	}
+
+	private static String getItemKey(ResultQueue.QueueItem item) {
+		return item.getProjectName() + "#" + item.getBuildNumber();
+	}
+
 	public void close() {
 		logger.info("stopping the UFT dispatcher and closing its queue");
 		stopped = true;
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+				logger.warn("UFT dispatcher did not complete running dispatches in time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 		queue.close();
 	}
 
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	public int getInProgressCount() {
+		return queue.getLeasedCount();
+	}
+
+	public int getDeadLetterCount() {
+		return queue.getDeadLetterCount();
+	}
+
+	public long getOldestItemAge() {
+		return queue.getOldestItemAge();
+	}
+
+	public long getDispatchedCount() {
+		return dispatched.get();
+	}
+
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public long getAverageDispatchTime() {
+		long count = dispatched.get() + failed.get() + dropped.get();
+		return count == 0 ? 0 : totalDispatchTime.get() / count;
+	}
+
+	public long getMaxDispatchTime() {
+		return maxDispatchTime.get();
+	}
+
 	private static void dispatchDetectionResults(ResultQueue.QueueItem item, EntitiesService entitiesService, UftTestDiscoveryResult result) {
 		//Check if there is diff in discovery and server status
 		//for example : discovery found new test , but it already exist in server , instead of create new tests we will do update test
@@ -466,4 +652,24 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 		}
 	}
 
+	/**
+	 * Leased item resolved to its discovery result and Octane client
+	 */
+	static final class PendingDispatch {
+		private final ResultQueue.QueueItem item;
+		private final OctaneClient client;
+		private final UftTestDiscoveryResult result;
+		private final String workspaceKey;
+
+		PendingDispatch(ResultQueue.QueueItem item, OctaneClient client, UftTestDiscoveryResult result) {
+			this.item = item;
+			this.client = client;
+			this.result = result;
+			this.workspaceKey = result.getConfigurationId() + "#" + result.getWorkspaceId();
+		}
+
+		ResultQueue.QueueItem getItem() {
+			return item;
+		}
+	}
 }
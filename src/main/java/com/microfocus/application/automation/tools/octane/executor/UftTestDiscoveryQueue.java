@@ -31,8 +31,15 @@ import java.io.IOException;
  */
 public class UftTestDiscoveryQueue extends AbstractResultQueueImpl {
 
+    static final int MAX_DISPATCH_TRIALS = 5;
+
     public UftTestDiscoveryQueue() throws IOException {
-        File queueFile = new File(Jenkins.getInstance().getRootDir(), "octane-uft-tests-queue.dat");
+        this(new File(Jenkins.getInstance().getRootDir(), "octane-uft-tests-queue.dat"));
+    }
+
+    UftTestDiscoveryQueue(File queueFile) throws IOException {
+        //retries after the first trial
+        super(MAX_DISPATCH_TRIALS - 1);
         init(queueFile);
     }
 }
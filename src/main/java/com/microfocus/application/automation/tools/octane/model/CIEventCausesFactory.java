@@ -23,12 +23,16 @@ package com.microfocus.application.automation.tools.octane.model;
 import com.hp.octane.integrations.dto.DTOFactory;
 import com.hp.octane.integrations.dto.causes.CIEventCause;
 import com.hp.octane.integrations.dto.causes.CIEventCauseType;
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import hudson.matrix.MatrixConfiguration;
 import hudson.matrix.MatrixRun;
+import hudson.Extension;
 import hudson.model.Cause;
 import hudson.model.InvisibleAction;
 import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import hudson.triggers.SCMTrigger;
 import hudson.triggers.TimerTrigger;
 import org.apache.logging.log4j.LogManager;
@@ -40,14 +44,15 @@ import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 
+import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
- * Causes Factory is a collection of static stateless methods to extract/traverse/transform causes chains of the runs
+ * Causes Factory is a collection of static methods to extract/traverse/transform causes chains of the runs
+ * - computed causes chains are memoized in a bounded cache keyed by run id (and flow node id for the stages),
+ * cache size is configurable via 'octane.plugin.CIEventCausesFactory.cacheSize' system property (default 1000)
+ * - cached chains are never handed out, callers get copies they are free to modify; entries of a run are dropped when the run completes
  * User: gullery
  * Date: 20/10/14
  */
@@ -55,6 +60,10 @@ import java.util.Set;
 public final class CIEventCausesFactory {
 	private static final Logger logger = LogManager.getLogger(CIEventCausesFactory.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+	private static final String FLOW_NODE_KEY_SEPARATOR = "|";
+	private static final Map<String, List<CIEventCause>> causesCache = createCache(
+			SystemPropertyUtils.getIntProperty("octane.plugin.CIEventCausesFactory.cacheSize", DEFAULT_CACHE_SIZE, 0));
 
 	private CIEventCausesFactory() {
 	}
@@ -64,6 +73,16 @@ public final class CIEventCausesFactory {
 			throw new IllegalArgumentException("run MUST NOT be null");
 		}
 
+		String key = run.getExternalizableId();
+		List<CIEventCause> result = getCached(key);
+		if (result == null) {
+			result = calculateCauses(run);
+			putCached(key, result);
+		}
+		return copyCauses(result);
+	}
+
+	private static List<CIEventCause> calculateCauses(Run run) {
 		List<CIEventCause> result = new LinkedList<>();
 		List<Cause> causes = extractCausesFromRun(run);
 		CIEventCause tmpResultCause;
@@ -120,12 +139,49 @@ public final class CIEventCausesFactory {
 	}
 
 	public static List<CIEventCause> processCauses(FlowNode flowNode) {
-		List<CIEventCause> causes = new LinkedList<>();
-		processCauses(flowNode, causes, new LinkedHashSet<>());
-		return causes;
+		String key = BuildHandlerUtils.extractParentRun(flowNode).getExternalizableId() + FLOW_NODE_KEY_SEPARATOR + flowNode.getId();
+		List<CIEventCause> causes = getCached(key);
+		if (causes == null) {
+			causes = new LinkedList<>();
+			processCauses(flowNode, causes);
+			putCached(key, causes);
+		}
+		return copyCauses(causes);
 	}
 
-	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip) {
+	/**
+	 * Depth first walk over the flow node ancestors, iterative so that the stack depth does not grow with the pipeline length
+	 * - each pending step holds the node to visit and the causes list of its descendant
+	 * - nodes are visited in the same order as the recursive walk would, since the stages skipping state depends on it
+	 */
+	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes) {
+		Set<FlowNode> startStagesToSkip = new LinkedHashSet<>();
+		Deque<Map.Entry<FlowNode, List<CIEventCause>>> pending = new ArrayDeque<>();
+
+		visitNode(flowNode, causes, startStagesToSkip, pending);
+		while (!pending.isEmpty()) {
+			Map.Entry<FlowNode, List<CIEventCause>> step = pending.pop();
+			FlowNode parent = step.getKey();
+			List<CIEventCause> parentCauses = step.getValue();
+			if (BuildHandlerUtils.isStageEndNode(parent)) {
+				startStagesToSkip.add(((StepEndNode) parent).getStartNode());
+			} else if (BuildHandlerUtils.isStageStartNode(parent)) {
+				if (!startStagesToSkip.contains(parent)) {
+					CIEventCause cause = dtoFactory.newDTO(CIEventCause.class)
+							.setType(CIEventCauseType.UPSTREAM)
+							.setProject(parent.getDisplayName())
+							.setBuildCiId(String.valueOf(BuildHandlerUtils.extractParentRun(parent).getNumber()));
+					parentCauses.add(cause);
+					parentCauses = cause.getCauses();
+				} else {
+					startStagesToSkip.remove(parent);
+				}
+			}
+			visitNode(parent, parentCauses, startStagesToSkip, pending);
+		}
+	}
+
+	private static void visitNode(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip, Deque<Map.Entry<FlowNode, List<CIEventCause>>> pending) {
 		//  we reached the start of the flow - add WorkflowRun as an initial UPSTREAM cause
 		if (flowNode.getParents().isEmpty()) {
 			WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
@@ -142,28 +198,64 @@ public final class CIEventCausesFactory {
 			startStagesToSkip.add(((StepEndNode) flowNode).getStartNode());
 		}
 
-		for (FlowNode parent : flowNode.getParents()) {
-			if (BuildHandlerUtils.isStageEndNode(parent)) {
-				startStagesToSkip.add(((StepEndNode) parent).getStartNode());
-				processCauses(parent, causes, startStagesToSkip);
-			} else if (BuildHandlerUtils.isStageStartNode(parent)) {
-				if (!startStagesToSkip.contains(parent)) {
-					CIEventCause cause = dtoFactory.newDTO(CIEventCause.class)
-							.setType(CIEventCauseType.UPSTREAM)
-							.setProject(parent.getDisplayName())
-							.setBuildCiId(String.valueOf(BuildHandlerUtils.extractParentRun(parent).getNumber()));
-					causes.add(cause);
-					processCauses(parent, cause.getCauses(), startStagesToSkip);
-				} else {
-					startStagesToSkip.remove(parent);
-					processCauses(parent, causes, startStagesToSkip);
-				}
-			} else {
-				processCauses(parent, causes, startStagesToSkip);
-			}
+		//  parents are pushed in reverse, so that the first one is walked (entirely) first
+		List<FlowNode> parents = flowNode.getParents();
+		for (int i = parents.size() - 1; i >= 0; i--) {
+			pending.push(new AbstractMap.SimpleImmutableEntry<>(parents.get(i), causes));
+		}
+	}
+
+	/**
+	 * Drops the cached causes chains of the run and of its flow nodes
+	 */
+	static void invalidate(Run run) {
+		String key = run.getExternalizableId();
+		String flowNodesPrefix = key + FLOW_NODE_KEY_SEPARATOR;
+		synchronized (causesCache) {
+			causesCache.keySet().removeIf(k -> k.equals(key) || k.startsWith(flowNodesPrefix));
+		}
+	}
+
+	private static List<CIEventCause> getCached(String key) {
+		synchronized (causesCache) {
+			return causesCache.get(key);
+		}
+	}
+
+	private static void putCached(String key, List<CIEventCause> causes) {
+		synchronized (causesCache) {
+			causesCache.put(key, causes);
 		}
 	}
 
+	/**
+	 * Deep copy of the causes chain, the DTOs are mutable and the cached ones must not be shared
+	 */
+	private static List<CIEventCause> copyCauses(List<CIEventCause> causes) {
+		List<CIEventCause> result = new LinkedList<>();
+		for (CIEventCause cause : causes) {
+			result.add(dtoFactory.newDTO(CIEventCause.class)
+					.setType(cause.getType())
+					.setUser(cause.getUser())
+					.setProject(cause.getProject())
+					.setBuildCiId(cause.getBuildCiId())
+					.setCauses(cause.getCauses() == null ? null : copyCauses(cause.getCauses())));
+		}
+		return result;
+	}
+
+	/**
+	 * LRU map of the given max size
+	 */
+	static <V> Map<String, V> createCache(int maxSize) {
+		return new LinkedHashMap<String, V>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
 	private static String resolveJobCiId(String jobPlainName) {
 		if (!jobPlainName.contains(",")) {
 			return BuildHandlerUtils.translateFolderJobName(jobPlainName);
@@ -217,6 +309,17 @@ public final class CIEventCausesFactory {
 		return result;
 	}
 
+	/**
+	 * Drops the memoized causes of the completed runs
+	 */
+	@Extension
+	public static final class CausesCacheInvalidator extends RunListener<Run> {
+		@Override
+		public void onCompleted(Run run, @Nonnull TaskListener listener) {
+			invalidate(run);
+		}
+	}
+
 	private final static class OctaneParentNodeAction extends InvisibleAction {
 		private final String parentFlowNodeId;
 
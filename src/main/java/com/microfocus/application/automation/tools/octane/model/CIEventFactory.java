@@ -25,14 +25,11 @@ import com.hp.octane.integrations.dto.events.CIEvent;
 import com.hp.octane.integrations.dto.events.CIEventType;
 import com.hp.octane.integrations.dto.scm.SCMData;
 import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessor;
-import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessors;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import hudson.matrix.MatrixConfiguration;
 import hudson.model.AbstractBuild;
 import hudson.model.Run;
 import hudson.scm.SCM;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 /**
@@ -40,7 +37,6 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
  */
 public final class CIEventFactory {
 
-    private static final Logger logger = LogManager.getLogger(CIEventFactory.class);
     private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 
     private CIEventFactory(){
@@ -48,40 +44,30 @@ public final class CIEventFactory {
     }
 
     /**
-     * Create scm event if exist scm data.
-     * Might return null
-     * @param run
-     * @param scm
-     * @return
+     * Create scm event from previously extracted scm data, enriching it on the way (expensive)
+     * @param run the build the SCM data belongs to
+     * @param scmProcessor processor the data was extracted with
+     * @param scmData result of {@link #extractSCMData(Run, SCM, SCMProcessor)}
+     * @return SCM event of the run holding the enriched data
      */
-    public static CIEvent createScmEvent(Run<?, ?> run, SCM scm) {
-
-        SCMProcessor scmProcessor = SCMProcessors.getAppropriate(scm.getClass().getName());
-        if (scmProcessor == null) {
-            logger.debug("no processors found for SCM provider of type '" + scm.getType() + "', SCM data won't be extracted");
-            return null;
+    public static CIEvent createScmEvent(Run<?, ?> run, SCMProcessor scmProcessor, SCMData scmData) {
+        if (run instanceof AbstractBuild) {
+            scmData = scmProcessor.enrichSCMData((AbstractBuild) run, scmData);
         }
-
-        try {
-            SCMData scmData = extractSCMData(run, scm, scmProcessor);
-            if (scmData != null) {
-                CIEvent event = dtoFactory.newDTO(CIEvent.class)
-                        .setEventType(CIEventType.SCM)
-                        .setProject(BuildHandlerUtils.getJobCiId(run))
-                        .setBuildCiId(BuildHandlerUtils.getBuildCiId(run))
-                        .setCauses(CIEventCausesFactory.processCauses(run))
-                        .setNumber(String.valueOf(run.getNumber()))
-                        .setScmData(scmData);
-                return event;
-            }
-
-        } catch (Exception e) {
-            logger.error("failed to build SCM event for " + run, e);
-        }
-        return null;
+        return dtoFactory.newDTO(CIEvent.class)
+                .setEventType(CIEventType.SCM)
+                .setProject(BuildHandlerUtils.getJobCiId(run))
+                .setBuildCiId(BuildHandlerUtils.getBuildCiId(run))
+                .setCauses(CIEventCausesFactory.processCauses(run))
+                .setNumber(String.valueOf(run.getNumber()))
+                .setScmData(scmData);
     }
 
-    private static SCMData extractSCMData(Run run, SCM scm, SCMProcessor scmProcessor) {
+    /**
+     * Extracts the basic (not enriched) scm data of the run, cheap enough to be called on the build thread
+     * Might return null
+     */
+    public static SCMData extractSCMData(Run run, SCM scm, SCMProcessor scmProcessor) {
         SCMData result = null;
         if (run.getParent() instanceof MatrixConfiguration || run instanceof AbstractBuild) {
             AbstractBuild build = (AbstractBuild) run;
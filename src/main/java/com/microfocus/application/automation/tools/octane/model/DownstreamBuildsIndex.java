@@ -0,0 +1,177 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import hudson.Extension;
+import hudson.model.Cause;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import jenkins.model.Jenkins;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Persisted index of the downstream builds, from (upstream job, build number) to the builds it triggered
+ * - the index of a build is a small file in the build directory, one 'job full name TAB build number' line per downstream build,
+ * appended when the downstream build starts; the file is created (empty) when the build itself starts
+ * - builds started before the index existed have no such file; for those the callers should fall back to scanning
+ * - entries are not rewritten when a downstream job is renamed or moved; lookups that may miss because of that fall back to scanning too
+ */
+public final class DownstreamBuildsIndex {
+	private static final Logger logger = LogManager.getLogger(DownstreamBuildsIndex.class);
+
+	static final String INDEX_FILE_NAME = "octane-downstream-builds.idx";
+	private static final Object LOCK = new Object();
+
+	private DownstreamBuildsIndex() {
+		//hiding public constructor
+	}
+
+	/**
+	 * @param upstream upstream build
+	 * @param job      downstream job
+	 * @return builds of the job triggered by the upstream build, from the oldest;
+	 * null if the upstream build is not indexed or the index may refer to the job by a former name
+	 */
+	public static List<Run> getDownstreamBuilds(Run upstream, Job job) {
+		List<String[]> entries = readEntries(upstream.getRootDir());
+		if (entries == null) {
+			return null;
+		}
+		Jenkins jenkins = Jenkins.getInstance();
+		return selectBuilds(entries, job.getFullName(), job::getBuildByNumber,
+				jobFullName -> jenkins.getItemByFullName(jobFullName, Job.class) != null);
+	}
+
+	/**
+	 * Selects the builds of the job from the index entries
+	 * - the index keeps the full names the downstream jobs had when their builds started; when nothing matches the job
+	 * and some entries refer to jobs that don't exist anymore (renamed or moved since), the job may be one of them,
+	 * so null is returned for the caller to fall back to scanning
+	 */
+	static <R> List<R> selectBuilds(List<String[]> entries, String jobFullName, IntFunction<R> buildByNumber, Predicate<String> jobExists) {
+		List<R> result = new ArrayList<>();
+		boolean matched = false;
+		boolean stale = false;
+		for (String[] entry : entries) {
+			if (entry[0].equals(jobFullName)) {
+				matched = true;
+				try {
+					R run = buildByNumber.apply(Integer.parseInt(entry[1]));
+					if (run != null) {
+						result.add(run);
+					}
+				} catch (NumberFormatException e) {
+					logger.warn("malformed downstream builds index entry of " + jobFullName + ": " + entry[1]);
+				}
+			} else if (!matched && !stale && !jobExists.test(entry[0])) {
+				stale = true;
+			}
+		}
+		return !matched && stale ? null : result;
+	}
+
+	static List<String[]> readEntries(File buildDir) {
+		File indexFile = new File(buildDir, INDEX_FILE_NAME);
+		if (!indexFile.isFile()) {
+			return null;
+		}
+		List<String[]> result = new ArrayList<>();
+		synchronized (LOCK) {
+			try {
+				for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+					int separator = line.lastIndexOf('\t');
+					if (separator > 0) {
+						result.add(new String[]{line.substring(0, separator), line.substring(separator + 1)});
+					}
+				}
+			} catch (IOException e) {
+				logger.error("failed to read downstream builds index " + indexFile, e);
+				return null;
+			}
+		}
+		return result;
+	}
+
+	static void markIndexed(File buildDir) {
+		append(buildDir, Collections.emptyList(), true);
+	}
+
+	/**
+	 * Adds the downstream build to the index of the upstream one, if indexed;
+	 * upstream builds started before the index existed are left unindexed, so that they keep falling back to scanning
+	 */
+	static void addDownstreamBuild(File upstreamBuildDir, String jobFullName, int buildNumber) {
+		append(upstreamBuildDir, Collections.singletonList(jobFullName + '\t' + buildNumber), false);
+	}
+
+	private static void append(File buildDir, List<String> lines, boolean create) {
+		File indexFile = new File(buildDir, INDEX_FILE_NAME);
+		synchronized (LOCK) {
+			if (!create && !indexFile.isFile()) {
+				return;
+			}
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile, true), StandardCharsets.UTF_8)) {
+				for (String line : lines) {
+					writer.write(line);
+					writer.write('\n');
+				}
+			} catch (IOException e) {
+				logger.error("failed to update downstream builds index " + indexFile, e);
+			}
+		}
+	}
+
+	/**
+	 * Feeds the index as the builds start
+	 */
+	@Extension
+	public static final class IndexingRunListener extends RunListener<Run> {
+
+		@Override
+		public void onStarted(Run run, TaskListener listener) {
+			try {
+				markIndexed(run.getRootDir());
+				for (Object cause : run.getCauses()) {
+					if (cause instanceof Cause.UpstreamCause) {
+						Run upstream = ((Cause.UpstreamCause) cause).getUpstreamRun();
+						if (upstream != null) {
+							addDownstreamBuild(upstream.getRootDir(), run.getParent().getFullName(), run.getNumber());
+						}
+					}
+				}
+			} catch (Throwable t) {
+				logger.error("failed to index downstream build " + run, t);
+			}
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import com.hp.octane.integrations.dto.DTOFactory;
+import com.hp.octane.integrations.dto.parameters.CIParameter;
+import com.hp.octane.integrations.dto.pipelines.PipelineNode;
+import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
+import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.*;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory catalog of the jobs exposed to Octane (jobs list), kept up to date by item events
+ * - the catalog is grouped by top level items; item events only mark the affected group as dirty,
+ * groups are re-rendered lazily on the next read, so bursts of events (e.g. branch indexing) cost nothing
+ * - a re-rendered group replaces the previous one atomically, readers never see a partially rendered group
+ * - item saves (e.g. properties added by API, disabling) do not fire item events, so they are listened to as well
+ * - reads serve the pre-rendered summaries (including parameter configs), filtering them by the current user permissions
+ */
+@Extension
+public class JobCatalog extends ItemListener {
+	private static final Logger logger = LogManager.getLogger(JobCatalog.class);
+	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+
+	private final Map<String, List<Entry>> groups = new ConcurrentSkipListMap<>();
+	private final Set<String> dirtyGroups = ConcurrentHashMap.newKeySet();
+	private final Map<String, Object> groupLocks = new ConcurrentHashMap<>();
+	private volatile boolean initialized;
+
+	public static JobCatalog getInstance() {
+		return ExtensionList.lookup(JobCatalog.class).get(0);
+	}
+
+	/**
+	 * Returns the catalog jobs visible to the current user
+	 *
+	 * @param includeParameters whether to include parameter configs in the result nodes
+	 * @param folder            full name of the folder to list the jobs of; all jobs are listed when null or empty
+	 * @param offset            number of matching jobs to skip
+	 * @param limit             maximum number of jobs to return
+	 * @return page of the jobs
+	 */
+	public JobsPage getJobs(boolean includeParameters, String folder, int offset, int limit) {
+		refresh();
+		String folderPrefix = folder == null || folder.isEmpty() ? null : (folder.endsWith("/") ? folder : folder + "/");
+		Jenkins jenkins = Jenkins.getInstance();
+		List<PipelineNode> result = new ArrayList<>();
+		int matching = 0;
+		for (List<Entry> group : groups.values()) {
+			for (Entry entry : group) {
+				if (folderPrefix != null && !entry.fullName.startsWith(folderPrefix)) {
+					continue;
+				}
+				//lookup by full name is an in-memory one and takes care of the READ permission of the current user
+				Item item = jenkins.getItemByFullName(entry.fullName);
+				if (item == null || (entry.skipDisabled && item instanceof AbstractProject && ((AbstractProject) item).isDisabled())) {
+					continue;
+				}
+				if (matching++ >= offset && result.size() < limit) {
+					result.add(entry.toPipelineNode(includeParameters));
+				}
+			}
+		}
+		return new JobsPage(result, matching);
+	}
+
+	@Override
+	public void onLoaded() {
+		refresh();
+	}
+
+	@Override
+	public void onCreated(Item item) {
+		invalidate(item.getFullName());
+	}
+
+	@Override
+	public void onCopied(Item src, Item item) {
+		invalidate(item.getFullName());
+	}
+
+	@Override
+	public void onDeleted(Item item) {
+		invalidate(item.getFullName());
+	}
+
+	@Override
+	public void onUpdated(Item item) {
+		invalidate(item.getFullName());
+	}
+
+	@Override
+	public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+		invalidate(oldFullName);
+		invalidate(newFullName);
+	}
+
+	@Extension
+	public static final class ItemSaveListener extends SaveableListener {
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (o instanceof Item) {
+				getInstance().invalidate(((Item) o).getFullName());
+			}
+		}
+	}
+
+	private void invalidate(String fullName) {
+		if (fullName != null && !fullName.isEmpty()) {
+			int separator = fullName.indexOf('/');
+			dirtyGroups.add(separator < 0 ? fullName : fullName.substring(0, separator));
+		}
+	}
+
+	/**
+	 * Re-renders the dirty groups; no global lock is held while rendering:
+	 * each group is claimed and rendered under its own lock and the rendered group replaces the previous one at once,
+	 * so a slow group delays only the readers refreshing that very group, readers of a clean catalog never wait
+	 */
+	private void refresh() {
+		if (!initialized) {
+			synchronized (this) {
+				if (!initialized) {
+					try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+						dirtyGroups.addAll(Jenkins.getInstance().getTopLevelItemNames());
+					}
+					initialized = true;
+				}
+			}
+		}
+		if (dirtyGroups.isEmpty()) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		int refreshed = 0;
+		//catalog holds everything, the permissions are applied on read
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			Jenkins jenkins = Jenkins.getInstance();
+			for (String name : new ArrayList<>(dirtyGroups)) {
+				synchronized (groupLocks.computeIfAbsent(name, key -> new Object())) {
+					//claimed within the group lock, so an older rendering never replaces a newer one
+					if (!dirtyGroups.remove(name)) {
+						continue;
+					}
+					TopLevelItem item = jenkins.getItem(name);
+					if (item == null) {
+						groups.remove(name);
+					} else {
+						groups.put(name, Collections.unmodifiableList(renderGroup(name, item)));
+					}
+					refreshed++;
+				}
+			}
+		}
+		logger.debug("job catalog refreshed " + refreshed + " groups in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private static List<Entry> renderGroup(String name, TopLevelItem tmpItem) {
+		List<Entry> list = new ArrayList<>();
+		String jobName = tmpItem.getName();
+		String jobClassName = tmpItem.getClass().getName();
+		try {
+			if (tmpItem instanceof AbstractProject) {
+				//disabling a project fires no item event, so disabled top level projects are filtered out on read
+				list.add(new Entry(tmpItem.getFullName(), name, (Job) tmpItem, true));
+			} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_JOB_NAME)) {
+				list.add(new Entry(tmpItem.getFullName(), name, (Job) tmpItem, false));
+			} else if (jobClassName.equals(JobProcessorFactory.FOLDER_JOB_NAME)) {
+				for (Job tmpJob : tmpItem.getAllJobs()) {
+					jobName = tmpJob.getFullName();
+					list.add(new Entry(tmpJob.getFullName(), tmpJob.getName(), tmpJob, false));
+				}
+			} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME)) {
+				list.add(new Entry(tmpItem.getFullName(), name, name, null, false));
+			} else if (jobClassName.equals(JobProcessorFactory.GITHUB_ORGANIZATION_FOLDER)) {
+				for (Item item : ((AbstractFolder<?>) tmpItem).getItems()) {
+					jobName = item.getFullName();
+					String folderJobName = name + "/" + item.getDisplayName();
+					list.add(new Entry(item.getFullName(), folderJobName, folderJobName, null, false));
+				}
+			} else {
+				logger.info(String.format("job catalog : Item '%s' of type '%s' is not supported", jobName, jobClassName));
+			}
+		} catch (Throwable e) {
+			logger.error("job catalog : Failed to add job '" + jobName + "' : " + e.getClass().getCanonicalName() + " - " + e.getMessage(), e);
+		}
+		return list;
+	}
+
+	/**
+	 * Pre-rendered summary of a single job
+	 */
+	private static final class Entry {
+		private final String fullName;
+		private final String name;
+		private final String jobCiId;
+		private final List<CIParameter> parameters;
+		private final boolean skipDisabled;
+
+		private Entry(String fullName, String name, Job job, boolean skipDisabled) {
+			this(fullName, name, JobProcessorFactory.getFlowProcessor(job).getTranslateJobName(), ParameterProcessors.getConfigs(job), skipDisabled);
+		}
+
+		private Entry(String fullName, String name, String jobCiId, List<CIParameter> parameters, boolean skipDisabled) {
+			this.fullName = fullName;
+			this.name = name;
+			this.jobCiId = jobCiId;
+			this.parameters = parameters;
+			this.skipDisabled = skipDisabled;
+		}
+
+		private PipelineNode toPipelineNode(boolean includeParameters) {
+			PipelineNode node = dtoFactory.newDTO(PipelineNode.class)
+					.setJobCiId(jobCiId)
+					.setName(name);
+			if (includeParameters && parameters != null) {
+				node.setParameters(parameters);
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * Page of the catalog jobs
+	 */
+	public static final class JobsPage {
+		private final List<PipelineNode> jobs;
+		private final int total;
+
+		private JobsPage(List<PipelineNode> jobs, int total) {
+			this.jobs = jobs;
+			this.total = total;
+		}
+
+		public List<PipelineNode> getJobs() {
+			return jobs;
+		}
+
+		/**
+		 * @return total number of the jobs matching the request (regardless the paging)
+		 */
+		public int getTotal() {
+			return total;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import com.hp.octane.integrations.dto.parameters.CIParameter;
 import com.hp.octane.integrations.dto.parameters.CIParameterType;
 import com.hp.octane.integrations.dto.pipelines.PipelineNode;
 import com.hp.octane.integrations.dto.pipelines.PipelinePhase;
+import com.hp.octane.integrations.dto.scm.SCMData;
 import com.hp.octane.integrations.dto.snapshots.CIBuildResult;
 import com.hp.octane.integrations.dto.snapshots.CIBuildStatus;
 import com.hp.octane.integrations.dto.snapshots.SnapshotNode;
@@ -108,8 +109,10 @@ public class ModelFactory {
 		snapshotNode.setCauses(CIEventCausesFactory.processCauses(build));
 		snapshotNode.setDuration(build.getDuration());
 		snapshotNode.setEstimatedDuration(build.getEstimatedDuration());
-		if (build instanceof AbstractBuild) {
-			snapshotNode.setScmData(scmProcessor == null ? null : scmProcessor.getSCMData((AbstractBuild) build, ((AbstractBuild) build).getProject().getScm()));
+		if (build instanceof AbstractBuild && scmProcessor != null) {
+			AbstractBuild abstractBuild = (AbstractBuild) build;
+			SCMData scmData = scmProcessor.getSCMData(abstractBuild, abstractBuild.getProject().getScm());
+			snapshotNode.setScmData(scmData == null ? null : scmProcessor.enrichSCMData(abstractBuild, scmData));
 		}
 		snapshotNode.setStartTime(build.getStartTimeInMillis());
 		snapshotNode.setParameters(ParameterProcessors.getInstances(build));
@@ -161,7 +164,12 @@ public class ModelFactory {
 		Job run;
 		for (String invokeeName : invokeesNames) {
 			run = (Job) Jenkins.getInstance().getItem(invokeeName);
-			result.put(invokeeName, getInvokees(self, run));
+			if (run == null) {
+				continue;
+			}
+			List<Run> invokees = DownstreamBuildsIndex.getDownstreamBuilds(self, run);
+			//builds started before the index existed are resolved by scanning the invokee builds
+			result.put(invokeeName, invokees != null ? invokees : getInvokees(self, run));
 		}
 		return result;
 	}
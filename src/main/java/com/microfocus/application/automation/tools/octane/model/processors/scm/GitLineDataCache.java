@@ -0,0 +1,411 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Persistent cache of git line data (blame ranges and diff edits) used by the SCM line enrichment
+ * - blame ranges are keyed by (repository, path, blob id), diff edits by (repository, old blob id, new blob id),
+ * so that the unchanged files are never re-blamed and the same diff is never computed twice
+ * - the diff keys of each processed commit are indexed, so only the edits of the enriched commits are shipped to the node
+ * - the cache is stored as a single file under the job directory and bounded (LRU) by the
+ * 'octane.plugin.GitLineDataCache.maxEntries' system property (default 5000 per kind)
+ */
+final class GitLineDataCache implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final Logger logger = LogManager.getLogger(GitLineDataCache.class);
+
+	static final String CACHE_FILE_NAME = "octane-scm-lines.cache";
+	private static final int MAGIC = 0x4F534C43;
+	private static final int VERSION = 2;
+	private static final int DEFAULT_MAX_ENTRIES = 5000;
+	private static final Object STORE_LOCK = new Object();
+
+	private final int maxEntries;
+	private final LinkedHashMap<String, int[]> blames;
+	private final LinkedHashMap<String, int[]> edits;
+	private final LinkedHashMap<String, String[]> commitDiffs;
+	private final LinkedHashMap<String, Integer> revisionIndex = new LinkedHashMap<>();
+	private final List<String> revisions = new ArrayList<>();
+	private final Set<String> addedBlames = new LinkedHashSet<>();
+	private final Set<String> addedEdits = new LinkedHashSet<>();
+	private final Set<String> addedCommits = new LinkedHashSet<>();
+	private transient boolean dirty;
+
+	GitLineDataCache() {
+		this(SystemPropertyUtils.getIntProperty("octane.plugin.GitLineDataCache.maxEntries", DEFAULT_MAX_ENTRIES));
+	}
+
+	GitLineDataCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+		this.blames = createLruMap(maxEntries);
+		this.edits = createLruMap(maxEntries);
+		this.commitDiffs = createLruMap(maxEntries);
+	}
+
+	static String blameKey(String repository, String path, String blobId) {
+		return StringUtils.defaultString(repository) + '\n' + path + '\n' + blobId;
+	}
+
+	static String diffKey(String repository, String oldBlobId, String newBlobId) {
+		return StringUtils.defaultString(repository) + '\n' + oldBlobId + '\n' + newBlobId;
+	}
+
+	static String commitKey(String repository, String commitId) {
+		return StringUtils.defaultString(repository) + '\n' + commitId;
+	}
+
+	/**
+	 * @return cached blame ranges of the file blob; null if not cached
+	 */
+	synchronized List<BlameRange> getBlame(String key) {
+		int[] packed = blames.get(key);
+		return packed == null ? null : unpack(packed);
+	}
+
+	synchronized void putBlame(String key, List<BlameRange> ranges) {
+		int[] packed = new int[ranges.size() * 3];
+		int i = 0;
+		for (BlameRange range : ranges) {
+			packed[i++] = indexOf(range.revision);
+			packed[i++] = range.start;
+			packed[i++] = range.end;
+		}
+		blames.put(key, packed);
+		addedBlames.add(key);
+		dirty = true;
+	}
+
+	/**
+	 * @return edits as consecutive (type, beginA, endA, beginB, endB) quintets; null if not cached
+	 */
+	synchronized int[] getEdits(String key) {
+		return edits.get(key);
+	}
+
+	synchronized void putEdits(String key, int[] packedEdits) {
+		edits.put(key, packedEdits);
+		addedEdits.add(key);
+		dirty = true;
+	}
+
+	/**
+	 * Indexes the diff keys of all the files changed by the commit
+	 */
+	synchronized void putCommitDiffs(String key, Collection<String> diffKeys) {
+		String[] keys = diffKeys.toArray(new String[0]);
+		if (Arrays.equals(commitDiffs.get(key), keys)) {
+			return;
+		}
+		commitDiffs.put(key, keys);
+		addedCommits.add(key);
+		dirty = true;
+	}
+
+	/**
+	 * @return copy holding the blames of the given files and the diff edits of the given commits;
+	 * used to ship only the relevant part of the cache to the node that runs the enrichment
+	 */
+	synchronized GitLineDataCache subset(String repository, Collection<String> paths, Collection<String> commitIds) {
+		GitLineDataCache result = new GitLineDataCache(maxEntries);
+		Set<String> prefixes = new HashSet<>();
+		paths.forEach(path -> prefixes.add(blameKey(repository, path, "")));
+		blames.forEach((key, packed) -> {
+			if (prefixes.contains(key.substring(0, key.lastIndexOf('\n') + 1))) {
+				result.blames.put(key, copyWithRevisions(packed, result));
+			}
+		});
+		for (String commitId : commitIds) {
+			String commitKey = commitKey(repository, commitId);
+			String[] diffKeys = commitDiffs.get(commitKey);
+			if (diffKeys == null) {
+				continue;
+			}
+			result.commitDiffs.put(commitKey, diffKeys);
+			for (String diffKey : diffKeys) {
+				int[] packed = edits.get(diffKey);
+				if (packed != null) {
+					result.edits.put(diffKey, packed);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return copy holding only the entries added since this instance was created or loaded
+	 */
+	synchronized GitLineDataCache getAdded() {
+		GitLineDataCache result = new GitLineDataCache(maxEntries);
+		addedBlames.forEach(key -> {
+			int[] packed = blames.get(key);
+			if (packed != null) {
+				result.blames.put(key, copyWithRevisions(packed, result));
+			}
+		});
+		addedEdits.forEach(key -> {
+			int[] packed = edits.get(key);
+			if (packed != null) {
+				result.edits.put(key, packed);
+			}
+		});
+		addedCommits.forEach(key -> {
+			String[] diffKeys = commitDiffs.get(key);
+			if (diffKeys != null) {
+				result.commitDiffs.put(key, diffKeys);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Adds all the entries of the given cache to this one
+	 */
+	void merge(GitLineDataCache other) {
+		synchronized (other) {
+			other.blames.forEach((key, packed) -> putBlame(key, other.unpack(packed)));
+			other.edits.forEach(this::putEdits);
+			other.commitDiffs.forEach((key, diffKeys) -> putCommitDiffs(key, Arrays.asList(diffKeys)));
+		}
+	}
+
+	private List<BlameRange> unpack(int[] packed) {
+		List<BlameRange> result = new ArrayList<>(packed.length / 3);
+		for (int i = 0; i < packed.length; i += 3) {
+			result.add(new BlameRange(revisions.get(packed[i]), packed[i + 1], packed[i + 2]));
+		}
+		return result;
+	}
+
+	private int[] copyWithRevisions(int[] packed, GitLineDataCache target) {
+		int[] copy = packed.clone();
+		for (int i = 0; i < copy.length; i += 3) {
+			copy[i] = target.indexOf(revisions.get(packed[i]));
+		}
+		return copy;
+	}
+
+	synchronized int size() {
+		return blames.size() + edits.size();
+	}
+
+	synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	private int indexOf(String revision) {
+		Integer index = revisionIndex.get(revision);
+		if (index == null) {
+			index = revisions.size();
+			revisions.add(revision);
+			revisionIndex.put(revision, index);
+		}
+		return index;
+	}
+
+	static GitLineDataCache load(File jobDir) {
+		File file = new File(jobDir, CACHE_FILE_NAME);
+		synchronized (STORE_LOCK) {
+			GitLineDataCache cache = read(file);
+			return cache != null ? cache : new GitLineDataCache();
+		}
+	}
+
+	/**
+	 * Stores the cache, keeping the entries stored by concurrent builds of the job since this instance was loaded
+	 */
+	void store(File jobDir) {
+		if (!isDirty()) {
+			return;
+		}
+		File file = new File(jobDir, CACHE_FILE_NAME);
+		synchronized (STORE_LOCK) {
+			GitLineDataCache toWrite = read(file);
+			if (toWrite != null) {
+				toWrite.merge(getAdded());
+			} else {
+				toWrite = this;
+			}
+			File tmp = new File(jobDir, CACHE_FILE_NAME + ".tmp");
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+					toWrite.writeTo(out);
+				}
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				synchronized (this) {
+					dirty = false;
+				}
+			} catch (IOException e) {
+				logger.warn("failed to store SCM line data cache " + file, e);
+				tmp.delete();
+			}
+		}
+	}
+
+	/**
+	 * @return the stored cache; null if there is none or it is not readable
+	 */
+	private static GitLineDataCache read(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		GitLineDataCache cache = new GitLineDataCache();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			cache.readFrom(in);
+			return cache;
+		} catch (IOException e) {
+			logger.warn("failed to read SCM line data cache " + file + ", starting with an empty one", e);
+			return null;
+		}
+	}
+
+	synchronized void writeTo(DataOutputStream out) throws IOException {
+		//revisions are re-indexed on write, so that the evicted ones are not persisted
+		Map<String, Integer> liveIndex = new HashMap<>();
+		List<String> liveRevisions = new ArrayList<>();
+		for (int[] packed : blames.values()) {
+			for (int i = 0; i < packed.length; i += 3) {
+				String revision = revisions.get(packed[i]);
+				if (!liveIndex.containsKey(revision)) {
+					liveIndex.put(revision, liveRevisions.size());
+					liveRevisions.add(revision);
+				}
+			}
+		}
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(liveRevisions.size());
+		for (String revision : liveRevisions) {
+			out.writeUTF(revision);
+		}
+		out.writeInt(blames.size());
+		for (Map.Entry<String, int[]> entry : blames.entrySet()) {
+			out.writeUTF(entry.getKey());
+			int[] packed = entry.getValue();
+			out.writeInt(packed.length);
+			for (int i = 0; i < packed.length; i += 3) {
+				out.writeInt(liveIndex.get(revisions.get(packed[i])));
+				out.writeInt(packed[i + 1]);
+				out.writeInt(packed[i + 2]);
+			}
+		}
+		out.writeInt(edits.size());
+		for (Map.Entry<String, int[]> entry : edits.entrySet()) {
+			out.writeUTF(entry.getKey());
+			writeInts(out, entry.getValue());
+		}
+		out.writeInt(commitDiffs.size());
+		for (Map.Entry<String, String[]> entry : commitDiffs.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue().length);
+			for (String diffKey : entry.getValue()) {
+				out.writeUTF(diffKey);
+			}
+		}
+	}
+
+	synchronized void readFrom(DataInputStream in) throws IOException {
+		int version = in.readInt() == MAGIC ? in.readInt() : -1;
+		if (version < 1 || version > VERSION) {
+			throw new IOException("unsupported SCM line data cache format");
+		}
+		int revisionsCount = in.readInt();
+		for (int i = 0; i < revisionsCount; i++) {
+			indexOf(in.readUTF());
+		}
+		int blamesCount = in.readInt();
+		for (int i = 0; i < blamesCount; i++) {
+			blames.put(in.readUTF(), readInts(in));
+		}
+		int editsCount = in.readInt();
+		for (int i = 0; i < editsCount; i++) {
+			edits.put(in.readUTF(), readInts(in));
+		}
+		//version 1 has no commit index, the commits are just diffed again
+		if (version > 1) {
+			int commitsCount = in.readInt();
+			for (int i = 0; i < commitsCount; i++) {
+				String key = in.readUTF();
+				int length = in.readInt();
+				if (length < 0) {
+					throw new IOException("corrupted SCM line data cache");
+				}
+				String[] diffKeys = new String[length];
+				for (int j = 0; j < length; j++) {
+					diffKeys[j] = in.readUTF();
+				}
+				commitDiffs.put(key, diffKeys);
+			}
+		}
+		dirty = false;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	private static int[] readInts(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("corrupted SCM line data cache");
+		}
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	private static <V> LinkedHashMap<String, V> createLruMap(int maxEntries) {
+		return new LinkedHashMap<String, V>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	static final class BlameRange implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final String revision;
+		final int start;
+		final int end;
+
+		BlameRange(String revision, int start, int end) {
+			this.revision = revision;
+			this.start = start;
+			this.end = end;
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.BlameCommand;
+import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes line level SCM data (blame of the committed files and per commit diff edits) of a git repository
+ * - results are looked up in / added to the given {@link GitLineDataCache}, so unchanged files are never re-blamed
+ * - blame of the files runs in parallel on a shared pool, sized by 'octane.plugin.GitLineEnricher.blamePoolSize' system property (default 4)
+ * - the whole computation is time-boxed by 'octane.plugin.GitLineEnricher.timeout' system property (seconds, default 120);
+ * data not computed till the deadline is just omitted, so slow repository will never hold the build
+ */
+final class GitLineEnricher {
+	private static final Logger logger = LogManager.getLogger(GitLineEnricher.class);
+
+	private static final int DEFAULT_BLAME_POOL_SIZE = 4;
+	private static final int DEFAULT_TIMEOUT_SECONDS = 120;
+	private static final Edit.Type[] EDIT_TYPES = Edit.Type.values();
+
+	private static ThreadPoolExecutor blamePool;
+
+	private final Repository repo;
+	private final String repoKey;
+	private final GitLineDataCache cache;
+	private final long deadline;
+
+	GitLineEnricher(Repository repo, String repoKey, GitLineDataCache cache) {
+		this(repo, repoKey, cache, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SystemPropertyUtils.getIntProperty("octane.plugin.GitLineEnricher.timeout", DEFAULT_TIMEOUT_SECONDS)));
+	}
+
+	GitLineEnricher(Repository repo, String repoKey, GitLineDataCache cache, long deadline) {
+		this.repo = repo;
+		this.repoKey = repoKey;
+		this.cache = cache;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Computes both blame of the given files and diff edits of the given commits
+	 *
+	 * @param startRevision revision to blame from (the built one), HEAD is used when null
+	 * @return compact result, holding the newly computed cache entries as well
+	 */
+	Result enrich(String startRevision, Set<String> files, List<String> commitIds) throws IOException {
+		Map<String, List<GitLineDataCache.BlameRange>> blames = blame(startRevision, files);
+		Map<String, List<FileEdits>> edits = diff(commitIds);
+		return new Result(blames, edits, cache.getAdded());
+	}
+
+	/**
+	 * Computes blame of the given files
+	 *
+	 * @param startRevision revision to blame from, HEAD is used when null
+	 * @param files         repository relative paths of the files
+	 * @return blame ranges per file; files not existing in the revision or not blamed till the deadline are omitted
+	 */
+	Map<String, List<GitLineDataCache.BlameRange>> blame(String startRevision, Set<String> files) throws IOException {
+		Map<String, List<GitLineDataCache.BlameRange>> result = new LinkedHashMap<>();
+		ObjectId headId = repo.resolve(startRevision != null ? startRevision : Constants.HEAD);
+		if (headId == null || files.isEmpty()) {
+			return result;
+		}
+
+		RevCommit head;
+		try (RevWalk rw = new RevWalk(repo)) {
+			head = rw.parseCommit(headId);
+		}
+
+		int fromCache = 0;
+		Map<String, Callable<List<GitLineDataCache.BlameRange>>> tasks = new LinkedHashMap<>();
+		for (String filePath : files) {
+			ObjectId blobId;
+			try (TreeWalk treeWalk = TreeWalk.forPath(repo, filePath, head.getTree())) {
+				blobId = treeWalk == null ? null : treeWalk.getObjectId(0);
+			}
+			if (blobId == null) {
+				//file does not exist in the revision (deleted), nothing to blame
+				continue;
+			}
+			String key = GitLineDataCache.blameKey(repoKey, filePath, blobId.getName());
+			List<GitLineDataCache.BlameRange> cached = cache.getBlame(key);
+			if (cached != null) {
+				result.put(filePath, cached);
+				fromCache++;
+			} else {
+				result.put(filePath, null);
+				tasks.put(filePath, () -> {
+					List<GitLineDataCache.BlameRange> ranges = blameFile(headId, filePath);
+					if (ranges != null) {
+						cache.putBlame(key, ranges);
+					}
+					return ranges;
+				});
+			}
+		}
+
+		if (!tasks.isEmpty()) {
+			long timeout = Math.max(0, deadline - System.currentTimeMillis());
+			List<Future<List<GitLineDataCache.BlameRange>>> futures;
+			try {
+				futures = getBlamePool().invokeAll(tasks.values(), timeout, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				futures = Collections.emptyList();
+			}
+			Iterator<String> paths = tasks.keySet().iterator();
+			for (Future<List<GitLineDataCache.BlameRange>> future : futures) {
+				String filePath = paths.next();
+				try {
+					result.put(filePath, future.isCancelled() ? null : future.get());
+				} catch (ExecutionException e) {
+					logger.error("failed to get blame result of " + filePath + " from git", e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		result.values().removeIf(Objects::isNull);
+
+		logger.debug("blame of " + files.size() + " files: " + fromCache + " from cache, " + tasks.size() + " computed, " + (files.size() - result.size()) + " skipped");
+		return result;
+	}
+
+	private List<GitLineDataCache.BlameRange> blameFile(ObjectId startCommit, String filePath) throws Exception {
+		BlameCommand blamer = new BlameCommand(repo);
+		blamer.setStartCommit(startCommit);
+		blamer.setFilePath(filePath);
+		BlameResult blameResult = blamer.call();
+		if (blameResult == null) {
+			return null;
+		}
+		RawText rawText = blameResult.getResultContents();
+		int fileSize = rawText.size();
+
+		List<GitLineDataCache.BlameRange> ranges = new ArrayList<>();
+		if (fileSize > 0) {
+			String startRangeRevision = blameResult.getSourceCommit(0).getName();
+			int startRange = 1;
+			for (int i = 1; i < fileSize; i++) {
+				String currentRevision = blameResult.getSourceCommit(i).getName();
+				if (!currentRevision.equals(startRangeRevision)) {
+					ranges.add(new GitLineDataCache.BlameRange(startRangeRevision, startRange, i));//line numbers starting from 1 not from 0.
+					startRange = i + 1;
+					startRangeRevision = currentRevision;
+				}
+			}
+			ranges.add(new GitLineDataCache.BlameRange(startRangeRevision, startRange, fileSize));
+		}
+		return ranges;
+	}
+
+	/**
+	 * Computes the diff edits of each of the commits against its first parent
+	 *
+	 * @param commitIds commits to process
+	 * @return file edits per commit id; commits needing diffs not cached and not computed till the deadline are omitted
+	 */
+	Map<String, List<FileEdits>> diff(List<String> commitIds) throws IOException {
+		Map<String, List<FileEdits>> result = new LinkedHashMap<>();
+		int fromCache = 0;
+		int skipped = 0;
+		try (RevWalk rw = new RevWalk(repo);
+		     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			df.setDiffComparator(RawTextComparator.DEFAULT);
+			df.setRepository(repo);
+			df.setDetectRenames(true);
+
+			for (String commitId : commitIds) {
+				RevCommit commit = rw.parseCommit(repo.resolve(commitId)); // Any ref will work here (HEAD, a sha1, tag, branch)
+				if (commit.getParentCount() == 0) {
+					continue;
+				}
+				RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
+
+				List<FileEdits> fileEdits = new ArrayList<>();
+				List<String> diffKeys = new ArrayList<>();
+				boolean complete = true;
+				for (DiffEntry diff : df.scan(parent.getTree(), commit.getTree())) { // each file change will be in separate diff
+					String key = GitLineDataCache.diffKey(repoKey, diff.getOldId().name(), diff.getNewId().name());
+					int[] packed = cache.getEdits(key);
+					if (packed == null) {
+						//only the diffs not cached yet are subject to the deadline
+						if (System.currentTimeMillis() > deadline) {
+							complete = false;
+							break;
+						}
+						packed = pack(df.toFileHeader(diff).toEditList());
+						cache.putEdits(key, packed);
+					} else {
+						fromCache++;
+					}
+					diffKeys.add(key);
+					switch (diff.getChangeType()) {
+						case ADD:
+						case COPY:
+						case MODIFY:
+							fileEdits.add(new FileEdits(diff.getNewPath(), null, packed));
+							break;
+						case DELETE:
+							// new path == null, need to use old path
+							fileEdits.add(new FileEdits(diff.getOldPath(), null, packed));
+							break;
+						case RENAME:
+							fileEdits.add(new FileEdits(diff.getNewPath(), diff.getOldPath(), packed));
+							break;
+						default:
+							break;
+					}
+				}
+				if (complete) {
+					result.put(commitId, fileEdits);
+					cache.putCommitDiffs(GitLineDataCache.commitKey(repoKey, commitId), diffKeys);
+				} else {
+					skipped++;
+				}
+			}
+		}
+		if (skipped > 0) {
+			logger.warn("line enrichment time is over, diff of " + skipped + " commits skipped");
+		}
+		logger.debug("diff of " + result.size() + " commits: " + fromCache + " file diffs from cache");
+		return result;
+	}
+
+	private static int[] pack(EditList editList) {
+		int[] packed = new int[editList.size() * 5];
+		int i = 0;
+		for (Edit edit : editList) {
+			packed[i++] = edit.getType().ordinal();
+			packed[i++] = edit.getBeginA();
+			packed[i++] = edit.getEndA();
+			packed[i++] = edit.getBeginB();
+			packed[i++] = edit.getEndB();
+		}
+		return packed;
+	}
+
+	private static synchronized ExecutorService getBlamePool() {
+		if (blamePool == null) {
+			int poolSize = SystemPropertyUtils.getIntProperty("octane.plugin.GitLineEnricher.blamePoolSize", DEFAULT_BLAME_POOL_SIZE);
+			blamePool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(),
+					new NamingThreadFactory(new DaemonThreadFactory(), "Octane SCM blame"));
+			blamePool.allowCoreThreadTimeOut(true);
+		}
+		return blamePool;
+	}
+
+	/**
+	 * Compact line data sent back from the node that runs the enrichment
+	 */
+	static final class Result implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final Map<String, List<GitLineDataCache.BlameRange>> blames;
+		final Map<String, List<FileEdits>> edits;
+		final GitLineDataCache addedToCache;
+
+		Result(Map<String, List<GitLineDataCache.BlameRange>> blames, Map<String, List<FileEdits>> edits, GitLineDataCache addedToCache) {
+			this.blames = blames;
+			this.edits = edits;
+			this.addedToCache = addedToCache;
+		}
+	}
+
+	/**
+	 * Edits of a single file in a single commit, packed as consecutive (type, beginA, endA, beginB, endB) quintets
+	 */
+	static final class FileEdits implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final String path;
+		final String renamedFrom;
+		final int[] edits;
+
+		FileEdits(String path, String renamedFrom, int[] edits) {
+			this.path = path;
+			this.renamedFrom = renamedFrom;
+			this.edits = edits;
+		}
+
+		int size() {
+			return edits.length / 5;
+		}
+
+		Edit.Type getType(int i) {
+			return EDIT_TYPES[edits[i * 5]];
+		}
+
+		int getBeginA(int i) {
+			return edits[i * 5 + 1];
+		}
+
+		int getEndA(int i) {
+			return edits[i * 5 + 2];
+		}
+
+		int getBeginB(int i) {
+			return edits[i * 5 + 3];
+		}
+
+		int getEndB(int i) {
+			return edits[i * 5 + 4];
+		}
+	}
+}
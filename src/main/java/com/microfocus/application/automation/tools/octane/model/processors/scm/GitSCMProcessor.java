@@ -43,11 +43,7 @@ import hudson.util.DescribableList;
 import jenkins.MasterToSlaveFileCallable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.jgit.api.BlameCommand;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.blame.BlameResult;
-import org.eclipse.jgit.diff.*;
 import org.eclipse.jgit.errors.NoMergeBaseException;
 import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.internal.storage.file.FileRepository;
@@ -57,7 +53,6 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
-import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import java.io.File;
@@ -78,81 +73,112 @@ class GitSCMProcessor implements SCMProcessor {
     public SCMData getSCMData(AbstractBuild build, SCM scm) {
         List<ChangeLogSet<? extends ChangeLogSet.Entry>> changes = new ArrayList<>();
         changes.add(build.getChangeSet());
-        SCMData scmData = extractSCMData(build, scm, changes);
-        scmData = enrichLinesOnSCMData(scmData, build);
-        return scmData;
+        return extractSCMData(build, scm, changes);
+    }
+
+    @Override
+    public SCMData enrichSCMData(AbstractBuild build, SCMData scmData) {
+        return enrichLinesOnSCMData(scmData, build);
     }
 
     /**
      * this method go over each of the changed files and enrich line changes
      * into existing scm events, so that the new enriched events will have line ranges.
      * in addition, for each renamed file, we enrich inside delete event the 'renamed to' file
+     * - blame and diff data are cached under the job directory (see {@link GitLineDataCache})
+     * - the enrichment is time-boxed (see {@link GitLineEnricher}), data not computed in time is omitted
      *
      * @param scmData
      * @param build
      */
     private SCMData enrichLinesOnSCMData(SCMData scmData, AbstractBuild build) {
         long startTime = System.currentTimeMillis();
+        FilePath workspace = build.getWorkspace();
+        if (workspace == null) {
+            logger.warn("Line enricher: no workspace found for " + build + ", lines won't be enriched");
+            return scmData;
+        }
+        File jobDir = build.getParent().getRootDir();
+        GitLineDataCache cache = GitLineDataCache.load(jobDir);
         try {
-            FileRepository repo = new FileRepository(new File(getRemoteString(build) + File.separator + ".git"));
-            RevWalk rw = new RevWalk(repo);
-            DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE);
-            df.setDiffComparator(RawTextComparator.DEFAULT);
-            df.setRepository(repo);
-            df.setDetectRenames(true);
-
-            //add blame data to scm data
             Set<String> committedFiles = getCommittedFiles(scmData);
-            List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles);
-            scmData.setFileBlameList(fileBlameList);
+            List<String> commitIds = new ArrayList<>();
+            scmData.getCommits().forEach(commit -> commitIds.add(commit.getRevId()));
+            String repositoryKey = getRepositoryKey(scmData, workspace);
+
+            //diff and blame run on the node holding the repository, only the compact line data travels back
+            String relativeTargetDir = getRelativeTargetDir(build);
+            FilePath repoRoot = relativeTargetDir.isEmpty() ? workspace : workspace.child(relativeTargetDir);
+            GitLineEnricher.Result result = repoRoot.act(
+                    new LineEnrichmentCallable(repositoryKey, scmData.getBuiltRevId(), committedFiles, commitIds, cache.subset(repositoryKey, committedFiles, commitIds)));
+            cache.merge(result.addedToCache);
 
+            //add blame data to scm data
+            scmData.setFileBlameList(toFileBlameList(result.blames));
             for (SCMCommit curCommit : scmData.getCommits()) {
-                Map<String, SCMChange> fileChanges = new HashMap<>();
-                curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
-                RevCommit commit = rw.parseCommit(repo.resolve(curCommit.getRevId())); // Any ref will work here (HEAD, a sha1, tag, branch)
-                RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
-
-                List<DiffEntry> diffs = df.scan(parent.getTree(), commit.getTree());
-                // FOR EACH FILE
-                for (DiffEntry diff : diffs) { // each file change will be in seperate diff
-                    EditList fileEdits = df.toFileHeader(diff).toEditList();
-                    switch (diff.getChangeType()) {
-                        case ADD:
-                            // old path == null, need to use new path
-                            handleAddLinesDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-                            break;
-                        case COPY:
-                            // need to validate this type
-                            handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-                            break;
-                        case DELETE:
-                            // new path == null, need to use old path
-                            handleDeleteLinesDiff(fileEdits, fileChanges.get(diff.getOldPath()));
-                            break;
-                        case MODIFY:
-                            handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-                            break;
-                        case RENAME:
-                            // enrich delete event with 'rename to' data
-                            SCMChange deletedChange = fileChanges.get(diff.getOldPath());
-                            SCMChange newRenamedFile = fileChanges.get(diff.getNewPath());
-                            deletedChange.setRenamedToFile(newRenamedFile.getFile());
-                            // handle changes
-                            handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-                            break;
-                        default:
-                            break;
-                    }
+                List<GitLineEnricher.FileEdits> commitEdits = result.edits.get(curCommit.getRevId());
+                if (commitEdits != null) {
+                    applyEdits(curCommit, commitEdits);
                 }
             }
-        } catch (
-                IOException e1) {
+        } catch (IOException e1) {
             logger.error("Line enricher: FAILED. could not enrich lines on SCM Data " + e1);
+        } catch (InterruptedException e) {
+            logger.warn("Line enricher: interrupted, lines won't be enriched");
+            Thread.currentThread().interrupt();
+        } finally {
+            cache.store(jobDir);
         }
         logger.info("Line enricher: process took: " + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
         return scmData;
     }
 
+    private static final class LineEnrichmentCallable extends MasterToSlaveFileCallable<GitLineEnricher.Result> {
+        private final String repositoryKey;
+        private final String startRevision;
+        private final Set<String> files;
+        private final List<String> commitIds;
+        private final GitLineDataCache cache;
+
+        private LineEnrichmentCallable(String repositoryKey, String startRevision, Set<String> files, List<String> commitIds, GitLineDataCache cache) {
+            this.repositoryKey = repositoryKey;
+            this.startRevision = startRevision;
+            this.files = files;
+            this.commitIds = commitIds;
+            this.cache = cache;
+        }
+
+        @Override
+        public GitLineEnricher.Result invoke(File repoRoot, VirtualChannel channel) throws IOException {
+            try (FileRepository repo = new FileRepository(new File(repoRoot, ".git"))) {
+                return new GitLineEnricher(repo, repositoryKey, cache).enrich(startRevision, files, commitIds);
+            }
+        }
+    }
+
+    private static String getRepositoryKey(SCMData scmData, FilePath workspace) {
+        if (scmData.getRepository() != null && scmData.getRepository().getUrl() != null) {
+            return scmData.getRepository().getUrl();
+        }
+        return workspace.getRemote();
+    }
+
+    private void applyEdits(SCMCommit commit, List<GitLineEnricher.FileEdits> commitEdits) {
+        Map<String, SCMChange> fileChanges = new HashMap<>();
+        commit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
+        for (GitLineEnricher.FileEdits fileEdits : commitEdits) {
+            SCMChange change = fileChanges.get(fileEdits.path);
+            if (fileEdits.renamedFrom != null) {
+                // enrich delete event with 'rename to' data
+                SCMChange deletedChange = fileChanges.get(fileEdits.renamedFrom);
+                if (deletedChange != null && change != null) {
+                    deletedChange.setRenamedToFile(change.getFile());
+                }
+            }
+            handleModifyDiff(fileEdits, change);
+        }
+    }
+
     private Set<String> getCommittedFiles(SCMData scmData) {
         Set<String> filesCommittedInPPR = new HashSet<>();
         for (SCMCommit curCommit : scmData.getCommits()) {
@@ -161,61 +187,32 @@ class GitSCMProcessor implements SCMProcessor {
         return filesCommittedInPPR;
     }
 
-
-    private List<SCMFileBlame> getBlameData(Repository repo, Set<String> files) {
-        BlameCommand blamer = new BlameCommand(repo);
+    private static List<SCMFileBlame> toFileBlameList(Map<String, List<GitLineDataCache.BlameRange>> blames) {
         List<SCMFileBlame> fileBlameList = new ArrayList<>();
-        ObjectId commitID;
-        try {
-            commitID = repo.resolve(Constants.HEAD);
-            for (String filePath : files) {
-                blamer.setStartCommit(commitID);
-                blamer.setFilePath(filePath);
-                BlameResult blameResult = blamer.call();
-                RawText rawText = blameResult.getResultContents();
-                Integer fileSize = rawText.size();
-
-                RevisionsMap revisionsMap = new RevisionsMap();
-
-                if (fileSize > 0) {
-                    String startRangeRevision = blameResult.getSourceCommit(0).getName();
-                    Integer startRange = 1;
-                    for (int i = 1; i < fileSize; i++) {
-                        String currentRevision = blameResult.getSourceCommit(i).getName();
-                        if (!currentRevision.equals(startRangeRevision)) {
-                            LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
-                            revisionsMap.addRangeToRevision(startRangeRevision, range);
-                            startRange = i + 1;
-                            startRangeRevision = currentRevision;
-                        }
-                    }
-                }
-                fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
+        blames.forEach((filePath, ranges) -> {
+            RevisionsMap revisionsMap = new RevisionsMap();
+            for (GitLineDataCache.BlameRange range : ranges) {
+                revisionsMap.addRangeToRevision(range.revision, new LineRange(range.start, range.end));
             }
-        } catch (IOException e) {
-            logger.error("failed to resolve repo head", e);
-        }
-         catch (GitAPIException e) {
-             logger.error("failed to get blame result from git", e);
-         }
+            fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
+        });
         return fileBlameList;
-
     }
 
-
-    private void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
+    // ADD diffs consist of inserts only and DELETE diffs of deletes only, so the same handling fits all the change types
+    private void handleModifyDiff(GitLineEnricher.FileEdits fileEdits, SCMChange scmChange) {
         if (scmChange != null) {
-            for (Edit edit : fileEdits) {
-                switch (edit.getType()) {
+            for (int i = 0; i < fileEdits.size(); i++) {
+                switch (fileEdits.getType(i)) {
                     case INSERT:
-                        scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
+                        scmChange.insertAddedLines(new LineRange(fileEdits.getBeginB(i) + 1, fileEdits.getEndB(i)));
                         break;
                     case DELETE:
-                        scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
+                        scmChange.insertDeletedLines(new LineRange(fileEdits.getBeginA(i) + 1, fileEdits.getEndA(i)));
                         break;
                     case REPLACE:
-                        scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
-                        scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
+                        scmChange.insertDeletedLines(new LineRange(fileEdits.getBeginA(i) + 1, fileEdits.getEndA(i)));
+                        scmChange.insertAddedLines(new LineRange(fileEdits.getBeginB(i) + 1, fileEdits.getEndB(i)));
                         break;
                     default:
                         break;
@@ -224,23 +221,6 @@ class GitSCMProcessor implements SCMProcessor {
         }
     }
 
-    // probably it's useless to track deleted lines (inside scm change), consider removing it later.
-    private void handleDeleteLinesDiff(EditList fileEdits, SCMChange scmChange) {
-        if (scmChange != null) {
-            for (Edit edit : fileEdits) {
-                scmChange.insertDeletedLines(new LineRange(edit.getBeginA() + 1, edit.getEndA()));
-            }
-        }
-    }
-
-    private void handleAddLinesDiff(EditList fileEdits, SCMChange scmChange) {
-        if (scmChange != null) {
-            for (Edit edit : fileEdits) {
-                scmChange.insertAddedLines(new LineRange(edit.getBeginB() + 1, edit.getEndB()));
-            }
-        }
-    }
-
     @Override
     public SCMData getSCMData(WorkflowRun run, SCM scm) {
         return extractSCMData(run, scm, run.getChangeSets());
@@ -377,15 +357,22 @@ class GitSCMProcessor implements SCMProcessor {
         return null;
     }
 
-    private static String getRemoteString(AbstractBuild r) {
+    private static String getRelativeTargetDir(AbstractBuild r) {
         final DescribableList<GitSCMExtension, GitSCMExtensionDescriptor> extensions = ((GitSCM) (r.getProject()).getScm()).getExtensions();
-        String relativeTargetDir = "";
         if (extensions != null) {
             final RelativeTargetDirectory relativeTargetDirectory = extensions.get(RelativeTargetDirectory.class);
             if (relativeTargetDirectory != null && relativeTargetDirectory.getRelativeTargetDir() != null) {
-                relativeTargetDir = File.separator + relativeTargetDirectory.getRelativeTargetDir();
+                return relativeTargetDirectory.getRelativeTargetDir();
             }
         }
+        return "";
+    }
+
+    private static String getRemoteString(AbstractBuild r) {
+        String relativeTargetDir = getRelativeTargetDir(r);
+        if (!relativeTargetDir.isEmpty()) {
+            relativeTargetDir = File.separator + relativeTargetDir;
+        }
         if (r.getWorkspace().isRemote()) {
             VirtualChannel vc = r.getWorkspace().getChannel();
             String fp = r.getWorkspace().getRemote();
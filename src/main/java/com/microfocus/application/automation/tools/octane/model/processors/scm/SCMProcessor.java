@@ -32,8 +32,20 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
  */
 
 public interface SCMProcessor {
+    /**
+     * @return SCM data as known from the build itself (repository, commits and their changed files), cheap to compute
+     */
     SCMData getSCMData(AbstractBuild build, SCM scm);
 
+    /**
+     * Enriches previously extracted SCM data with line level details (blame, changed line ranges), might be expensive
+     *
+     * @return the enriched SCM data
+     */
+    default SCMData enrichSCMData(AbstractBuild build, SCMData scmData) {
+        return scmData;
+    }
+
     SCMData getSCMData(WorkflowRun run, SCM scm);
 
     CommonOriginRevision getCommonOriginRevision(Run run);
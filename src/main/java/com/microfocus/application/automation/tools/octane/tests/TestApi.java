@@ -20,7 +20,6 @@
 
 package com.microfocus.application.automation.tools.octane.tests;
 
-import hudson.FilePath;
 import hudson.model.AbstractBuild;
 import hudson.model.Item;
 import org.apache.commons.io.IOUtils;
@@ -28,7 +27,6 @@ import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.export.Flavor;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -41,20 +39,18 @@ public class TestApi {
 		this.build = build;
 	}
 
-	public void doXml(StaplerRequest req, StaplerResponse res) throws IOException, InterruptedException {
+	public void doXml(StaplerRequest req, StaplerResponse res) throws IOException {
 		build.getACL().checkPermission(Item.READ);
-		serveFile(res, TestListener.TEST_RESULT_FILE, Flavor.XML);
+		serveStream(res, TestListener.openTestResults(build.getRootDir()), Flavor.XML);
 	}
 
-	private void serveFile(StaplerResponse res, String relativePath, Flavor flavor) throws IOException, InterruptedException {
-		FilePath file = new FilePath(new File(build.getRootDir(), relativePath));
-		if (!file.exists()) {
+	private void serveStream(StaplerResponse res, InputStream is, Flavor flavor) throws IOException {
+		if (is == null) {
 			res.sendError(404, "Information not available");
 			return;
 		}
 		res.setStatus(200);
 		res.setContentType(flavor.contentType);
-		InputStream is = file.read();
 		IOUtils.copy(is, res.getOutputStream());
 		IOUtils.closeQuietly(is);
 	}
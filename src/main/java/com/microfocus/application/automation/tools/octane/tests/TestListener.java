@@ -34,7 +34,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Jenkins events life cycle listener for processing test results on build completed
@@ -48,6 +54,77 @@ public class TestListener {
 	private static final String STORMRUNNER_FUNCTIONAL_TEST_RUNNER_CLASS = "RunFromSrfBuilder";
 	private static final String PERFORMANCE_CENTER_TEST_RUNNER_CLASS = "PcBuilder";
 	public static final String TEST_RESULT_FILE = "mqmTests.xml";
+	public static final String TEST_RESULT_FILE_GZ = TEST_RESULT_FILE + ".gz";
+	private static final String DIRECT_WRITE_PROPERTY = "octane.plugin.TestListener.directWrite";
+
+	private static final TestResultProcessingPool processingPool = new TestResultProcessingPool();
+
+	public static TestResultProcessingPool getProcessingPool() {
+		return processingPool;
+	}
+
+	/**
+	 * Cheap detection whether the run is expected to have any test results, without actually processing them
+	 *
+	 * @param run run to check
+	 * @return TRUE if at least one of the test extensions supports the run
+	 */
+	public boolean isTestResultExpected(Run run) {
+		try {
+			for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
+				if (ext.supports(run)) {
+					return true;
+				}
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			logger.error("interrupted while detecting test results of " + run, ie);
+		} catch (Throwable t) {
+			logger.error("failed to detect test results of " + run, t);
+		}
+		return false;
+	}
+
+	/**
+	 * Schedules test results processing of the run on the processing pool, the calling thread is not blocked
+	 *
+	 * @param run run to process
+	 * @return TRUE if test results are expected and going to be processed
+	 */
+	public boolean processBuildAsync(Run run) {
+		boolean testResultExpected = isTestResultExpected(run);
+		return testResultExpected && processingPool.submit(run, this::processBuild);
+	}
+
+	/**
+	 * Opens test results of the build, whether written as plain or compressed file
+	 *
+	 * @param buildRootDir root dir of the build
+	 * @return stream of mqmTests.xml content or NULL if the build has no test results file
+	 */
+	public static InputStream openTestResults(File buildRootDir) throws IOException {
+		File compressedFile = new File(buildRootDir, TEST_RESULT_FILE_GZ);
+		if (compressedFile.exists()) {
+			return new GZIPInputStream(new FileInputStream(compressedFile), 65536);
+		}
+		File file = new File(buildRootDir, TEST_RESULT_FILE);
+		if (file.exists()) {
+			return new FileInputStream(file);
+		}
+		return null;
+	}
+
+	/**
+	 * When enabled (via 'octane.plugin.TestListener.directWrite' system property), an extension that is the only one
+	 * supporting the build and capable of it, writes compressed mqmTests.xml itself (on the agent) in a single transfer
+	 */
+	private static boolean isDirectWriteEnabled() {
+		return Boolean.parseBoolean(System.getProperty(DIRECT_WRITE_PROPERTY));
+	}
+
+	public static void shutdownProcessingPool() {
+		processingPool.shutdown();
+	}
 
 	public boolean processBuild(Run run) {
 		FilePath resultPath = new FilePath(new FilePath(run.getRootDir()), TEST_RESULT_FILE);
@@ -79,12 +156,28 @@ public class TestListener {
 		}
 
 		try {
+			List<OctaneTestsExtension> extensions = new ArrayList<>();
 			for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
 				if (ext.supports(run)) {
+					extensions.add(ext);
+				}
+			}
+
+			if (isDirectWriteEnabled() && extensions.size() == 1 && extensions.get(0) instanceof DirectTestResultsWriter) {
+				FilePath compressedResultPath = new FilePath(new FilePath(run.getRootDir()), TEST_RESULT_FILE_GZ);
+				hasTests = ((DirectTestResultsWriter) extensions.get(0)).writeTestResults(run, hpRunnerType, jenkinsRootUrl, compressedResultPath);
+			} else {
+				for (OctaneTestsExtension ext : extensions) {
 					TestResultContainer testResultContainer = ext.getTestResults(run, hpRunnerType, jenkinsRootUrl);
-					if (testResultContainer != null && testResultContainer.getIterator().hasNext()) {
-						resultWriter.writeResults(testResultContainer);
-						hasTests = true;
+					if (testResultContainer != null) {
+						try {
+							if (testResultContainer.getIterator().hasNext()) {
+								resultWriter.writeResults(testResultContainer);
+								hasTests = true;
+							}
+						} finally {
+							testResultContainer.close();
+						}
 					}
 				}
 			}
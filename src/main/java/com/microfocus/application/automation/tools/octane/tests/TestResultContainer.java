@@ -23,16 +23,28 @@ package com.microfocus.application.automation.tools.octane.tests;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 
-public class TestResultContainer {
+/**
+ * Test results of a build with their fields
+ * - results may be read lazily from resources that are released by {@link #close()} once the results are written
+ */
+public class TestResultContainer implements Closeable {
 
     private Iterator<TestResult> iterator;
     private ResultFields resultFields;
+    private Closeable resources;
 
     public TestResultContainer(Iterator<TestResult> iterator, ResultFields resultFields) {
+        this(iterator, resultFields, null);
+    }
+
+    public TestResultContainer(Iterator<TestResult> iterator, ResultFields resultFields, Closeable resources) {
         this.iterator = iterator;
         this.resultFields = resultFields;
+        this.resources = resources;
     }
 
     public Iterator<TestResult> getIterator() {
@@ -42,4 +54,11 @@ public class TestResultContainer {
     public ResultFields getResultFields() {
         return resultFields;
     }
+
+    @Override
+    public void close() throws IOException {
+        if (resources != null) {
+            resources.close();
+        }
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import com.microfocus.application.automation.tools.octane.BoundedWorkerPool;
+import hudson.model.Run;
+
+import java.util.function.Consumer;
+
+/**
+ * Bounded worker pool for converting build test results into mqmTests.xml off the listener threads
+ * - pool size is configurable via 'octane.plugin.TestResultProcessingPool.poolSize' system property (default 2)
+ * - queue capacity is configurable via 'octane.plugin.TestResultProcessingPool.queueCapacity' system property (default 200)
+ * - when the queue is full the run is not processed and the rejection is logged, the listener thread never waits
+ */
+public final class TestResultProcessingPool extends BoundedWorkerPool {
+
+	private static final int DEFAULT_POOL_SIZE = 2;
+	private static final int DEFAULT_QUEUE_CAPACITY = 200;
+
+	TestResultProcessingPool() {
+		this(SystemPropertyUtils.getIntProperty("octane.plugin.TestResultProcessingPool.poolSize", DEFAULT_POOL_SIZE),
+				SystemPropertyUtils.getIntProperty("octane.plugin.TestResultProcessingPool.queueCapacity", DEFAULT_QUEUE_CAPACITY));
+	}
+
+	TestResultProcessingPool(int poolSize, int queueCapacity) {
+		super("Octane test results processing", poolSize, queueCapacity);
+	}
+
+	/**
+	 * Submits the run for asynchronous test results processing
+	 *
+	 * @param run       run to process
+	 * @param processor actual processing logic
+	 * @return FALSE if the pool is saturated (or shut down) and the run is not going to be processed
+	 */
+	boolean submit(Run run, Consumer<Run> processor) {
+		return execute("test results processing of " + run, () -> processor.accept(run));
+	}
+}
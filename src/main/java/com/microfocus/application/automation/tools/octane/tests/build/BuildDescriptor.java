@@ -20,7 +20,9 @@
 
 package com.microfocus.application.automation.tools.octane.tests.build;
 
-public final class BuildDescriptor {
+import java.io.Serializable;
+
+public final class BuildDescriptor implements Serializable {
 
 	private final String jobId;
 	private final String jobName;
@@ -20,10 +20,12 @@
 
 package com.microfocus.application.automation.tools.octane.tests.detection;
 
+import java.io.Serializable;
+
 /**
  * Class describing metadata of executed tests for test pushing to Octane
  */
-public class ResultFields {
+public class ResultFields implements Serializable {
 
     private String framework;
     private String testingTool;
@@ -0,0 +1,167 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.gherkin;
+
+import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Gherkin results file shared by the {@link GherkinTestResult}s collected from it
+ * - features are written in document order, so a single reader is kept open and moved forward between them
+ * - the reader is reopened only when an earlier feature is requested, and closed after the last feature
+ * or by {@link #close()} once the results are written (e.g. when writing was aborted)
+ */
+class GherkinResultsFile implements Closeable {
+    private final File file;
+    private int featureCount;
+    private InputStream input;
+    private XMLStreamReader reader;
+    private int nextFeature;
+
+    GherkinResultsFile(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    void setFeatureCount(int featureCount) {
+        this.featureCount = featureCount;
+    }
+
+    synchronized void writeFeature(int featureIndex, List<TestResultStatus> scenarioStatuses, XMLStreamWriter writer) throws XMLStreamException {
+        try {
+            if (reader == null || featureIndex < nextFeature) {
+                close();
+                open();
+            }
+            if (!skipToFeature(featureIndex)) {
+                throw new XMLStreamException("Feature " + featureIndex + " not found in " + file);
+            }
+            copyFeature(scenarioStatuses, writer);
+            nextFeature = featureIndex + 1;
+            if (nextFeature >= featureCount) {
+                close();
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void open() throws XMLStreamException {
+        try {
+            input = new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            throw new XMLStreamException("Gherkin results file " + file + " is no longer available", e);
+        }
+        reader = GherkinTestResultsCollector.createReader(input);
+        nextFeature = 0;
+    }
+
+    private boolean skipToFeature(int featureIndex) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && "feature".equals(reader.getLocalName())) {
+                if (nextFeature == featureIndex) {
+                    return true;
+                }
+                nextFeature++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * copies the feature element the reader is positioned on, overriding the status of its scenarios;
+     * only elements, attributes and CDATA sections (the formatter emits all the text as CDATA) are copied
+     */
+    private void copyFeature(List<TestResultStatus> scenarioStatuses, XMLStreamWriter writer) throws XMLStreamException {
+        int depth = 0;
+        int scenarioIndex = 0;
+        while (true) {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    writer.writeStartElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+                    boolean scenario = "scenario".equals(reader.getLocalName()) && scenarioIndex < scenarioStatuses.size();
+                    for (int a = 0; a < reader.getAttributeCount(); a++) {
+                        String attrName = qualifiedName(reader.getAttributePrefix(a), reader.getAttributeLocalName(a));
+                        if (!scenario || !"status".equals(attrName)) {
+                            writer.writeAttribute(attrName, reader.getAttributeValue(a));
+                        }
+                    }
+                    if (scenario) {
+                        writer.writeAttribute("status", scenarioStatuses.get(scenarioIndex++).toPrettyName());
+                    }
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    writer.writeEndElement();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CDATA:
+                    writer.writeCharacters(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+            if (depth == 0) {
+                return;
+            }
+            reader.next();
+        }
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                //closing a reader that is discarded anyway
+            }
+            reader = null;
+        }
+        if (input != null) {
+            try {
+                input.close();
+            } catch (IOException e) {
+                //closing a stream that is discarded anyway
+            }
+            input = null;
+        }
+    }
+}
@@ -54,13 +54,19 @@ public class GherkinTestExtension extends OctaneTestsExtension {
 			TestProcessingException, IOException, InterruptedException {
 		try {
 			List<TestResult> testResults = GherkinTestResultsCollector.collectGherkinTestsResults(build.getRootDir());
-			return new TestResultContainer(testResults.iterator(), null);
+			//features are copied from the results files while written, the files are closed once the results are written
+			return new TestResultContainer(testResults.iterator(), null, () -> closeResultsFiles(testResults));
 		} catch (IOException e) {
 			throw e;
-		} catch (InterruptedException e) {
-			throw e;
 		} catch (Exception e) {
 			throw new TestProcessingException("Error while processing gherkin test results", e);
 		}
 	}
+
+	private static void closeResultsFiles(List<TestResult> testResults) {
+		testResults.stream()
+				.map(testResult -> ((GherkinTestResult) testResult).getResultsFile())
+				.distinct()
+				.forEach(GherkinResultsFile::close);
+	}
 }
@@ -22,36 +22,39 @@ package com.microfocus.application.automation.tools.octane.tests.gherkin;
 
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Created by franksha on 20/03/2016.
+ * - keeps only the computed statuses, the feature element itself is streamed from the results file when written
  */
 public class GherkinTestResult implements TestResult {
     private Map<String, String> attributes;
-    private Element contentElement;
+    private final GherkinResultsFile resultsFile;
+    private final int featureIndex;
+    private final List<TestResultStatus> scenarioStatuses;
 
-    public GherkinTestResult(String name, Element xmlElement, long duration, TestResultStatus status) {
+    GherkinTestResult(String name, long duration, TestResultStatus status, GherkinResultsFile resultsFile, int featureIndex, List<TestResultStatus> scenarioStatuses) {
         this.attributes = new HashMap<>();
         this.attributes.put("name", name);
         this.attributes.put("duration", String.valueOf(duration));
         this.attributes.put("status", status.toPrettyName());
-        this.contentElement = xmlElement;
+        this.resultsFile = resultsFile;
+        this.featureIndex = featureIndex;
+        this.scenarioStatuses = scenarioStatuses;
     }
 
-    public Map<String, String> getAttributes() {
-        return attributes;
+    GherkinResultsFile getResultsFile() {
+        return resultsFile;
     }
 
-    public Element getXmlElement() {
-        return contentElement;
+    public Map<String, String> getAttributes() {
+        return attributes;
     }
 
     @Override
@@ -62,27 +65,7 @@ public class GherkinTestResult implements TestResult {
                 writer.writeAttribute(attrName, attributes.get(attrName));
             }
         }
-        writeXmlElement(writer, contentElement);
+        resultsFile.writeFeature(featureIndex, scenarioStatuses, writer);
         writer.writeEndElement();
     }
-
-    private void writeXmlElement(XMLStreamWriter writer, Element rootElement) throws XMLStreamException {
-        if (rootElement != null) {
-            writer.writeStartElement(rootElement.getTagName());
-            for (int a = 0; a < rootElement.getAttributes().getLength(); a++) {
-                String attrName = rootElement.getAttributes().item(a).getNodeName();
-                writer.writeAttribute(attrName, rootElement.getAttribute(attrName));
-            }
-            NodeList childNodes = rootElement.getChildNodes();
-            for (int c = 0; c < childNodes.getLength(); c++) {
-                Node child = childNodes.item(c);
-                if (child instanceof Element) {
-                    writeXmlElement(writer, (Element) child);
-                } else if (child.getNodeType() == Node.CDATA_SECTION_NODE) {
-                    writer.writeCharacters(child.getNodeValue());
-                }
-            }
-            writer.writeEndElement();
-        }
-    }
 }
@@ -23,208 +23,161 @@ package com.microfocus.application.automation.tools.octane.tests.gherkin;
 import com.microfocus.application.automation.tools.octane.actions.cucumber.CucumberResultsService;
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
-import hudson.FilePath;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Created by franksha on 20/03/2016.
+ * - results files are streamed: feature and scenario status/duration are computed in a single pass
+ * - the feature fragments are not kept in memory, {@link GherkinTestResult} copies them from the file when written
  */
 public class GherkinTestResultsCollector {
+    private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
 
-    public static List<TestResult> collectGherkinTestsResults(File buildDir) throws ParserConfigurationException, IOException, InterruptedException, SAXException, TransformerException {
+    public static List<TestResult> collectGherkinTestsResults(File buildDir) throws IOException, XMLStreamException {
         List<TestResult> result = new ArrayList<>();
 
         //Retrieve the cucumber results xml
         int i = 0;
-        FilePath gherkinTestResultsFilePath = new FilePath(buildDir).child(CucumberResultsService.getGherkinResultFileName(i));
-
-        while (gherkinTestResultsFilePath.exists()) {
-            String gherkinTestResultsPath = buildDir.getAbsolutePath() + File.separator + CucumberResultsService.getGherkinResultFileName(i);
-
-            //parse the xml
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(gherkinTestResultsPath);
-            doc.getDocumentElement().normalize();
-
-            validateXMLVersion(doc);
+        File gherkinTestResultsFile = new File(buildDir, CucumberResultsService.getGherkinResultFileName(i));
 
-            //Go over the features
-            NodeList featureNodes = doc.getElementsByTagName("feature");
-            for (int f = 0; f < featureNodes.getLength(); f++) {
-                Element featureElement = (Element) featureNodes.item(f);
-                FeatureInfo featureInfo = new FeatureInfo(featureElement);
-                result.add(new GherkinTestResult(featureInfo.getName(), featureElement, featureInfo.getDuration(), featureInfo.getStatus()));
-            }
+        while (gherkinTestResultsFile.exists()) {
+            collectFeatures(new GherkinResultsFile(gherkinTestResultsFile), result);
 
             i++;
-            gherkinTestResultsFilePath = new FilePath(buildDir).child(CucumberResultsService.getGherkinResultFileName(i));
+            gherkinTestResultsFile = new File(buildDir, CucumberResultsService.getGherkinResultFileName(i));
         } //end while
 
         return result;
     }
 
-    private static class FeatureInfo {
-        private String name;
-        private List<String> scenarioNames = new ArrayList<>();
-        private TestResultStatus status = TestResultStatus.PASSED;
-        private boolean statusDetermined = false;
-        private long duration = 0;
-
-        public FeatureInfo(Element featureElement) {
-            name = featureElement.getAttribute("name");
-            NodeList backgroundNodes = featureElement.getElementsByTagName("background");
-            Element backgroundElement = backgroundNodes.getLength() > 0 ? (Element)backgroundNodes.item(0) : null;
-            NodeList backgroundSteps = backgroundElement != null ? backgroundElement.getElementsByTagName("step") : null;
-
-            //Go over the scenarios
-            NodeList scenarioNodes = featureElement.getElementsByTagName("scenario");
-            for (int s = 0; s < scenarioNodes.getLength(); s++) {
-                Element scenarioElement = (Element) scenarioNodes.item(s);
-                ScenarioInfo scenarioInfo = new ScenarioInfo(scenarioElement, backgroundSteps);
-                String scenarioName = scenarioInfo.getName();
-                scenarioNames.add(scenarioName);
-
-                duration += scenarioInfo.getDuration();
-                if (!statusDetermined && TestResultStatus.SKIPPED.equals(scenarioInfo.getStatus())) {
-                    status = TestResultStatus.SKIPPED;
-                    statusDetermined = true;
-                } else if (!statusDetermined && TestResultStatus.FAILED.equals(scenarioInfo.getStatus())) {
-                    status = TestResultStatus.FAILED;
-                    statusDetermined = true;
-                }
-            }
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public List<String> getScenarioNames() {
-            return scenarioNames;
-        }
-
-        public TestResultStatus getStatus() {
-            return status;
-        }
+    static XMLStreamReader createReader(InputStream input) throws XMLStreamException {
+        return xmlInputFactory.createXMLStreamReader(input);
+    }
 
-        public long getDuration() {
-            return duration;
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        //CDATA sections are the only text content copied to the output, ask the parser to report them as such
+        if (factory.isPropertySupported(REPORT_CDATA_PROPERTY)) {
+            factory.setProperty(REPORT_CDATA_PROPERTY, true);
         }
+        return factory;
+    }
 
-        private class ScenarioInfo {
-            private List<String> stepNames = new ArrayList<String>();
-            private long duration = 0;
-            private TestResultStatus status = TestResultStatus.PASSED;
-            private boolean statusDetermined = false;
-            private String name;
-
-            public ScenarioInfo(Element scenarioElement, NodeList backgroundSteps) {
-                name = getScenarioName(scenarioElement);
-
-                List<Element> stepElements = getStepElements(backgroundSteps, scenarioElement);
-                for (Element stepElement : stepElements) {
-                    addStep(stepElement);
+    private static void collectFeatures(GherkinResultsFile resultsFile, List<TestResult> result) throws IOException, XMLStreamException {
+        try (InputStream input = new FileInputStream(resultsFile.getFile())) {
+            XMLStreamReader reader = createReader(input);
+            try {
+                validateXMLVersion(reader);
+
+                int featureIndex = 0;
+                FeatureInfo feature = null;
+                StepsInfo steps = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String localName = reader.getLocalName();
+                        if ("feature".equals(localName)) {
+                            feature = new FeatureInfo(reader.getAttributeValue(null, "name"));
+                        } else if (feature != null && "background".equals(localName)) {
+                            //only the first background of the feature applies to its scenarios
+                            steps = feature.background == null ? (feature.background = new StepsInfo()) : new StepsInfo();
+                        } else if (feature != null && "scenario".equals(localName)) {
+                            steps = new StepsInfo();
+                            feature.scenarios.add(steps);
+                        } else if (steps != null && "step".equals(localName)) {
+                            steps.addStep(reader.getAttributeValue(null, "duration"), reader.getAttributeValue(null, "status"));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String localName = reader.getLocalName();
+                        if ("feature".equals(localName) && feature != null) {
+                            feature.complete();
+                            result.add(new GherkinTestResult(feature.name, feature.duration, feature.status, resultsFile, featureIndex++, feature.scenarioStatuses));
+                            feature = null;
+                            steps = null;
+                        } else if ("background".equals(localName) || "scenario".equals(localName)) {
+                            steps = null;
+                        }
+                    }
                 }
-
-                scenarioElement.setAttribute("status", status.toPrettyName());
-
-                //for surefire report
-                stepNames.add(name);
-                stepNames.add("Scenario: " + name);
-            }
-
-            public List<String> getStepNames() {
-                return stepNames;
-            }
-
-            public long getDuration() {
-                return duration;
-            }
-
-            public TestResultStatus getStatus() {
-                return status;
+                resultsFile.setFeatureCount(featureIndex);
+            } finally {
+                reader.close();
             }
+        }
+    }
 
-            public String getName() {
-                return name;
-            }
+    private static class FeatureInfo {
+        private final String name;
+        private StepsInfo background;
+        private final List<StepsInfo> scenarios = new ArrayList<>();
+        private final List<TestResultStatus> scenarioStatuses = new ArrayList<>();
+        private TestResultStatus status = TestResultStatus.PASSED;
+        private boolean statusDetermined = false;
+        private long duration = 0;
 
-            private void addStep(Element stepElement) {
-                String stepName = stepElement.getAttribute("name");
-                stepNames.add(stepName);
+        private FeatureInfo(String name) {
+            this.name = name == null ? "" : name;
+        }
 
-                String durationStr = stepElement.getAttribute("duration");
-                long stepDuration = durationStr != "" ? Long.parseLong(durationStr) : 0;
-                duration += stepDuration;
+        private void complete() {
+            //background steps precede the scenario steps, so a decisive background step wins
+            for (StepsInfo scenario : scenarios) {
+                TestResultStatus scenarioStatus = background != null && background.statusDetermined ? background.status : scenario.status;
+                long scenarioDuration = scenario.duration + (background != null ? background.duration : 0);
+                scenarioStatuses.add(scenarioStatus);
 
-                String stepStatus = stepElement.getAttribute("status");
-                if (!statusDetermined && ("pending".equals(stepStatus) || "skipped".equals(stepStatus))) {
+                duration += scenarioDuration;
+                if (!statusDetermined && TestResultStatus.SKIPPED.equals(scenarioStatus)) {
                     status = TestResultStatus.SKIPPED;
                     statusDetermined = true;
-                } else if (!statusDetermined && "failed".equals(stepStatus)) {
+                } else if (!statusDetermined && TestResultStatus.FAILED.equals(scenarioStatus)) {
                     status = TestResultStatus.FAILED;
                     statusDetermined = true;
                 }
             }
+            scenarios.clear();
+        }
+    }
 
-            private List<Element> getStepElements(NodeList backgroundSteps, Element scenarioElement) {
-                List<Element> stepElements = new ArrayList<Element>();
-                if(backgroundSteps != null) {
-                    for (int bs = 0; bs < backgroundSteps.getLength(); bs++) {
-                        Element stepElement = (Element) backgroundSteps.item(bs);
-                        stepElements.add(stepElement);
-                    }
-                }
-                NodeList stepNodes = scenarioElement.getElementsByTagName("step");
-                for (int sn = 0; sn < stepNodes.getLength(); sn++) {
-                    Element stepElement = (Element) stepNodes.item(sn);
-                    stepElements.add(stepElement);
-                }
-
-                return stepElements;
-            }
+    private static class StepsInfo {
+        private long duration = 0;
+        private TestResultStatus status = TestResultStatus.PASSED;
+        private boolean statusDetermined = false;
 
-            private String getScenarioName(Element scenarioElement) {
-                String scenarioName = scenarioElement.getAttribute("name");
-                if (scenarioElement.hasAttribute("outlineIndex")) {
-                    String outlineIndexStr = scenarioElement.getAttribute("outlineIndex");
-                    if (outlineIndexStr != null && !outlineIndexStr.isEmpty()) {
-                        Integer outlineIndex = Integer.valueOf(scenarioElement.getAttribute("outlineIndex"));
-                        if (outlineIndex > 1) {
-                            //we add the index only from 2 and upwards seeing as that is the naming convention in junit xml.
-                            String delimiter = " ";
-                            if (!scenarioName.contains(" ")) {
-                                //we need to use the same logic as used in the junit report
-                                delimiter = "_";
-                            }
-                            scenarioName = scenarioName + delimiter + scenarioElement.getAttribute("outlineIndex");
-                        }
-                    }
+        private void addStep(String durationStr, String stepStatus) {
+            long stepDuration = durationStr != null && !durationStr.isEmpty() ? Long.parseLong(durationStr) : 0;
+            duration += stepDuration;
 
-                }
-                return scenarioName;
+            if (!statusDetermined && ("pending".equals(stepStatus) || "skipped".equals(stepStatus))) {
+                status = TestResultStatus.SKIPPED;
+                statusDetermined = true;
+            } else if (!statusDetermined && "failed".equals(stepStatus)) {
+                status = TestResultStatus.FAILED;
+                statusDetermined = true;
             }
         }
     }
 
-    private static void validateXMLVersion(Document doc) {
+    private static void validateXMLVersion(XMLStreamReader reader) throws XMLStreamException {
         String XML_VERSION = "1";
-        NodeList featuresNodes = doc.getElementsByTagName("features");
-        if(featuresNodes.getLength() > 0) {
-            String versionAttr = ((Element) featuresNodes.item(0)).getAttribute("version");
+        while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+            //skip the prolog up to the root element
+        }
+        if (reader.isStartElement() && "features".equals(reader.getLocalName())) {
+            String versionAttr = reader.getAttributeValue(null, "version");
             if (versionAttr == null || versionAttr.isEmpty() || versionAttr.compareTo(XML_VERSION) != 0) {
                 throw new IllegalArgumentException("\n********************************************************\n" +
                     "Incompatible xml version received from the Octane formatter.\n" +
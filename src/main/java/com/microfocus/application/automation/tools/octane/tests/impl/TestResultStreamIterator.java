@@ -20,26 +20,29 @@
 
 package com.microfocus.application.automation.tools.octane.tests.impl;
 
+import com.microfocus.application.automation.tools.octane.tests.junit.JUnitTestResultCodec;
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
 import hudson.FilePath;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-public class ObjectStreamIterator<E> implements Iterator<E> {
-    private static Logger logger = LogManager.getLogger(ObjectStreamIterator.class);
+/**
+ * Iterates over test results written by {@link JUnitTestResultCodec.Writer}, deletes the file once fully read
+ */
+public class TestResultStreamIterator implements Iterator<TestResult> {
+    private static Logger logger = LogManager.getLogger(TestResultStreamIterator.class);
 
-    private ObjectInputStream ois;
+    private JUnitTestResultCodec.Reader reader;
     private FilePath filePath;
-    private E next;
+    private TestResult next;
 
-    public ObjectStreamIterator(FilePath filePath) throws IOException, InterruptedException {
+    public TestResultStreamIterator(FilePath filePath) throws IOException, InterruptedException {
         this.filePath = filePath;
-        this.ois = new ObjectInputStream(new BufferedInputStream(filePath.read()));
+        this.reader = new JUnitTestResultCodec.Reader(filePath.read());
     }
 
     @Override
@@ -47,29 +50,26 @@ public class ObjectStreamIterator<E> implements Iterator<E> {
         if (next != null) {
             return true;
         }
+        if (reader == null) {
+            return false;
+        }
         try {
-            next = (E) ois.readObject();
-            return true;
+            next = reader.read();
         } catch (Throwable e) {
-            try {
-                ois.close();
-            } catch (IOException ioe) {
-                logger.error("Failed to close the stream", ioe); // NON-NLS
-            }
-
-            try {
-                filePath.delete();
-            } catch (Exception ex) {
-                logger.error("Failed to delete the filePath " + filePath.getRemote(), ex); // NON-NLS
-            }
+            logger.error("Failed to read test results from " + filePath.getRemote(), e); // NON-NLS
+            next = null;
+        }
+        if (next == null) {
+            close();
             return false;
         }
+        return true;
     }
 
     @Override
-    public E next() {
+    public TestResult next() {
         if (hasNext()) {
-            E value = next;
+            TestResult value = next;
             next = null;
             return value;
         } else {
@@ -81,4 +81,19 @@ public class ObjectStreamIterator<E> implements Iterator<E> {
     public void remove() {
         throw new UnsupportedOperationException();
     }
+
+    private void close() {
+        try {
+            reader.close();
+        } catch (IOException ioe) {
+            logger.error("Failed to close the stream", ioe); // NON-NLS
+        }
+        reader = null;
+
+        try {
+            filePath.delete();
+        } catch (Exception ex) {
+            logger.error("Failed to delete the filePath " + filePath.getRemote(), ex); // NON-NLS
+        }
+    }
 }
@@ -21,15 +21,19 @@
 package com.microfocus.application.automation.tools.octane.tests.junit;
 
 import com.google.inject.Inject;
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
 import com.microfocus.application.automation.tools.octane.actions.cucumber.CucumberTestResultsAction;
 import com.microfocus.application.automation.tools.octane.executor.CheckOutSubDirEnvContributor;
+import com.microfocus.application.automation.tools.octane.tests.DirectTestResultsWriter;
 import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
 import com.microfocus.application.automation.tools.octane.tests.OctaneTestsExtension;
 import com.microfocus.application.automation.tools.octane.tests.TestResultContainer;
+import com.microfocus.application.automation.tools.octane.tests.build.BuildDescriptor;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
+import com.microfocus.application.automation.tools.octane.tests.impl.TestResultStreamIterator;
+import com.microfocus.application.automation.tools.octane.tests.xml.TestResultXmlWriter;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.maven.MavenBuild;
@@ -50,12 +54,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Converter of Jenkins test report to ALM Octane test report format(junitResult.xml->mqmTests.xml)
  */
 @Extension
-public class JUnitExtension extends OctaneTestsExtension {
+public class JUnitExtension extends OctaneTestsExtension implements DirectTestResultsWriter {
 	private static Logger logger = LogManager.getLogger(JUnitExtension.class);
 
 	private static final String STORMRUNNER_LOAD = "StormRunner Load";
@@ -69,6 +74,8 @@ public class JUnitExtension extends OctaneTestsExtension {
 	private static final String PERFORMANCE_REPORT = "PerformanceReport";
 	private static final String TRANSACTION_SUMMARY = "TransactionSummary";
 
+	private static final int USE_AVAILABLE_PROCESSORS = 0;
+
 	@Inject
 	private ResultFieldsDetectionService resultFieldsDetectionService;
 
@@ -89,45 +96,68 @@ public class JUnitExtension extends OctaneTestsExtension {
 	public TestResultContainer getTestResults(Run<?, ?> run, HPRunnerType hpRunnerType, String jenkinsRootUrl) throws IOException, InterruptedException {
 		logger.debug("Collecting JUnit results");
 
-		boolean isLoadRunnerProject = isLoadRunnerProject(run);
+		List<FilePath> resultFiles = getResultFiles(run);
+		if (resultFiles.isEmpty()) {
+			logger.debug("No JUnit result report found");
+			return null;
+		}
+
+		ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject(run));
+		FilePath workspace = BuildHandlerUtils.getWorkspace(run);
+		if (workspace == null) {
+			logger.error("Received null workspace : " + run);
+			return null;
+		}
+
+		FilePath filePath = workspace.act(new GetJUnitTestResults(run, resultFiles, false, hpRunnerType, jenkinsRootUrl));
+		return new TestResultContainer(new TestResultStreamIterator(filePath), detectedFields);
+	}
+
+	@Override
+	public boolean writeTestResults(Run<?, ?> run, HPRunnerType hpRunnerType, String jenkinsRootUrl, FilePath target) throws IOException, InterruptedException {
+		logger.debug("Writing JUnit results directly to " + target.getRemote());
+
+		List<FilePath> resultFiles = getResultFiles(run);
+		if (resultFiles.isEmpty()) {
+			logger.debug("No JUnit result report found");
+			return false;
+		}
+
+		ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject(run));
+		FilePath workspace = BuildHandlerUtils.getWorkspace(run);
+		if (workspace == null) {
+			logger.error("Received null workspace : " + run);
+			return false;
+		}
+
+		GetJUnitTestResults callable = new GetJUnitTestResults(run, resultFiles, false, hpRunnerType, jenkinsRootUrl,
+				target, BuildHandlerUtils.getBuildType(run), detectedFields);
+		return workspace.act(callable) != null;
+	}
+
+	private List<FilePath> getResultFiles(Run<?, ?> run) throws IOException, InterruptedException {
+		List<FilePath> resultFiles = new LinkedList<>();
 		FilePath resultFile = new FilePath(run.getRootDir()).child(JUNIT_RESULT_XML);
 		if (resultFile.exists()) {
 			logger.debug("JUnit result report found");
-			ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject);
-			FilePath workspace = BuildHandlerUtils.getWorkspace(run);
-			if (workspace == null) {
-				logger.error("Received null workspace : " + run);
-				return null;
-			}
-
-			FilePath filePath = workspace.act(new GetJUnitTestResults(run, Collections.singletonList(resultFile), false, hpRunnerType, jenkinsRootUrl));
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
-		} else {
+			resultFiles.add(resultFile);
+		} else if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
-			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
-				logger.debug("MavenModuleSetBuild detected, looking for results in maven modules");
-
-				List<FilePath> resultFiles = new LinkedList<>();
-				Map<MavenModule, MavenBuild> moduleLastBuilds = ((MavenModuleSetBuild) run).getModuleLastBuilds();
-				for (MavenBuild mavenBuild : moduleLastBuilds.values()) {
-					AbstractTestResultAction action = mavenBuild.getAction(AbstractTestResultAction.class);
-					if (action != null) {
-						FilePath moduleResultFile = new FilePath(mavenBuild.getRootDir()).child(JUNIT_RESULT_XML);
-						if (moduleResultFile.exists()) {
-							logger.debug("Found results in " + mavenBuild.getFullDisplayName());
-							resultFiles.add(moduleResultFile);
-						}
+			logger.debug("MavenModuleSetBuild detected, looking for results in maven modules");
+
+			Map<MavenModule, MavenBuild> moduleLastBuilds = ((MavenModuleSetBuild) run).getModuleLastBuilds();
+			for (MavenBuild mavenBuild : moduleLastBuilds.values()) {
+				AbstractTestResultAction action = mavenBuild.getAction(AbstractTestResultAction.class);
+				if (action != null) {
+					FilePath moduleResultFile = new FilePath(mavenBuild.getRootDir()).child(JUNIT_RESULT_XML);
+					if (moduleResultFile.exists()) {
+						logger.debug("Found results in " + mavenBuild.getFullDisplayName());
+						resultFiles.add(moduleResultFile);
 					}
 				}
-				if (!resultFiles.isEmpty()) {
-					ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject);
-					FilePath filePath = BuildHandlerUtils.getWorkspace(run).act(new GetJUnitTestResults(run, resultFiles, false, hpRunnerType, jenkinsRootUrl));
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
-				}
 			}
-			logger.debug("No JUnit result report found");
-			return null;
 		}
+		return resultFiles;
 	}
 
 	private ResultFields getResultFields(Run<?, ?> build, HPRunnerType hpRunnerType, boolean isLoadRunnerProject) throws InterruptedException {
@@ -175,9 +205,27 @@ public class JUnitExtension extends OctaneTestsExtension {
 		private Object additionalContext;
 		private String buildRootDir;
 
+		//direct write mode: final mqmTests.xml is written (gzip compressed) by the slave into xmlTarget
+		private FilePath xmlTarget;
+		private BuildDescriptor buildDescriptor;
+		private ResultFields resultFields;
+
+		//max number of reports converted in parallel, USE_AVAILABLE_PROCESSORS means number of slave's cores
+		private final int maxParallelism = getMaxParallelism();
+
 		public GetJUnitTestResults(Run<?, ?> build, List<FilePath> reports, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl) throws IOException, InterruptedException {
+			this(build, reports, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, null, null, null);
+		}
+
+		public GetJUnitTestResults(Run<?, ?> build, List<FilePath> reports, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl,
+		                           FilePath xmlTarget, BuildDescriptor buildDescriptor, ResultFields resultFields) throws IOException, InterruptedException {
 			this.reports = reports;
-			this.filePath = new FilePath(build.getRootDir()).createTempFile(getClass().getSimpleName(), null);
+			this.xmlTarget = xmlTarget;
+			this.buildDescriptor = buildDescriptor;
+			this.resultFields = resultFields;
+			if (xmlTarget == null) {
+				this.filePath = new FilePath(build.getRootDir()).createTempFile(getClass().getSimpleName(), null);
+			}
 			this.buildStarted = build.getStartTimeInMillis();
 			this.workspace = BuildHandlerUtils.getWorkspace(build);
 			this.stripPackageAndClass = stripPackageAndClass;
@@ -208,7 +256,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 						}
 					}
 				}
-				additionalContext = testFolderNames;
+				additionalContext = new UftTestFolderIndex(testFolderNames);
 			}
 			if (HPRunnerType.StormRunnerLoad.equals(hpRunnerType)) {
 				try {
@@ -239,24 +287,69 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		@Override
 		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
+			if (xmlTarget != null) {
+				return writeXml();
+			}
+
+			try (JUnitTestResultCodec.Writer writer = new JUnitTestResultCodec.Writer(filePath.write())) {
+				convertReports(writer::write);
+			} catch (XMLStreamException e) {
+				throw new IOException(e);
+			}
+			return filePath;
+		}
 
+		private FilePath writeXml() throws IOException, InterruptedException {
+			TestResultXmlWriter xmlWriter = new TestResultXmlWriter(new GZIPOutputStream(xmlTarget.write(), 65536), buildDescriptor);
 			try {
-				for (FilePath report : reports) {
-					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext);
-					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
-					}
-				}
+				convertReports(testResult -> xmlWriter.writeResult(testResult, resultFields));
 			} catch (XMLStreamException e) {
 				throw new IOException(e);
+			} finally {
+				try {
+					xmlWriter.close();
+				} catch (XMLStreamException e) {
+					throw new IOException(e);
+				}
 			}
-			os.flush();
 
-			oos.close();
-			return filePath;
+			if (xmlWriter.hasResults()) {
+				return xmlTarget;
+			} else {
+				xmlTarget.delete();
+				return null;
+			}
+		}
+
+		/**
+		 * Converts the reports and passes their results (in the order of the reports) to the handler
+		 * - multiple reports (maven modules) are converted in parallel, their results are streamed to the handler as they come
+		 * - UFT conversion shares mutable context between the reports, therefore it is always sequential
+		 */
+		private void convertReports(ParallelReportsConverter.ResultHandler handler) throws IOException, InterruptedException, XMLStreamException {
+			int parallelism = Math.min(reports.size(), maxParallelism != USE_AVAILABLE_PROCESSORS ? maxParallelism : Runtime.getRuntime().availableProcessors());
+			if (parallelism <= 1 || HPRunnerType.UFT.equals(hpRunnerType)) {
+				for (FilePath report : reports) {
+					convertReport(report, handler);
+				}
+			} else {
+				new ParallelReportsConverter<>(this::convertReport, parallelism).convert(reports, handler);
+			}
+		}
+
+		private void convertReport(FilePath report, ParallelReportsConverter.ResultHandler handler) throws IOException, InterruptedException, XMLStreamException {
+			long start = System.currentTimeMillis();
+			int count = 0;
+			JUnitXmlIterator iterator = createIterator(report);
+			while (iterator.hasNext()) {
+				handler.handle(iterator.next());
+				count++;
+			}
+			logger.debug("converted " + count + " tests of " + report.getRemote() + " in " + (System.currentTimeMillis() - start) + " ms");
+		}
+
+		private JUnitXmlIterator createIterator(FilePath report) throws IOException, InterruptedException, XMLStreamException {
+			return new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext);
 		}
 
 		@Override
@@ -265,6 +358,14 @@ public class JUnitExtension extends OctaneTestsExtension {
 		}
 	}
 
+	/**
+	 * Max number of reports (e.g. maven modules) converted in parallel on the slave,
+	 * configurable via 'octane.plugin.JUnitExtension.parallelism' system property, by default number of slave's cores
+	 */
+	private static int getMaxParallelism() {
+		return SystemPropertyUtils.getIntProperty("octane.plugin.JUnitExtension.parallelism", USE_AVAILABLE_PROCESSORS);
+	}
+
 	/*
 	 * To be used in tests only.
 	 */
@@ -0,0 +1,208 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, length prefixed binary codec of JUnitTestResult records used to pass test results from agent to master
+ * - replaces java serialization, which is slow and keeps back references to all the written objects
+ * - repeated module/package/class names (and error types) are interned: first occurrence is written in full, later ones as an index
+ * - both writer and reader are streaming, memory is bounded by the (capped) size of the interning table
+ */
+public final class JUnitTestResultCodec {
+	private static final int MAGIC = 0x4A55524E;       // "JURN"
+	private static final int VERSION = 1;
+	private static final int MAX_INTERNED_STRINGS = 65536;
+
+	private static final int RECORD = 1;
+	private static final int END_OF_STREAM = 0;
+
+	private static final int NULL_STRING = -1;
+	private static final int LITERAL_STRING = -2;
+	private static final int NEW_INTERNED_STRING = -3;
+
+	private static final TestResultStatus[] STATUSES = TestResultStatus.values();
+
+	private JUnitTestResultCodec() {
+	}
+
+	/**
+	 * Streaming writer of test results, must be closed in order to mark the end of the stream
+	 */
+	public static final class Writer implements Closeable {
+		private final DataOutputStream out;
+		private final Map<String, Integer> interned = new HashMap<>();
+
+		public Writer(OutputStream outputStream) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+		}
+
+		public void write(JUnitTestResult testResult) throws IOException {
+			out.writeByte(RECORD);
+			writeInterned(testResult.getModuleName());
+			writeInterned(testResult.getPackageName());
+			writeInterned(testResult.getClassName());
+			writeString(testResult.getTestName());
+			out.writeByte(testResult.getResult().ordinal());
+			out.writeLong(testResult.getDuration());
+			out.writeLong(testResult.getStarted());
+			writeString(testResult.getExternalReportUrl());
+			TestError testError = testResult.getTestError();
+			out.writeBoolean(testError != null);
+			if (testError != null) {
+				writeInterned(testError.getErrorType());
+				writeString(testError.getErrorMsg());
+				writeString(testError.getStackTraceStr());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.writeByte(END_OF_STREAM);
+			out.close();
+		}
+
+		private void writeInterned(String value) throws IOException {
+			if (value == null) {
+				out.writeInt(NULL_STRING);
+				return;
+			}
+			Integer index = interned.get(value);
+			if (index != null) {
+				out.writeInt(index);
+			} else if (interned.size() < MAX_INTERNED_STRINGS) {
+				interned.put(value, interned.size());
+				out.writeInt(NEW_INTERNED_STRING);
+				writeBytes(value);
+			} else {
+				out.writeInt(LITERAL_STRING);
+				writeBytes(value);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				out.writeInt(NULL_STRING);
+			} else {
+				out.writeInt(LITERAL_STRING);
+				writeBytes(value);
+			}
+		}
+
+		private void writeBytes(String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Streaming reader of test results written by {@link Writer}
+	 */
+	public static final class Reader implements Closeable {
+		private final DataInputStream in;
+		private final List<String> interned = new ArrayList<>();
+
+		public Reader(InputStream inputStream) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(inputStream));
+			int magic = in.readInt();
+			int version = in.readInt();
+			if (magic != MAGIC || version != VERSION) {
+				throw new IOException("unsupported test results stream (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+			}
+		}
+
+		/**
+		 * @return next test result or NULL if the end of the stream reached
+		 */
+		public JUnitTestResult read() throws IOException {
+			int marker = in.readByte();
+			if (marker == END_OF_STREAM) {
+				return null;
+			} else if (marker != RECORD) {
+				throw new IOException("corrupted test results stream, unexpected record marker " + marker);
+			}
+
+			String moduleName = readInterned();
+			String packageName = readInterned();
+			String className = readInterned();
+			String testName = readString();
+			TestResultStatus status = STATUSES[in.readByte()];
+			long duration = in.readLong();
+			long started = in.readLong();
+			String externalReportUrl = readString();
+			TestError testError = null;
+			if (in.readBoolean()) {
+				String errorType = readInterned();
+				String errorMsg = readString();
+				String stackTrace = readString();
+				testError = new TestError(stackTrace, errorType, errorMsg);
+			}
+			return new JUnitTestResult(moduleName, packageName, className, testName, status, duration, started, testError, externalReportUrl);
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		private String readInterned() throws IOException {
+			int header = in.readInt();
+			if (header >= 0) {
+				return interned.get(header);
+			} else if (header == NEW_INTERNED_STRING) {
+				String value = readBytes();
+				interned.add(value);
+				return value;
+			} else {
+				return readValue(header);
+			}
+		}
+
+		private String readString() throws IOException {
+			return readValue(in.readInt());
+		}
+
+		private String readValue(int header) throws IOException {
+			if (header == NULL_STRING) {
+				return null;
+			} else if (header == LITERAL_STRING) {
+				return readBytes();
+			} else {
+				throw new IOException("corrupted test results stream, unexpected string header " + header);
+			}
+		}
+
+		private String readBytes() throws IOException {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Converts multiple reports in parallel and passes their results to a single handler in the order of the reports
+ * - every report is converted into a small bounded buffer which the handler drains one report after another,
+ * nothing is written to intermediate files and the memory is bounded by the buffer size times the parallelism
+ * - conversions are started in the order of the reports, so the report being drained is always being converted
+ */
+final class ParallelReportsConverter<R> {
+	static final int DEFAULT_BUFFER_SIZE = 1000;
+
+	private static final Object END = new Object();
+
+	private final ReportConverter<R> converter;
+	private final int parallelism;
+	private final int bufferSize;
+
+	ParallelReportsConverter(ReportConverter<R> converter, int parallelism) {
+		this(converter, parallelism, DEFAULT_BUFFER_SIZE);
+	}
+
+	ParallelReportsConverter(ReportConverter<R> converter, int parallelism, int bufferSize) {
+		this.converter = converter;
+		this.parallelism = parallelism;
+		this.bufferSize = bufferSize;
+	}
+
+	void convert(List<R> reports, ResultHandler handler) throws IOException, InterruptedException, XMLStreamException {
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, new NamingThreadFactory(new DaemonThreadFactory(), "JUnit reports conversion"));
+		List<Conversion> conversions = new ArrayList<>(reports.size());
+		try {
+			for (R report : reports) {
+				Conversion conversion = new Conversion(report);
+				conversions.add(conversion);
+				executor.execute(conversion);
+			}
+			for (Conversion conversion : conversions) {
+				JUnitTestResult testResult;
+				while ((testResult = conversion.take()) != null) {
+					handler.handle(testResult);
+				}
+			}
+		} finally {
+			//releases conversions still blocked on their full buffers when the handler failed
+			for (Conversion conversion : conversions) {
+				conversion.abort();
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	interface ResultHandler {
+		void handle(JUnitTestResult testResult) throws IOException, InterruptedException, XMLStreamException;
+	}
+
+	interface ReportConverter<R> {
+		void convert(R report, ResultHandler handler) throws IOException, InterruptedException, XMLStreamException;
+	}
+
+	private final class Conversion implements Runnable {
+		private final R report;
+		private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+		private volatile boolean aborted;
+		private volatile Throwable failure;
+
+		private Conversion(R report) {
+			this.report = report;
+		}
+
+		@Override
+		public void run() {
+			try {
+				converter.convert(report, testResult -> {
+					if (aborted) {
+						throw new InterruptedException("conversion of " + report + " aborted");
+					}
+					buffer.put(testResult);
+				});
+			} catch (Throwable t) {
+				failure = t;
+			}
+			try {
+				if (!aborted) {
+					buffer.put(END);
+				}
+			} catch (InterruptedException e) {
+				//aborted while waiting for the handler
+			}
+		}
+
+		private JUnitTestResult take() throws IOException, InterruptedException, XMLStreamException {
+			Object item = buffer.take();
+			if (item != END) {
+				return (JUnitTestResult) item;
+			}
+			Throwable t = failure;
+			if (t == null) {
+				return null;
+			} else if (t instanceof IOException) {
+				throw (IOException) t;
+			} else if (t instanceof InterruptedException) {
+				throw (InterruptedException) t;
+			} else if (t instanceof XMLStreamException) {
+				throw (XMLStreamException) t;
+			} else if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			} else if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new IOException(t);
+		}
+
+		private void abort() {
+			aborted = true;
+			buffer.clear();
+		}
+	}
+}
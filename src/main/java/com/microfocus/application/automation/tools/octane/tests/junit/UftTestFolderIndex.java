@@ -0,0 +1,57 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of UFT report folders (UFTReport/GUITest1[1], UFTReport/GUITest1[2], ...) by test name
+ * - test folders appear in the format GUITest1[1], while [1] is the number of the test instance,
+ * it is possible that tests with the same name are executed in the same job
+ * - each lookup consumes the first remaining folder of the test, so that the next instance finds the next folder
+ */
+public class UftTestFolderIndex implements Serializable {
+
+	private final Map<String, Deque<String>> foldersByTestName = new HashMap<>();
+
+	public UftTestFolderIndex(Collection<String> folderNames) {
+		for (String folderName : folderNames) {
+			int index = folderName.lastIndexOf('[');
+			if (index > 0) {
+				foldersByTestName.computeIfAbsent(folderName.substring(0, index), k -> new ArrayDeque<>()).add(folderName);
+			}
+		}
+	}
+
+	/**
+	 * @param testName clean test name (without path)
+	 * @return folder name of the next instance of the test or NULL if no (more) report folder exists for it
+	 */
+	public String poll(String testName) {
+		Deque<String> folders = foldersByTestName.get(testName);
+		return folders == null ? null : folders.poll();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.xml;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor (XMLStreamReader) based iterator of items read from an XML stream
+ * - no event object is allocated per XML token, elements are reported by their local name only
+ * - the input factory is configured once and shared, creating readers of a configured factory is thread safe
+ */
+public abstract class AbstractXmlCursorIterator<E> {
+
+    private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+    private InputStream is;
+    protected XMLStreamReader reader;
+    private ArrayDeque<E> queue;
+    private boolean closed;
+
+    public AbstractXmlCursorIterator(InputStream is) throws XMLStreamException {
+        this.is = is;
+        reader = xmlInputFactory.createXMLStreamReader(is);
+        queue = new ArrayDeque<>();
+    }
+
+    public boolean hasNext() throws XMLStreamException, IOException, InterruptedException {
+        while (queue.isEmpty() && !closed) {
+            if (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        onStartElement(reader.getLocalName());
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        onEndElement(reader.getLocalName());
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        onEndDocument();
+                        break;
+                    default:
+                        //  text, comments etc. are consumed by readNextValue() only
+                }
+            } else {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // close quietly
+                }
+                IOUtils.closeQuietly(is);
+                closed = true;
+            }
+        }
+        return !queue.isEmpty();
+    }
+
+    public E next() throws XMLStreamException, IOException, InterruptedException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        } else {
+            return queue.removeFirst();
+        }
+    }
+
+    protected abstract void onStartElement(String localName) throws XMLStreamException, IOException, InterruptedException;
+
+    protected void onEndElement(String localName) throws XMLStreamException, IOException, InterruptedException {
+    }
+
+    protected void onEndDocument() throws XMLStreamException, IOException, InterruptedException {
+    }
+
+    protected void addItem(E item) {
+        queue.add(item);
+    }
+
+    /**
+     * Reads text content of the current element, the cursor is left on its end element,
+     * so {@link #onEndElement} is not called for elements read by this method
+     * - text of nested elements (mixed content) is included, comments and processing instructions are skipped
+     */
+    protected String readNextValue() throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    value.append(reader.getText());
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("unexpected end of document", reader.getLocation());
+                default:
+                    //  comments, processing instructions
+            }
+        }
+        return value.toString();
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlFactory;
+    }
+}
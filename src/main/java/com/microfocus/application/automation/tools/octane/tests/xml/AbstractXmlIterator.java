@@ -1,99 +0,0 @@
-/*
- * Certain versions of software and/or documents ("Material") accessible here may contain branding from
- * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
- * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
- * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
- * marks are the property of their respective owners.
- * __________________________________________________________________
- * MIT License
- *
- * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
- *
- * The only warranties for products and services of Micro Focus and its affiliates
- * and licensors ("Micro Focus") are set forth in the express warranty statements
- * accompanying such products and services. Nothing herein should be construed as
- * constituting an additional warranty. Micro Focus shall not be liable for technical
- * or editorial errors or omissions contained herein.
- * The information contained herein is subject to change without notice.
- * ___________________________________________________________________
- */
-
-package com.microfocus.application.automation.tools.octane.tests.xml;
-
-import org.apache.commons.io.IOUtils;
-
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.XMLEvent;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.LinkedList;
-import java.util.NoSuchElementException;
-
-public abstract class AbstractXmlIterator<E> {
-
-    private InputStream is;
-    protected XMLEventReader reader;
-    private LinkedList<E> queue;
-    private boolean closed;
-
-    public AbstractXmlIterator(InputStream is) throws XMLStreamException {
-        this.is = is;
-        reader = createXmlInputFactory().createXMLEventReader(is);
-        queue = new LinkedList<E>();
-    }
-
-    public XMLEvent peek() throws XMLStreamException {
-        return reader.peek();
-    }
-
-    public boolean hasNext() throws XMLStreamException, IOException, InterruptedException {
-        while (queue.isEmpty() && !closed) {
-            if (reader.hasNext()) {
-                onEvent(reader.nextEvent());
-            } else {
-                try {
-                    reader.close();
-                } catch (XMLStreamException e) {
-                    // close quietly
-                }
-                IOUtils.closeQuietly(is);
-                closed = true;
-            }
-        }
-        return !queue.isEmpty();
-    }
-
-    public E next() throws XMLStreamException, IOException, InterruptedException {
-        if (!hasNext()) {
-            throw new NoSuchElementException();
-        } else {
-            return queue.removeFirst();
-        }
-    }
-
-    protected abstract void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException;
-
-    protected void addItem(E item) {
-        queue.add(item);
-    }
-
-    protected String readNextValue() throws XMLStreamException {
-        XMLEvent nextEvent = reader.nextEvent();
-        if(nextEvent instanceof EndElement){
-            return "";
-        } else {
-            return ((Characters)nextEvent).getData();
-        }
-    }
-
-    private static XMLInputFactory createXmlInputFactory() {
-        XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
-        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-        return xmlFactory;
-    }
-}
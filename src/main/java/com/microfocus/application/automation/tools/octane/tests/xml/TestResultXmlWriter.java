@@ -59,6 +59,15 @@ public class TestResultXmlWriter {
 		this.buildDescriptor = BuildHandlerUtils.getBuildType(build);
 	}
 
+	/**
+	 * Writer over already opened stream (e.g. compressed remote stream written on the agent)
+	 * - the stream is owned by the writer and closed by {@link #close()}
+	 */
+	public TestResultXmlWriter(OutputStream outputStream, BuildDescriptor buildDescriptor) {
+		this.outputStream = outputStream;
+		this.buildDescriptor = buildDescriptor;
+	}
+
 	public void writeResults(TestResultContainer testResultContainer) throws InterruptedException, XMLStreamException, IOException {
 		if (testResultContainer != null) {
 			ResultFields resultFields = testResultContainer.getResultFields();
@@ -72,19 +81,30 @@ public class TestResultXmlWriter {
 		}
 	}
 
+	public void writeResult(TestResult testResult, ResultFields resultFields) throws XMLStreamException, IOException, InterruptedException {
+		initialize(resultFields);
+		testResult.writeXmlElement(writer);
+	}
+
 	public void close() throws XMLStreamException {
-		if (outputStream != null) {
+		if (writer != null) {
 			writer.writeEndElement(); // test_runs
 			writer.writeEndElement(); // test_result
 			writer.writeEndDocument();
 			writer.close();
-			IOUtils.closeQuietly(outputStream);
 		}
+		IOUtils.closeQuietly(outputStream);
+	}
+
+	public boolean hasResults() {
+		return writer != null;
 	}
 
 	private void initialize(ResultFields resultFields) throws IOException, InterruptedException, XMLStreamException {
-		if (outputStream == null) {
-			outputStream = targetPath.write();
+		if (writer == null) {
+			if (outputStream == null) {
+				outputStream = targetPath.write();
+			}
 			writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream);
 			writer.writeStartDocument();
 
@@ -33,11 +33,13 @@ import hudson.FilePath;
 
 import java.beans.IntrospectionException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 import hudson.console.HyperlinkNote;
 import org.apache.commons.io.IOUtils;
@@ -54,6 +56,16 @@ public class PcClient {
     private PrintStream logger;
     private DateFormatter dateFormatter = new DateFormatter("");
 
+    private static final long RETRY_INTERVAL = 2000;
+    private static final long TRANSIENT_STATE_INTERVAL = 5000;
+    private static final long STATE_CHANGE_TIMEOUT = 60 * 1000;
+    private static final long MAX_TRANSIENT_POLL_INTERVAL = 15 * 1000;
+    private static final long MAX_POLL_INTERVAL = 60 * 1000;
+    private static final double POLL_BACKOFF_FACTOR = 1.5;
+    private static final long PUBLISH_POLL_INTERVAL = 5000;
+    private static final long MAX_PUBLISH_POLL_INTERVAL = 30 * 1000;
+    private static final long PUBLISH_TIMEOUT = 10 * 60 * 1000;
+
     public PcClient(PcModel pcModel, PrintStream logger) {
         try {
             model = pcModel;
@@ -70,7 +82,7 @@ public class PcClient {
                         logger.println(String.format("%s - %s %s.", dateFormatter.getDate(), Messages.UsingProxyCredentialsConfiguration(), proxyOutUser));
                 }
             }
-            restProxy = new PcRestProxy(model.isHTTPSProtocol(),model.getPcServerName(true), model.getAlmDomain(true), model.getAlmProject(true), model.getProxyOutURL(true),proxyOutUser,proxyOutPassword);
+            restProxy = new StreamingPcRestProxy(model.isHTTPSProtocol(),model.getPcServerName(true), model.getAlmDomain(true), model.getAlmProject(true), model.getProxyOutURL(true),proxyOutUser,proxyOutPassword);
             this.logger = logger;
         }catch (PcException e){
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
@@ -367,67 +379,156 @@ public class PcClient {
 
     private PcRunResponse waitForRunState(int runId, RunState completionState, int interval) throws InterruptedException,
             ClientProtocolException, PcException, IOException {
+        return awaitPolling(new RunStatePollingTask(runId, completionState, interval));
+    }
 
-        int counter = 0;
-        RunState[] states = {RunState.BEFORE_COLLATING_RESULTS,RunState.BEFORE_CREATING_ANALYSIS_DATA};
-        PcRunResponse response = null;
-        RunState lastState = RunState.UNDEFINED;
-        int threeStrikes = 3;
-        do {
-            try {
+    private <T> T awaitPolling(PcRunStatePoller.Task<T> task) throws InterruptedException, PcException, IOException {
+        return awaitPolling(task, 0);
+    }
+
+    private <T> T awaitPolling(PcRunStatePoller.Task<T> task, long initialDelay) throws InterruptedException, PcException, IOException {
+        try {
+            return PcRunStatePoller.get().await(task, initialDelay);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PcException)
+                throw (PcException) cause;
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private long nextPollDelay(long previousDelay, long baseInterval, long maxInterval) {
+        return Math.max(baseInterval, Math.min((long) (previousDelay * POLL_BACKOFF_FACTOR), maxInterval));
+    }
+
+    /**
+     * Watches a run until it reaches the completion state:
+     * - polls at the base interval right after a state change and backs off while the state stays the same
+     * - while running, never sleeps past the expected end of the timeslot
+     * - gives up if the run stays one minute before collate/analyze (stopped from PC or timeslot ended)
+     */
+    private class RunStatePollingTask implements PcRunStatePoller.Task<PcRunResponse> {
+
+        private final int runId;
+        private final RunState completionState;
+        private final long interval;
+        private final long expectedEnd;
+        private final Map<RunState, Long> timeInState = new EnumMap<>(RunState.class);
+        private PcRunResponse response;
+        private RunState lastState = RunState.UNDEFINED;
+        private long lastStateChange = System.currentTimeMillis();
+        private long waitingSince = -1;
+        private long delay;
+        private int threeStrikes = 3;
+
+        RunStatePollingTask(int runId, RunState completionState, int interval) {
+            this.runId = runId;
+            this.completionState = completionState;
+            this.interval = interval;
+            this.delay = interval;
+            TimeslotDuration timeslot = model.getTimeslotDuration();
+            this.expectedEnd = timeslot == null ? -1 : lastStateChange + timeslot.toMinutes() * 60L * 1000;
+        }
 
-                if (threeStrikes < 3) {
-                    logger.println(String.format("%s - Cannot get response from PC about the state of the Run (ID=%s) %s time(s) consecutively",
+        @Override
+        public long poll() throws Exception {
+            if (threeStrikes < 3) {
+                logger.println(String.format("%s - Cannot get response from PC about the state of the Run (ID=%s) %s time(s) consecutively",
+                        dateFormatter.getDate(),
+                        runId,
+                        (3 - threeStrikes)));
+                if (threeStrikes == 0) {
+                    logger.println(String.format("%s - %s: %s",
                             dateFormatter.getDate(),
-                            runId,
-                            (3 - threeStrikes)));
-                    if(threeStrikes==0) {
-                        logger.println(String.format("%s - %s: %s",
-                                dateFormatter.getDate(),
-                                Messages.StoppingMonitoringOnRun(),
-                                runId));
-                        break;
-                    }
-                    Thread.sleep(2000);
-                    login();
+                            Messages.StoppingMonitoringOnRun(),
+                            runId));
+                    return -1;
                 }
+                login();
+            }
+            try {
                 response = restProxy.getRunData(runId);
-                RunState currentState = RunState.get(response.getRunState());
-                if (lastState.ordinal() < currentState.ordinal()) {
-                    lastState = currentState;
-                    logger.println(String.format("%s - RunID: %s - State = %s",
+            } catch (PcException e) {
+                threeStrikes--;
+                return RETRY_INTERVAL;
+            }
+            threeStrikes = 3;
+
+            long now = System.currentTimeMillis();
+            RunState currentState = RunState.get(response.getRunState());
+            boolean changed = lastState.ordinal() < currentState.ordinal();
+            if (changed) {
+                timeInState.put(lastState, now - lastStateChange);
+                logger.println(String.format("%s - RunID: %s - State = %s",
+                        dateFormatter.getDate(),
+                        runId,
+                        currentState.value()));
+                lastState = currentState;
+                lastStateChange = now;
+            }
+            if (lastState.ordinal() >= completionState.ordinal()) {
+                timeInState.put(lastState, now - lastStateChange);
+                logTimings();
+                return -1;
+            }
+
+            // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
+            // because the user probably stopped the run from PC or timeslot has reached the end.
+            if (currentState == RunState.BEFORE_COLLATING_RESULTS || currentState == RunState.BEFORE_CREATING_ANALYSIS_DATA) {
+                if (waitingSince < 0) {
+                    waitingSince = now;
+                } else if (now - waitingSince > STATE_CHANGE_TIMEOUT) {
+                    logger.println(String.format("%s - Run ID: %s  - %s = %s",
                             dateFormatter.getDate(),
                             runId,
+                            Messages.StoppedFromPC(),
                             currentState.value()));
+                    return -1;
                 }
+                return Math.min(interval, TRANSIENT_STATE_INTERVAL);
+            }
+            waitingSince = -1;
 
-                // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
-                // because the user probably stopped the run from PC or timeslot has reached the end.
-                if (Arrays.asList(states).contains(currentState)) {
-                    counter++;
-                    Thread.sleep(1000);
-                    if (counter > 60) {
-                        logger.println(String.format("%s - Run ID: %s  - %s = %s",
-                                dateFormatter.getDate(),
-                                runId,
-                                Messages.StoppedFromPC(),
-                                currentState.value()));
-                        break;
-                    }
-                } else {
-                    counter = 0;
-                    Thread.sleep(interval);
-                }
-                threeStrikes = 3;
+            long maxInterval = MAX_TRANSIENT_POLL_INTERVAL;
+            if (currentState == RunState.RUNNING) {
+                maxInterval = MAX_POLL_INTERVAL;
+                if (expectedEnd > 0)
+                    maxInterval = Math.min(maxInterval, (expectedEnd - now) / 4);
             }
-            catch(InterruptedException|PcException e)
-            {
-                threeStrikes--;
+            delay = changed ? interval : nextPollDelay(delay, interval, maxInterval);
+            return delay;
+        }
+
+        private void logTimings() {
+            StringBuilder timings = new StringBuilder();
+            for (Map.Entry<RunState, Long> entry : timeInState.entrySet()) {
+                if (entry.getKey() == RunState.UNDEFINED)
+                    continue;
+                if (timings.length() > 0)
+                    timings.append(", ");
+                timings.append(entry.getKey().value()).append('=').append(entry.getValue() / 1000).append('s');
             }
-        } while (lastState.ordinal() < completionState.ordinal());
-        return response;
+            logger.println(String.format("%s - RunID: %s - Time in states: %s",
+                    dateFormatter.getDate(),
+                    runId,
+                    timings));
+        }
+
+        @Override
+        public PcRunResponse getResult() {
+            return response;
+        }
     }
 
+    /**
+     * Streams the analysis report archive into the report directory.
+     */
     public FilePath publishRunReport(int runId, String reportDirectory) throws IOException, PcException, InterruptedException {
         PcRunResults runResultsList = restProxy.getRunResults(runId);
         if (runResultsList.getResultsList() != null){
@@ -435,13 +536,32 @@ public class PcClient {
                 if (result.getName().equals(PcBuilder.pcReportArchiveName)) {
                     File dir = new File(reportDirectory);
                     dir.mkdirs();
-                    String reportArchiveFullPath = dir.getCanonicalPath() + IOUtils.DIR_SEPARATOR + PcBuilder.pcReportArchiveName;
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.PublishingAnalysisReport()));
-                    restProxy.GetRunResultData(runId, result.getID(), reportArchiveFullPath);
-                    FilePath fp = new FilePath(new File(reportArchiveFullPath));
-                    fp.unzip(fp.getParent());
-                    fp.delete();
-                    FilePath reportFile = fp.sibling(PcBuilder.pcReportFileName);
+                    PcReportExtractor extractor = new PcReportExtractor(logger);
+                    int resultId = result.getID();
+                    if (restProxy instanceof StreamingPcRestProxy) {
+                        StreamingPcRestProxy streamingProxy = (StreamingPcRestProxy) restProxy;
+                        extractor.extract(offset -> streamingProxy.openRunResultData(runId, resultId, offset), dir);
+                    } else {
+                        // proxies unable to stream still go through a temporary archive
+                        File archive = new File(dir.getCanonicalPath() + IOUtils.DIR_SEPARATOR + PcBuilder.pcReportArchiveName);
+                        restProxy.GetRunResultData(runId, resultId, archive.getPath());
+                        try {
+                            extractor.extract(offset -> {
+                                InputStream in = new FileInputStream(archive);
+                                try {
+                                    IOUtils.skipFully(in, offset);
+                                } catch (IOException e) {
+                                    in.close();
+                                    throw e;
+                                }
+                                return in;
+                            }, dir);
+                        } finally {
+                            archive.delete();
+                        }
+                    }
+                    FilePath reportFile = new FilePath(new File(dir, PcBuilder.pcReportFileName));
                     if (reportFile.exists())
                         return reportFile;
                 }
@@ -501,6 +621,25 @@ public class PcClient {
         return null;
     }
 
+    /**
+     * Adds the run to the trend report once the given delay in milliseconds has elapsed,
+     * the wait being scheduled on the poller instead of holding the build thread.
+     */
+    public void addRunToTrendReport(final int runId, final String trendReportId, long delay) throws PcException, IOException, InterruptedException {
+        awaitPolling(new PcRunStatePoller.Task<Void>() {
+            @Override
+            public long poll() {
+                addRunToTrendReport(runId, trendReportId);
+                return -1;
+            }
+
+            @Override
+            public Void getResult() {
+                return null;
+            }
+        }, delay);
+    }
+
     public void addRunToTrendReport(int runId, String trendReportId)
     {
 
@@ -531,58 +670,81 @@ public class PcClient {
     }
 
     public void waitForRunToPublishOnTrendReport(int runId, String trendReportId) throws PcException,IOException,InterruptedException{
+        awaitPolling(new TrendPublishPollingTask(runId, trendReportId));
+    }
 
-        ArrayList<PcTrendedRun> trendReportMetaDataResultsList;
-        boolean publishEnded = false;
-        int counterPublishStarted = 0;
-        int counterPublishNotStarted = 0;
-        boolean resultNotFound = true;
-
-        do {
-            trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+    /**
+     * Waits for the run to be trended: ten minutes for publishing to start and ten more for it to end,
+     * polling less often while nothing changes.
+     */
+    private class TrendPublishPollingTask implements PcRunStatePoller.Task<Void> {
+
+        private final int runId;
+        private final String trendReportId;
+        private final long notStartedSince = System.currentTimeMillis();
+        private long startedSince = -1;
+        private long lastWarning = notStartedSince;
+        private String lastState;
+        private long delay = PUBLISH_POLL_INTERVAL;
+
+        TrendPublishPollingTask(int runId, String trendReportId) {
+            this.runId = runId;
+            this.trendReportId = trendReportId;
+        }
 
-            if (trendReportMetaDataResultsList.isEmpty())  break;
+        @Override
+        public long poll() throws Exception {
+            ArrayList<PcTrendedRun> trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+            if (trendReportMetaDataResultsList.isEmpty())
+                return -1;
 
+            long now = System.currentTimeMillis();
             for (PcTrendedRun result : trendReportMetaDataResultsList) {
-                resultNotFound = result.getRunID() != runId;
-                if (resultNotFound) continue;
+                if (result.getRunID() != runId)
+                    continue;
 
-                if (result.getState().equals(PcBuilder.TRENDED) || result.getState().equals(PcBuilder.ERROR)){
-                    publishEnded = true;
+                if (result.getState().equals(PcBuilder.TRENDED) || result.getState().equals(PcBuilder.ERROR)) {
                     logger.println(String.format("%s - Run: %s %s: %s",
                             dateFormatter.getDate(),
                             runId,
                             Messages.PublishingStatus(),
                             result.getState()));
-                    break;
-                } else {
-                    Thread.sleep(5000);
-                    counterPublishStarted++;
-                    if(counterPublishStarted >= 120){
-                        String msg = String.format("%s: %s",
-                                Messages.Error(),
-                                Messages.PublishingEndTimeout());
-                        throw new PcException(msg);
-                    }
+                    return -1;
+                }
+                if (startedSince < 0)
+                    startedSince = now;
+                if (now - startedSince >= PUBLISH_TIMEOUT) {
+                    String msg = String.format("%s: %s",
+                            Messages.Error(),
+                            Messages.PublishingEndTimeout());
+                    throw new PcException(msg);
                 }
-             }
-             if (!publishEnded && resultNotFound) {
-                Thread.sleep(5000);
-                 counterPublishNotStarted++;
-                 if(counterPublishNotStarted >= 120){ //waiting 10 minutes for timeout
-                     String msg = String.format("%s",
-                             Messages.PublishingStartTimeout());
-                     throw new PcException(msg);
-                 } else if (counterPublishNotStarted % 12 == 0){ //warning every minute until timeout
-                     logger.println(String.format("%s - %s. %s: %s ... ",
-                             dateFormatter.getDate(),
-                             Messages.WaitingForTrendReportToStart(),
-                             Messages.MinutesUntilTimeout(),
-                             10 - (counterPublishNotStarted / 12)
-                     ));
-                 }
+                delay = result.getState().equals(lastState) ? nextPollDelay(delay, PUBLISH_POLL_INTERVAL, MAX_PUBLISH_POLL_INTERVAL) : PUBLISH_POLL_INTERVAL;
+                lastState = result.getState();
+                return delay;
+            }
+
+            long waiting = now - notStartedSince;
+            if (waiting >= PUBLISH_TIMEOUT) { //waiting 10 minutes for timeout
+                String msg = String.format("%s",
+                        Messages.PublishingStartTimeout());
+                throw new PcException(msg);
+            } else if (now - lastWarning >= 60 * 1000) { //warning every minute until timeout
+                lastWarning = now;
+                logger.println(String.format("%s - %s. %s: %s ... ",
+                        dateFormatter.getDate(),
+                        Messages.WaitingForTrendReportToStart(),
+                        Messages.MinutesUntilTimeout(),
+                        (PUBLISH_TIMEOUT - waiting) / (60 * 1000)
+                ));
             }
-        } while (!publishEnded && counterPublishStarted < 120 && counterPublishNotStarted < 120);
+            return PUBLISH_POLL_INTERVAL;
+        }
+
+        @Override
+        public Void getResult() {
+            return null;
+        }
     }
 
     public boolean downloadTrendReportAsPdf(String trendReportId, String directory) throws PcException {
@@ -632,58 +794,121 @@ public class PcClient {
     }
 
 
-    // This method will return a map with the following structure: <transaction_name:selected_measurement_value>
-    // for example:
-    // <Action_Transaction:0.001>
-    // <Virtual transaction 2:0.51>
-    // This function uses reflection since we know only at runtime which transactions data will be reposed from the rest request.
-    public Map<String, String>  getTrendReportByXML(String trendReportId, int runId, TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType,TrendReportTypes.Measurement measurement) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
-
-        Map<String, String> measurmentsMap = new LinkedHashMap<String, String>();
-        measurmentsMap.put("RunId","_" + runId + "_");
-        measurmentsMap.put("Trend Measurement Type",measurement.toString() + "_" + pctType.toString());
-
+    // This method will return, for every requested series, a map with the same structure as getTrendReportByXML.
+    // The trend report is downloaded once and all the series are projected from it in a single pass over its rows.
+    // The row classes are known only at runtime, so their getters are looked up once per class and then reused.
+    public Map<TriTrendReportTypes, Map<String, String>> getTrendReportSeriesByXML(String trendReportId, int runId, List<TriTrendReportTypes> seriesList) throws IOException, PcException {
 
+        Map<TriTrendReportTypes, Map<String, String>> seriesMeasurements = new LinkedHashMap<TriTrendReportTypes, Map<String, String>>();
+        Map<TrendReportTypes.DataType, Map<String, List<TriTrendReportTypes>>> seriesByDataType = new LinkedHashMap<TrendReportTypes.DataType, Map<String, List<TriTrendReportTypes>>>();
+        for (TriTrendReportTypes series : seriesList) {
+            Map<String, String> measurmentsMap = new LinkedHashMap<String, String>();
+            measurmentsMap.put("RunId", "_" + runId + "_");
+            measurmentsMap.put("Trend Measurement Type", series.getMeasurement().toString() + "_" + series.getPctType().toString());
+            seriesMeasurements.put(series, measurmentsMap);
 
-            TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
-
-//            java.lang.reflect.Method rootMethod =  res.getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowsList");
-//            ArrayList<Object> RowsListObj = (ArrayList<Object>) rootMethod.invoke(res);
-//            RowsListObj.get(0);
+            Map<String, List<TriTrendReportTypes>> seriesByPctType = seriesByDataType.get(series.getDataType());
+            if (seriesByPctType == null) {
+                seriesByPctType = new HashMap<String, List<TriTrendReportTypes>>();
+                seriesByDataType.put(series.getDataType(), seriesByPctType);
+            }
+            List<TriTrendReportTypes> pctTypeSeries = seriesByPctType.get(series.getPctType().toString());
+            if (pctTypeSeries == null) {
+                pctTypeSeries = new ArrayList<TriTrendReportTypes>();
+                seriesByPctType.put(series.getPctType().toString(), pctTypeSeries);
+            }
+            pctTypeSeries.add(series);
+        }
 
-            List<Object> RowsListObj = res.getTrendReportRoot();
+        TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
+        TrendReportAccessors accessors = new TrendReportAccessors();
 
-            for (int i=0; i< RowsListObj.size();i++){
+        for (Object rowsObj : res.getTrendReportRoot()) {
+            Set<TriTrendReportTypes> failedSeries = new HashSet<TriTrendReportTypes>();
+            for (Map.Entry<TrendReportTypes.DataType, Map<String, List<TriTrendReportTypes>>> dataTypeSeries : seriesByDataType.entrySet()) {
                 try {
-
-                    java.lang.reflect.Method rowListMethod = RowsListObj.get(i).getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowList");
-
-                for ( Object DataRowObj : (ArrayList<Object>)rowListMethod.invoke(RowsListObj.get(i)))
-                {
-                    if (DataRowObj.getClass().getMethod("getPCT_TYPE").invoke(DataRowObj).equals(pctType.toString()))
-                    {
-                        java.lang.reflect.Method method;
-                        method = DataRowObj.getClass().getMethod("get" + measurement.toString());
-                        measurmentsMap.put(DataRowObj.getClass().getMethod("getPCT_NAME").invoke(DataRowObj).toString(),method.invoke(DataRowObj)==null?"":method.invoke(DataRowObj).toString());
+                    java.lang.reflect.Method rowListMethod = accessors.get(rowsObj.getClass(), "getTrendReport" + dataTypeSeries.getKey().toString() + "DataRowList");
+                    if (rowListMethod == null) {
+                        continue;
                     }
-                }
-                }catch (NoSuchMethodException e){
-                  //  logger.println("No such method exception: " + e);
-                }
-                catch (Exception e){
+                    Class<?> rowClass = null;
+                    java.lang.reflect.Method pctTypeMethod = null;
+                    java.lang.reflect.Method pctNameMethod = null;
+                    for (Object dataRowObj : (List<Object>) rowListMethod.invoke(rowsObj)) {
+                        if (rowClass != dataRowObj.getClass()) {
+                            rowClass = dataRowObj.getClass();
+                            pctTypeMethod = accessors.get(dataRowObj.getClass(), "getPCT_TYPE");
+                            pctNameMethod = accessors.get(dataRowObj.getClass(), "getPCT_NAME");
+                            if (pctTypeMethod == null || pctNameMethod == null) {
+                                break;
+                            }
+                        }
+                        List<TriTrendReportTypes> rowSeries = dataTypeSeries.getValue().get(String.valueOf(pctTypeMethod.invoke(dataRowObj)));
+                        if (rowSeries == null) {
+                            continue;
+                        }
+                        String pctName = pctNameMethod.invoke(dataRowObj).toString();
+                        for (TriTrendReportTypes series : rowSeries) {
+                            if (failedSeries.contains(series)) {
+                                continue;
+                            }
+                            java.lang.reflect.Method method = accessors.get(dataRowObj.getClass(), "get" + series.getMeasurement().toString());
+                            if (method == null) {
+                                continue;
+                            }
+                            try {
+                                Object value = method.invoke(dataRowObj);
+                                seriesMeasurements.get(series).put(pctName, value == null ? "" : value.toString());
+                            } catch (Exception e) {
+                                failedSeries.add(series);
+                                logger.println(String.format("%s - Error on getTrendReportByXML: %s ", dateFormatter.getDate(), e));
+                            }
+                        }
+                    }
+                } catch (Exception e) {
                     logger.println(String.format("%s - Error on getTrendReportByXML: %s ", dateFormatter.getDate(), e));
                 }
             }
+        }
 
+        return seriesMeasurements;
+    }
 
+    /**
+     * Getters of the trend report row classes, looked up once per class and name (null when missing).
+     */
+    private static class TrendReportAccessors {
+        private final Map<Class<?>, Map<String, java.lang.reflect.Method>> methods = new HashMap<Class<?>, Map<String, java.lang.reflect.Method>>();
+
+        private java.lang.reflect.Method get(Class<?> type, String name) {
+            Map<String, java.lang.reflect.Method> typeMethods = methods.get(type);
+            if (typeMethods == null) {
+                typeMethods = new HashMap<String, java.lang.reflect.Method>();
+                methods.put(type, typeMethods);
+            }
+            if (!typeMethods.containsKey(name)) {
+                java.lang.reflect.Method method;
+                try {
+                    method = type.getMethod(name);
+                } catch (NoSuchMethodException e) {
+                    method = null;
+                }
+                typeMethods.put(name, method);
+            }
+            return typeMethods.get(name);
+        }
+    }
 
+    // This method will return a map with the following structure: <transaction_name:selected_measurement_value>
+    // for example:
+    // <Action_Transaction:0.001>
+    // <Virtual transaction 2:0.51>
+    // This function uses reflection since we know only at runtime which transactions data will be reposed from the rest request.
+    // Prefer getTrendReportSeriesByXML when several measurements are needed, it downloads the report only once.
+    public Map<String, String>  getTrendReportByXML(String trendReportId, int runId, TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType,TrendReportTypes.Measurement measurement) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
 
-          //  logger.print(res);
-
-
-        return measurmentsMap;
-
-
+        TriTrendReportTypes series = new TriTrendReportTypes(dataType, pctType, measurement);
+        return getTrendReportSeriesByXML(trendReportId, runId, Collections.singletonList(series)).get(series);
     }
 
 }
@@ -0,0 +1,179 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Extracts a PC report archive while it is being downloaded.
+ * - entries are written straight to the report directory, the archive itself never touches the disk
+ * - a broken download is resumed from the last byte received, up to three times in a row
+ */
+public class PcReportExtractor {
+
+    private static final int MAX_RESUMES = 3;
+    private static final long PROGRESS_STEP = 10L * 1024 * 1024;
+
+    /**
+     * Opens the archive starting at the given offset.
+     */
+    public interface ArchiveSource {
+        InputStream open(long offset) throws IOException, PcException;
+    }
+
+    private final PrintStream logger;
+    private final DateFormatter dateFormatter = new DateFormatter("");
+
+    public PcReportExtractor(PrintStream logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @return the number of extracted files
+     */
+    public int extract(ArchiveSource source, File targetDirectory) throws IOException, PcException {
+        String targetPath = targetDirectory.getCanonicalPath() + File.separator;
+        int files = 0;
+        try (ResumingInputStream in = new ResumingInputStream(source);
+             ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                File target = new File(targetDirectory, entry.getName());
+                if (!target.getCanonicalPath().startsWith(targetPath))
+                    throw new IOException("Report archive entry is outside of the target directory: " + entry.getName());
+                if (entry.isDirectory()) {
+                    target.mkdirs();
+                    continue;
+                }
+                target.getParentFile().mkdirs();
+                try (OutputStream out = new FileOutputStream(target)) {
+                    IOUtils.copyLarge(zip, out);
+                }
+                if (entry.getTime() > 0)
+                    target.setLastModified(entry.getTime());
+                files++;
+            }
+            logger.println(String.format("%s - Extracted %s file(s) from %s MB of report archive",
+                    dateFormatter.getDate(),
+                    files,
+                    in.position / (1024 * 1024)));
+        } catch (ResumeFailedException e) {
+            throw e.getPcException();
+        }
+        return files;
+    }
+
+    /**
+     * Reopens the source at the current position whenever reading from it fails.
+     */
+    private class ResumingInputStream extends InputStream {
+
+        private final ArchiveSource source;
+        private InputStream current;
+        private long position;
+        private long nextProgress = PROGRESS_STEP;
+        private int resumes;
+
+        ResumingInputStream(ArchiveSource source) throws IOException, PcException {
+            this.source = source;
+            this.current = source.open(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                try {
+                    int read = current.read(b, off, len);
+                    if (read > 0) {
+                        advance(read);
+                    }
+                    return read;
+                } catch (IOException e) {
+                    resume(e);
+                }
+            }
+        }
+
+        private void advance(int read) {
+            position += read;
+            resumes = 0;
+            if (position >= nextProgress) {
+                nextProgress += PROGRESS_STEP;
+                logger.println(String.format("%s - Downloaded %s MB of report archive",
+                        dateFormatter.getDate(),
+                        position / (1024 * 1024)));
+            }
+        }
+
+        private void resume(IOException cause) throws IOException {
+            IOUtils.closeQuietly(current);
+            while (true) {
+                if (++resumes > MAX_RESUMES)
+                    throw cause;
+                logger.println(String.format("%s - Report download interrupted after %s bytes (%s), resuming",
+                        dateFormatter.getDate(),
+                        position,
+                        cause.getMessage()));
+                try {
+                    current = source.open(position);
+                    return;
+                } catch (IOException e) {
+                    cause = e;
+                } catch (PcException e) {
+                    throw new ResumeFailedException(e);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            current.close();
+        }
+    }
+
+    private static class ResumeFailedException extends IOException {
+        ResumeFailedException(PcException cause) {
+            super(cause);
+        }
+
+        PcException getPcException() {
+            return (PcException) getCause();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared scheduler polling the PC server on behalf of every in-flight run.
+ * - all waiting builds are multiplexed over a small daemon pool instead of each sleeping on its own executor
+ * - every {@link Task} decides by itself how long to wait before its next poll
+ * - polls make blocking REST calls (run data, login) and a hung call holds its thread until the server answers,
+ *   so the pool keeps {@link #DEFAULT_POOL_SIZE} threads for the other runs; idle threads are released
+ * - pool size can be tuned with the {@code com.microfocus.application.automation.tools.pc.PcRunStatePoller.poolSize} system property
+ */
+public final class PcRunStatePoller {
+
+    static final int DEFAULT_POOL_SIZE = 8;
+    private static final int POOL_SIZE = SystemPropertyUtils.getIntProperty(PcRunStatePoller.class.getName() + ".poolSize", DEFAULT_POOL_SIZE);
+    private static final PcRunStatePoller INSTANCE = new PcRunStatePoller(POOL_SIZE);
+
+    private final ScheduledExecutorService scheduler;
+
+    PcRunStatePoller(int poolSize) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize,
+                new NamingThreadFactory(new DaemonThreadFactory(), "PcRunStatePoller"));
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        scheduler = executor;
+    }
+
+    public static PcRunStatePoller get() {
+        return INSTANCE;
+    }
+
+    /**
+     * One polling job, invoked on the poller threads until it reports completion.
+     */
+    public interface Task<T> {
+
+        /**
+         * @return delay in milliseconds before the next poll, or a negative value once the task is done
+         */
+        long poll() throws Exception;
+
+        T getResult();
+    }
+
+    /**
+     * Runs the task on the shared scheduler and waits for its result; the task is cancelled if the caller is interrupted.
+     */
+    public <T> T await(Task<T> task) throws InterruptedException, ExecutionException {
+        return await(task, 0);
+    }
+
+    /**
+     * Same as {@link #await(Task)}, the first poll being issued after the given delay in milliseconds.
+     */
+    public <T> T await(Task<T> task, long initialDelay) throws InterruptedException, ExecutionException {
+        Future<T> future = submit(task, initialDelay);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        }
+    }
+
+    public <T> Future<T> submit(Task<T> task) {
+        return submit(task, 0);
+    }
+
+    public <T> Future<T> submit(final Task<T> task, long initialDelay) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        scheduler.schedule(() -> step(task, future), initialDelay, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private <T> void step(final Task<T> task, final CompletableFuture<T> future) {
+        if (future.isDone()) {
+            // cancelled by the waiting build
+            return;
+        }
+        long delay;
+        T result = null;
+        try {
+            delay = task.poll();
+            if (delay < 0) {
+                result = task.getResult();
+            }
+        } catch (Throwable e) {
+            // errors included, the waiting build must not wait forever
+            future.completeExceptionally(e);
+            return;
+        }
+        if (delay < 0) {
+            future.complete(result);
+        } else {
+            scheduler.schedule(() -> step(task, future), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
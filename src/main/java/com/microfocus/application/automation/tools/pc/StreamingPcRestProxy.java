@@ -0,0 +1,73 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * PC rest proxy able to hand out run result data as a stream instead of saving it to a file first.
+ * - requests are sent through the authenticated session of the proxy
+ * - an offset asks the server for the rest of the data only (HTTP range), servers ignoring it are handled by skipping
+ */
+public class StreamingPcRestProxy extends PcRestProxy {
+
+    public StreamingPcRestProxy(String webProtocolName, String pcServerName, String almDomain, String almProject,
+                                String proxyOutURL, String proxyUser, String proxyPassword) throws PcException {
+        super(webProtocolName, pcServerName, almDomain, almProject, proxyOutURL, proxyUser, proxyPassword);
+    }
+
+    /**
+     * @return the result data starting at the given offset, the caller is responsible for closing it
+     */
+    public InputStream openRunResultData(int runId, int resultId, long offset) throws PcException, IOException {
+        HttpGet request = new HttpGet(String.format(getBaseURL() + "/%s/%s/%s/%s/data",
+                RUNS_RESOURCE_NAME, runId, RESULTS_RESOURCE_NAME, resultId));
+        if (offset > 0)
+            request.setHeader("Range", "bytes=" + offset + "-");
+        HttpResponse response = executeRequest(request);
+        int status = response.getStatusLine().getStatusCode();
+        HttpEntity entity = response.getEntity();
+        if ((status != HttpStatus.SC_OK && status != HttpStatus.SC_PARTIAL_CONTENT) || entity == null) {
+            request.releaseConnection();
+            throw new PcException(String.format("Failed to download result %s of run %s: %s",
+                    resultId, runId, response.getStatusLine()));
+        }
+        InputStream content = entity.getContent();
+        if (offset > 0 && status == HttpStatus.SC_OK) {
+            try {
+                IOUtils.skipFully(content, offset);
+            } catch (IOException e) {
+                content.close();
+                throw e;
+            }
+        }
+        return content;
+    }
+}
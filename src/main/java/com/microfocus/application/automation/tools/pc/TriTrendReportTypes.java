@@ -0,0 +1,76 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes;
+
+import java.util.Objects;
+
+/**
+ * One measurement series of a trend report: the measurement of the rows of a data type having a PCT type.
+ * Series are value objects, equal when all three types are equal, so they may be used as map keys.
+ */
+public class TriTrendReportTypes {
+
+    private final TrendReportTypes.DataType dataType;
+    private final TrendReportTypes.PctType pctType;
+    private final TrendReportTypes.Measurement measurement;
+
+    public TriTrendReportTypes(TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement) {
+        this.dataType = dataType;
+        this.pctType = pctType;
+        this.measurement = measurement;
+    }
+
+    public TrendReportTypes.DataType getDataType() {
+        return dataType;
+    }
+
+    public TrendReportTypes.PctType getPctType() {
+        return pctType;
+    }
+
+    public TrendReportTypes.Measurement getMeasurement() {
+        return measurement;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TriTrendReportTypes that = (TriTrendReportTypes) o;
+        return dataType == that.dataType && pctType == that.pctType && measurement == that.measurement;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataType, pctType, measurement);
+    }
+
+    @Override
+    public String toString() {
+        return dataType + "/" + pctType + "/" + measurement;
+    }
+}
@@ -28,9 +28,8 @@ import hudson.model.Run;
 import jenkins.tasks.SimpleBuildStep;
 import net.minidev.json.JSONObject;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
 
 
 /**
@@ -88,8 +87,6 @@ public class PerformanceJobReportAction extends InvisibleAction implements Simpl
 
     @Override
     public Collection<? extends Action> getProjectActions() {
-        List<PerformanceProjectAction> projectActions = new ArrayList<PerformanceProjectAction>();
-        projectActions.add(new PerformanceProjectAction(build.getParent()));
-        return projectActions;
+        return Collections.singletonList(PerformanceTrendStore.forJob(build.getParent()).getProjectAction());
     }
 }
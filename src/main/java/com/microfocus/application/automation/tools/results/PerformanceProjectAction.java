@@ -32,8 +32,6 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import hudson.model.Action;
 import hudson.model.Job;
-import hudson.model.Run;
-import hudson.util.RunList;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
@@ -61,14 +59,12 @@ public class PerformanceProjectAction implements Action {
      */
     private static final Logger LOGGER = Logger
             .getLogger(PerformanceProjectAction.class.getName());
-    private static final int MAX_DISPLAY_BUILDS = 20;
     /**
      * The Current project.
      */
     public final Job<?, ?> currentProject;
     private ArrayList<LrJobResults> jobLrResults;
-    private int lastBuildId = -1;
-    private ArrayList<Integer> _workedBuilds;
+    private long lastTrendRevision = -1;
     private ProjectLrResults _projectResult;
     private Collection<Action> projectActions;
 
@@ -79,7 +75,6 @@ public class PerformanceProjectAction implements Action {
      * @param job the job
      */
     public PerformanceProjectAction(Job<?, ?> job) {
-        this._workedBuilds = new ArrayList<Integer>();
         this.jobLrResults = new ArrayList<LrJobResults>();
         this.currentProject = job;
         projectActions = new ArrayList<>();
@@ -208,66 +203,33 @@ public class PerformanceProjectAction implements Action {
      * @return the boolean
      */
     boolean isVisible() {
-        List<? extends Run<?, ?>> builds = currentProject.getBuilds();
-        for (Run run : builds) {
-            if (run.getAction(PerformanceJobReportAction.class) != null) {
-                return true;
-            }
-        }
-        return false;
+        return !PerformanceTrendStore.forJob(currentProject).isEmpty();
     }
 
     /**
      * Gets updated data.
+     * Built from the job's {@link PerformanceTrendStore}, so only the displayed builds are read and
+     * the data is rebuilt only when the trend changed.
      */
     public synchronized void getUpdatedData() {
-        if (!isUpdateDataNeeded()) {
+        PerformanceTrendStore trendStore = PerformanceTrendStore.forJob(currentProject);
+        long trendRevision = trendStore.getRevision();
+        if (!isUpdateDataNeeded(trendRevision)) {
             return;
         }
 
-        this._projectResult = new ProjectLrResults();
-
-        _workedBuilds = new ArrayList<Integer>();
-
-        RunList<? extends Run> projectBuilds = currentProject.getBuilds();
-
-        // updateLastBuild();
-
-        for (Run run : projectBuilds) {
-            PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
-            if (performanceJobReportAction == null) {
-                continue;
-            }
-            if (run.isBuilding()) {
-                continue;
-            }
-
-            int runNumber = run.getNumber();
-            if (_workedBuilds.contains(runNumber)) {
-                continue;
-            }
-
-
+        ProjectLrResults projectResult = new ProjectLrResults();
 
-            _workedBuilds.add(runNumber);
-            LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
+        for (Map.Entry<String, List<PerformanceTrendStore.TrendBuild>> scenarioBuilds :
+                trendStore.getScenarioBuilds().entrySet()) {
+            LrProjectScenarioResults lrProjectScenarioResults = new LrProjectScenarioResults(scenarioBuilds.getKey());
+            projectResult.addScenario(lrProjectScenarioResults);
 
-            // get all the ran scenario results from this run and insert them into the project
-            for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
-                // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
-                // at diffrent time)
-                if (!_projectResult.getScenarioResults().containsKey(runResult.getKey())) {
-                    _projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
-                }
-                // Join the SLA rule results
-                LrProjectScenarioResults lrProjectScenarioResults =
-                        _projectResult.getScenarioResults().get(runResult.getKey());
-                if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
-                {
-                    continue;
-                }
+            // builds are newest first and bounded to the displayed ones
+            for (PerformanceTrendStore.TrendBuild trendBuild : scenarioBuilds.getValue()) {
+                int runNumber = trendBuild.getNumber();
                 lrProjectScenarioResults.incBuildCount();
-                JobLrScenarioResult scenarioRunResult = runResult.getValue();
+                JobLrScenarioResult scenarioRunResult = trendBuild.getResult();
                 for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
                     scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
                 }
@@ -277,10 +239,11 @@ public class PerformanceProjectAction implements Action {
                 joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
                 joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
                 joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-
             }
-
         }
+
+        this._projectResult = projectResult;
+        this.lastTrendRevision = trendRevision;
     }
 
     private void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
@@ -421,18 +384,8 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private boolean isUpdateDataNeeded() {
-//        final Run<?, ?> lastBuild = currentProject.getLastBuild();
-//        if (null == lastBuild) {
-//            return false;
-//        }
-//
-//        int latestBuildNumber = lastBuild.getNumber();
-//        if (latestBuildNumber == lastBuildId) {
-//            return true;
-//        }
-
-        return true;
+    private boolean isUpdateDataNeeded(long trendRevision) {
+        return _projectResult == null || trendRevision != lastTrendRevision;
     }
 
 //    @Override
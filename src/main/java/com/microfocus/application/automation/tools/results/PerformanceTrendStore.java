@@ -0,0 +1,354 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LoadRunner trend of a job: per scenario, the results of its latest {@link #MAX_DISPLAY_BUILDS} completed builds.
+ * - appended when a build with a {@link PerformanceJobReportAction} completes, persisted next to the job config
+ * - a job without the trend file is seeded once from its build history
+ * - deleting a build inside the window drops the file, so the next access seeds the trend again
+ * - stores reference their job, so they are released when the job is deleted and when the jobs are (re)loaded
+ */
+public class PerformanceTrendStore {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PerformanceTrendStore.class.getName());
+    static final int MAX_DISPLAY_BUILDS = 20;
+    private static final String TREND_FILE = "lrPerformanceTrend.xml";
+    private static final Map<Job<?, ?>, PerformanceTrendStore> stores =
+            Collections.synchronizedMap(new HashMap<Job<?, ?>, PerformanceTrendStore>());
+
+    private final Job<?, ?> job;
+    private TreeMap<String, ArrayList<TrendBuild>> scenarios;
+    private long revision;
+    private PerformanceProjectAction projectAction;
+
+    private PerformanceTrendStore(Job<?, ?> job) {
+        this.job = job;
+    }
+
+    /**
+     * Gets the trend store of a job.
+     *
+     * @param job the job
+     * @return the trend store
+     */
+    public static PerformanceTrendStore forJob(Job<?, ?> job) {
+        synchronized (stores) {
+            PerformanceTrendStore store = stores.get(job);
+            if (store == null) {
+                store = new PerformanceTrendStore(job);
+                stores.put(job, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Gets the trend store of a job only if the job has one, either in memory or persisted.
+     *
+     * @param job the job
+     * @return the trend store, null if the job has no performance trend
+     */
+    static PerformanceTrendStore getExisting(Job<?, ?> job) {
+        synchronized (stores) {
+            PerformanceTrendStore store = stores.get(job);
+            if (store == null && new File(job.getRootDir(), TREND_FILE).exists()) {
+                store = forJob(job);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Releases the stores of the deleted item and of the jobs inside it.
+     *
+     * @param item the deleted item
+     */
+    static void release(Item item) {
+        String folderPrefix = item.getFullName() + "/";
+        synchronized (stores) {
+            for (Iterator<Job<?, ?>> iterator = stores.keySet().iterator(); iterator.hasNext(); ) {
+                Job<?, ?> job = iterator.next();
+                if (job == item || job.getFullName().startsWith(folderPrefix)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the project action of the job, shared by all page views so its graph data is built once per change.
+     *
+     * @return the project action
+     */
+    public synchronized PerformanceProjectAction getProjectAction() {
+        if (projectAction == null) {
+            projectAction = new PerformanceProjectAction(job);
+        }
+        return projectAction;
+    }
+
+    /**
+     * Gets the revision, changed on every update of the trend.
+     *
+     * @return the revision
+     */
+    public synchronized long getRevision() {
+        load();
+        return revision;
+    }
+
+    /**
+     * Is empty boolean.
+     *
+     * @return true if no build of the job has LoadRunner results
+     */
+    public synchronized boolean isEmpty() {
+        load();
+        return scenarios.isEmpty();
+    }
+
+    /**
+     * Gets a copy of the trend: scenario name to its builds, newest first.
+     *
+     * @return the scenario builds
+     */
+    public synchronized SortedMap<String, List<TrendBuild>> getScenarioBuilds() {
+        load();
+        SortedMap<String, List<TrendBuild>> copy = new TreeMap<String, List<TrendBuild>>();
+        for (Map.Entry<String, ArrayList<TrendBuild>> scenario : scenarios.entrySet()) {
+            copy.put(scenario.getKey(), new ArrayList<TrendBuild>(scenario.getValue()));
+        }
+        return copy;
+    }
+
+    synchronized void add(int buildNumber, LrJobResults results) {
+        load();
+        if (addBuild(scenarios, buildNumber, results)) {
+            revision++;
+            save();
+        }
+    }
+
+    synchronized void remove(int buildNumber) {
+        if (scenarios == null && !getTrendFile().exists()) {
+            return;
+        }
+        load();
+        if (removeBuild(scenarios, buildNumber)) {
+            //an older build has to take the place of the deleted one, seed again on next access
+            scenarios = null;
+            revision++;
+            File file = getTrendFile().getFile();
+            if (file.exists() && !file.delete()) {
+                LOGGER.warning("Failed to delete performance trend file " + file);
+            }
+        }
+    }
+
+    /**
+     * Adds the scenario results of a build, keeping every scenario sorted by build number (newest first)
+     * and bounded to {@link #MAX_DISPLAY_BUILDS}.
+     *
+     * @return true if the trend changed
+     */
+    static boolean addBuild(SortedMap<String, ArrayList<TrendBuild>> scenarios, int buildNumber, LrJobResults results) {
+        boolean changed = false;
+        for (Map.Entry<String, JobLrScenarioResult> scenarioResult : results.getLrScenarioResults().entrySet()) {
+            ArrayList<TrendBuild> builds = scenarios.get(scenarioResult.getKey());
+            if (builds == null) {
+                builds = new ArrayList<TrendBuild>();
+                scenarios.put(scenarioResult.getKey(), builds);
+            }
+            int position = 0;
+            while (position < builds.size() && builds.get(position).getNumber() > buildNumber) {
+                position++;
+            }
+            if (position < builds.size() && builds.get(position).getNumber() == buildNumber) {
+                builds.set(position, new TrendBuild(buildNumber, scenarioResult.getValue()));
+                changed = true;
+            } else if (position < MAX_DISPLAY_BUILDS) {
+                builds.add(position, new TrendBuild(buildNumber, scenarioResult.getValue()));
+                if (builds.size() > MAX_DISPLAY_BUILDS) {
+                    builds.remove(builds.size() - 1);
+                }
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes a build from all scenarios.
+     *
+     * @return true if the build was part of the trend
+     */
+    static boolean removeBuild(SortedMap<String, ArrayList<TrendBuild>> scenarios, int buildNumber) {
+        boolean removed = false;
+        for (Iterator<ArrayList<TrendBuild>> iterator = scenarios.values().iterator(); iterator.hasNext(); ) {
+            ArrayList<TrendBuild> builds = iterator.next();
+            for (Iterator<TrendBuild> buildIterator = builds.iterator(); buildIterator.hasNext(); ) {
+                if (buildIterator.next().getNumber() == buildNumber) {
+                    buildIterator.remove();
+                    removed = true;
+                }
+            }
+            if (builds.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if (scenarios != null) {
+            return;
+        }
+        XmlFile trendFile = getTrendFile();
+        if (trendFile.exists()) {
+            try {
+                scenarios = (TreeMap<String, ArrayList<TrendBuild>>) trendFile.read();
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to read performance trend file " + trendFile + ", rebuilding it", e);
+            }
+        }
+        scenarios = seed();
+        revision++;
+        save();
+    }
+
+    private TreeMap<String, ArrayList<TrendBuild>> seed() {
+        TreeMap<String, ArrayList<TrendBuild>> seeded = new TreeMap<String, ArrayList<TrendBuild>>();
+        for (Run<?, ?> run : job.getBuilds()) {
+            PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+            if (action != null && !run.isBuilding()) {
+                addBuild(seeded, run.getNumber(), action.getLrResultBuildDataset());
+            }
+        }
+        return seeded;
+    }
+
+    private void save() {
+        XmlFile trendFile = getTrendFile();
+        try {
+            trendFile.write(scenarios);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save performance trend file " + trendFile, e);
+        }
+    }
+
+    private XmlFile getTrendFile() {
+        return new XmlFile(Run.XSTREAM2, new File(job.getRootDir(), TREND_FILE));
+    }
+
+    /**
+     * The results of one scenario in one build.
+     */
+    public static final class TrendBuild {
+        private final int number;
+        private final JobLrScenarioResult result;
+
+        TrendBuild(int number, JobLrScenarioResult result) {
+            this.number = number;
+            this.result = result;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public JobLrScenarioResult getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Appends completed builds to the trend of their job and removes deleted ones.
+     */
+    @Extension
+    public static class TrendRunListener extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+            if (action != null) {
+                forJob(run.getParent()).add(run.getNumber(), action.getLrResultBuildDataset());
+            }
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            //jobs without performance results have no trend, their builds are not to be looked at
+            PerformanceTrendStore store = getExisting(run.getParent());
+            if (store == null) {
+                return;
+            }
+            store.remove(run.getNumber());
+        }
+    }
+
+    /**
+     * Releases the stores of deleted jobs, and of all jobs when they are (re)loaded as new objects.
+     */
+    @Extension
+    public static class TrendItemListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            release(item);
+        }
+
+        @Override
+        public void onLoaded() {
+            stores.clear();
+        }
+    }
+}
@@ -35,9 +35,13 @@ import hudson.matrix.MatrixAggregatable;
 import hudson.matrix.MatrixAggregator;
 import hudson.matrix.MatrixBuild;
 import hudson.model.*;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.*;
 import hudson.tasks.junit.*;
 import hudson.tasks.test.TestResultAggregator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.tasks.SimpleBuildStep;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.WildcardFileFilter;
@@ -52,6 +56,7 @@ import javax.annotation.Nonnull;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -60,9 +65,10 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.*;
-
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNode;
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNodeAttr;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * using {@link JUnitResultArchiver};
@@ -89,12 +95,12 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
     private static final String TRANSACTION_SUMMARY_FOLDER = "TransactionSummary";
     private static final String RICH_REPORT_FOLDER = "RichReport";
     private static final String TRANSACTION_REPORT_NAME = "TransactionReport";
-    private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
-    private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
     private static final String NO_RICH_REPORTS_ERROR = "Template contains no rich reports.";
     private static final String NO_TRANSACTION_SUMMARY_REPORT_ERROR = "Template contains no transaction summary " +
             "report.";
     private static final String PARALLEL_RESULT_FILE = "parallelrun_results.html";
+    // reports are parsed on the nodes holding them, the threads of a build only wait for their results
+    private static final int MAX_PARSING_THREADS = 4;
 
     private final ResultsPublisherModel _resultsPublisherModel;
     private List<FilePath> runReportList;
@@ -111,33 +117,6 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
     }
 
-    private static void addTimeRanges(TimeRangeResult transactionTimeRange, Element slaRuleElement) {
-        Node timeRangeNode;
-        Element timeRangeElement;
-        NodeList timeRanges = slaRuleElement.getElementsByTagName("TimeRangeInfo");
-        if (timeRanges == null || timeRanges.getLength() == 0) {
-            return;
-        }
-        //Taking the goal per transaction -
-        double generalGoalValue = Double.parseDouble(((Element) timeRanges.item(0)).getAttribute(SLA_GOAL_VALUE_LABEL));
-        transactionTimeRange.setGoalValue(generalGoalValue);
-
-        for (int k = 0; k < timeRanges.getLength(); k++) {
-            timeRangeNode = timeRanges.item(k);
-            timeRangeElement = (Element) timeRangeNode;
-            double actualValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_ACTUAL_VALUE_LABEL));
-            double goalValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_GOAL_VALUE_LABEL));
-            int loadValue = Integer.parseInt(timeRangeElement.getAttribute("LoadValue"));
-            double startTime = Double.parseDouble(timeRangeElement.getAttribute("StartTime"));
-            double endTIme = Double.parseDouble(timeRangeElement.getAttribute("EndTime"));
-            transactionTimeRange.incActualValue(actualValue);
-            LrTest.SLA_STATUS slaStatus =
-                    LrTest.SLA_STATUS.checkStatus(timeRangeElement.getFirstChild().getTextContent());
-            TimeRange timeRange = new TimeRange(actualValue, goalValue, slaStatus, loadValue, startTime, endTIme);
-            transactionTimeRange.getTimeRanges().add(timeRange);
-        }
-    }
-
     @Override
     public DescriptorImpl getDescriptor() {
 
@@ -221,7 +200,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
             LrJobResults jobDataSet = null;
             try {
                 jobDataSet = buildJobDataset(listener);
-            } catch (ParserConfigurationException | SAXException e) {
+            } catch (XMLStreamException e) {
                 listener.error(ARCHIVING_TEST_REPORTS_FAILED_DUE_TO_XML_PARSING_ERROR + e);
             }
 
@@ -1194,199 +1173,89 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
     }
 
     private LrJobResults buildJobDataset(TaskListener listener)
-            throws ParserConfigurationException, SAXException,
-            IOException, InterruptedException {
+            throws XMLStreamException, IOException, InterruptedException {
         listener.getLogger().println(
                 "Parsing test run dataset for perfomrance report");
         LrJobResults jobResults = new LrJobResults();
 
-        // read each RunReport.xml
-        for (FilePath reportFilePath : runReportList) {
-            JobLrScenarioResult jobLrScenarioResult = parseScenarioResults(reportFilePath);
-            jobResults.addScenario(jobLrScenarioResult);
+        int parallelism = Math.min(runReportList.size(), MAX_PARSING_THREADS);
+        if (parallelism <= 1) {
+            // read each RunReport.xml
+            for (FilePath reportFilePath : runReportList) {
+                jobResults.addScenario(parseScenarioResults(reportFilePath));
+            }
+            return jobResults;
         }
 
+        // parse the scenarios in parallel, adding them in the order of the reports
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                new NamingThreadFactory(new DaemonThreadFactory(), "RunResultRecorder.buildJobDataset"));
+        try {
+            List<Future<JobLrScenarioResult>> scenarioResults = new ArrayList<Future<JobLrScenarioResult>>();
+            for (final FilePath reportFilePath : runReportList) {
+                scenarioResults.add(executor.submit(() -> parseScenarioResults(reportFilePath)));
+            }
+            for (Future<JobLrScenarioResult> scenarioResult : scenarioResults) {
+                jobResults.addScenario(getScenarioResult(scenarioResult));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
         return jobResults;
     }
 
-    private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath)
-            throws ParserConfigurationException, SAXException, IOException, InterruptedException {
-        JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(slaFilePath.getBaseName());
-
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-
-        Document doc = dBuilder.parse(slaFilePath.read());
-
-        processSLA(jobLrScenarioResult, doc);
-        processLrScenarioStats(jobLrScenarioResult, doc);
-        //TODO: add fail / Pass count
-        return jobLrScenarioResult;
-    }
-
-    private void processLrScenarioStats(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-
-        NodeList rootNodes = doc.getChildNodes();
-        Node root = getNode("Runs", rootNodes);
-        Element generalNode = (Element) getNode("General", root.getChildNodes());
-        NodeList generalNodeChildren = generalNode.getChildNodes();
-
-        extractVUserScenarioReult(jobLrScenarioResult, generalNodeChildren);
-        extractTransactionScenarioResult(jobLrScenarioResult, generalNodeChildren);
-        extractConnectionsScenarioResult(jobLrScenarioResult, generalNodeChildren);
-        extractDuration(jobLrScenarioResult, generalNodeChildren);
-    }
-
-    private void extractDuration(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-        Node ScenrioDurationNode = getNode("Time", generalNodeChildren);
-        String scenarioDurationAttr = getNodeAttr("Duration", ScenrioDurationNode);
-        jobLrScenarioResult.setScenarioDuration(Long.valueOf(scenarioDurationAttr));
-    }
-
-    private void extractConnectionsScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-                                                  NodeList generalNodeChildren) {
-        Node connections = getNode("Connections", generalNodeChildren);
-        jobLrScenarioResult.setConnectionMax(Integer.valueOf(getNodeAttr("MaxCount", connections)));
-    }
-
-    private void extractTransactionScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-                                                  NodeList generalNodeChildren) {
-        int atrrCount;
-        Node transactions = getNode("Transactions", generalNodeChildren);
-        atrrCount = transactions.getAttributes().getLength();
-        for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-            Node vUserAttr = transactions.getAttributes().item(atrrIndx);
-            jobLrScenarioResult.transactionSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
-        }
-
-        NodeList transactionNodes = transactions.getChildNodes();
-        int transactionNodesCount = transactionNodes.getLength();
-        for (int transIdx = 0; transIdx < transactionNodesCount; transIdx++) {
-            if (transactionNodes.item(transIdx).getNodeType() != Node.ELEMENT_NODE) {
-                continue;
+    private static JobLrScenarioResult getScenarioResult(Future<JobLrScenarioResult> scenarioResult)
+            throws XMLStreamException, IOException, InterruptedException {
+        try {
+            return scenarioResult.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
             }
-            Element transaction = (Element) transactionNodes.item(transIdx);
-            TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
-            transactionData.put("Pass", Integer.valueOf(transaction.getAttribute("Pass")));
-            transactionData.put("Fail", Integer.valueOf(transaction.getAttribute("Fail")));
-            transactionData.put("Stop", Integer.valueOf(transaction.getAttribute("Stop")));
-            jobLrScenarioResult.transactionData.put(transaction.getAttribute("Name"), transactionData);
+            throw new IOException(cause);
         }
     }
 
-    private void extractVUserScenarioReult(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-        Node vUser = getNode("VUsers", generalNodeChildren);
-        int atrrCount = vUser.getAttributes().getLength();
-        for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-            Node vUserAttr = vUser.getAttributes().item(atrrIndx);
-            jobLrScenarioResult.vUserSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
+    /**
+     * Parses a RunReport.xml on the node holding it.
+     */
+    private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath)
+            throws XMLStreamException, IOException, InterruptedException {
+        try {
+            //TODO: add fail / Pass count
+            return slaFilePath.act(new RunReportParserCallable(slaFilePath.getBaseName()));
+        } catch (IOException e) {
+            if (e.getCause() instanceof XMLStreamException) {
+                throw (XMLStreamException) e.getCause();
+            }
+            throw e;
         }
     }
 
-    private void processSLA(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-        Node slaRuleNode;
-        Element slaRuleElement;
-
-        NodeList rootNodes = doc.getChildNodes();
-        Node root = getNode("Runs", rootNodes);
-        Element slaRoot = (Element) getNode("SLA", root.getChildNodes());
-        NodeList slaRuleResults = slaRoot.getChildNodes();
-
-
-        for (int j = 0; j < slaRuleResults.getLength(); j++) {
-            slaRuleNode = slaRuleResults.item(j);
-            if (slaRuleNode.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            slaRuleElement = (Element) slaRuleNode;
-            //check type by mesurment field:
-            LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(slaRuleElement.getAttribute("Measurement"));
+    private static final class RunReportParserCallable extends MasterToSlaveFileCallable<JobLrScenarioResult> {
+        private static final long serialVersionUID = 1L;
+        private final String scenarioName;
 
-            processSlaRule(jobLrScenarioResult, slaRuleElement, slaGoal);
+        private RunReportParserCallable(String scenarioName) {
+            this.scenarioName = scenarioName;
         }
 
-    }
-
-    private void processSlaRule(JobLrScenarioResult jobLrScenarioResult, Element slaRuleElement,
-                                LrTest.SLA_GOAL slaGoal) {
-        switch (slaGoal) {
-            case AverageThroughput:
-                WholeRunResult averageThroughput = new WholeRunResult();
-                averageThroughput.setSlaGoal(LrTest.SLA_GOAL.AverageThroughput);
-                averageThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-                averageThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-                averageThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                averageThroughput.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-                jobLrScenarioResult.scenarioSlaResults.add(averageThroughput);
-                break;
-            case TotalThroughput:
-                WholeRunResult totalThroughput = new WholeRunResult();
-                totalThroughput.setSlaGoal(LrTest.SLA_GOAL.TotalThroughput);
-                totalThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-                totalThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-                totalThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                totalThroughput.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-                jobLrScenarioResult.scenarioSlaResults.add(totalThroughput);
-
-                break;
-            case AverageHitsPerSecond:
-                WholeRunResult averageHitsPerSecond = new WholeRunResult();
-                averageHitsPerSecond.setSlaGoal(LrTest.SLA_GOAL.AverageHitsPerSecond);
-                averageHitsPerSecond.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-                averageHitsPerSecond.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-                averageHitsPerSecond.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                averageHitsPerSecond.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-                jobLrScenarioResult.scenarioSlaResults.add(averageHitsPerSecond);
-
-                break;
-            case TotalHits:
-                WholeRunResult totalHits = new WholeRunResult();
-                totalHits.setSlaGoal(LrTest.SLA_GOAL.TotalHits);
-                totalHits.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-                totalHits.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-                totalHits.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                totalHits.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-                jobLrScenarioResult.scenarioSlaResults.add(totalHits);
-
-                break;
-            case ErrorsPerSecond:
-                TimeRangeResult errPerSec = new AvgTransactionResponseTime();
-                errPerSec.setSlaGoal(LrTest.SLA_GOAL.ErrorsPerSecond);
-                errPerSec.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                errPerSec.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-                errPerSec.setStatus(LrTest.SLA_STATUS.checkStatus(
-                        slaRuleElement.getLastChild().getTextContent().trim())); //Might not work due to time ranges
-                addTimeRanges(errPerSec, slaRuleElement);
-                jobLrScenarioResult.scenarioSlaResults.add(errPerSec);
-
-                break;
-            case PercentileTRT:
-                PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
-                percentileTransactionWholeRun.setSlaGoal(LrTest.SLA_GOAL.PercentileTRT);
-                percentileTransactionWholeRun.setName(slaRuleElement.getAttribute("TransactionName"));
-                percentileTransactionWholeRun
-                        .setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-                percentileTransactionWholeRun.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(
-                        SLA_GOAL_VALUE_LABEL)));
-                percentileTransactionWholeRun.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                percentileTransactionWholeRun.setPrecentage(Double.valueOf(slaRuleElement.getAttribute("Percentile")));
-                percentileTransactionWholeRun.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-                jobLrScenarioResult.scenarioSlaResults.add(percentileTransactionWholeRun);
-
-                break;
-            case AverageTRT:
-                AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
-                transactionTimeRange.setSlaGoal(LrTest.SLA_GOAL.AverageTRT);
-                transactionTimeRange.setName(slaRuleElement.getAttribute("TransactionName"));
-                transactionTimeRange.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-                transactionTimeRange.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-                transactionTimeRange.setStatus(LrTest.SLA_STATUS.checkStatus(
-                        slaRuleElement.getLastChild().getTextContent().trim())); //Might not work due to time ranges
-                addTimeRanges(transactionTimeRange, slaRuleElement);
-                jobLrScenarioResult.scenarioSlaResults.add(transactionTimeRange);
-                break;
-            case Bad:
-                break;
+        @Override
+        public JobLrScenarioResult invoke(File f, VirtualChannel channel) throws IOException {
+            try (InputStream input = new BufferedInputStream(new FileInputStream(f))) {
+                return RunReportParser.parse(scenarioName, input);
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to parse " + f, e);
+            }
         }
     }
 
@@ -20,12 +20,15 @@
 
 package com.microfocus.application.automation.tools.results.projectparser.performance;
 
+import java.io.Serializable;
+
 /**
  * Created by kazaky on 07/07/2016.
  */
 
 
-public abstract class GoalResult implements LrTest{
+public abstract class GoalResult implements LrTest, Serializable {
+    private static final long serialVersionUID = 1L;
 
     public SLA_STATUS getStatus() {
         return _status;
@@ -0,0 +1,289 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.TreeMap;
+
+/**
+ * Single pass StAX parser of a LoadRunner RunReport.xml into a {@link JobLrScenarioResult}.
+ * - only the result itself is kept in memory, SLA time ranges are added as they are read
+ * - lookups follow the former DOM parsing: first General/SLA/VUsers/Transactions/Connections/Time element
+ *   (case insensitive), SLA rule status taken from the text after the rule's last child element
+ */
+public final class RunReportParser {
+
+    public static final String SLA_FULL_NAME = "FullName";
+    private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
+    private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
+    private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+    private final XMLStreamReader reader;
+    private final JobLrScenarioResult jobLrScenarioResult;
+
+    private RunReportParser(XMLStreamReader reader, JobLrScenarioResult jobLrScenarioResult) {
+        this.reader = reader;
+        this.jobLrScenarioResult = jobLrScenarioResult;
+    }
+
+    /**
+     * Parses the SLA results and the scenario stats of one scenario run.
+     *
+     * @param scenarioName the scenario name
+     * @param input        the RunReport.xml content, not closed by the parser
+     * @return the scenario result
+     * @throws XMLStreamException if the report is not well formed or has no Runs root element
+     */
+    public static JobLrScenarioResult parse(String scenarioName, InputStream input) throws XMLStreamException {
+        JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(scenarioName);
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(input);
+        try {
+            new RunReportParser(reader, jobLrScenarioResult).parseRuns();
+        } finally {
+            reader.close();
+        }
+        return jobLrScenarioResult;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private void parseRuns() throws XMLStreamException {
+        reader.nextTag();
+        if (!"Runs".equalsIgnoreCase(reader.getLocalName())) {
+            throw new XMLStreamException("RunReport root element Runs not found", reader.getLocation());
+        }
+        boolean generalDone = false;
+        boolean slaDone = false;
+        while (nextChildElement()) {
+            String name = reader.getLocalName();
+            if (!generalDone && "General".equalsIgnoreCase(name)) {
+                parseGeneral();
+                generalDone = true;
+            } else if (!slaDone && "SLA".equalsIgnoreCase(name)) {
+                parseSla();
+                slaDone = true;
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private void parseGeneral() throws XMLStreamException {
+        boolean vUsersDone = false;
+        boolean transactionsDone = false;
+        boolean connectionsDone = false;
+        boolean timeDone = false;
+        while (nextChildElement()) {
+            String name = reader.getLocalName();
+            if (!vUsersDone && "VUsers".equalsIgnoreCase(name)) {
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    jobLrScenarioResult.vUserSum.put(reader.getAttributeLocalName(i), Integer.valueOf(reader.getAttributeValue(i)));
+                }
+                vUsersDone = true;
+                skipElement();
+            } else if (!transactionsDone && "Transactions".equalsIgnoreCase(name)) {
+                parseTransactions();
+                transactionsDone = true;
+            } else if (!connectionsDone && "Connections".equalsIgnoreCase(name)) {
+                jobLrScenarioResult.setConnectionMax(Integer.valueOf(getAttributeIgnoreCase("MaxCount")));
+                connectionsDone = true;
+                skipElement();
+            } else if (!timeDone && "Time".equalsIgnoreCase(name)) {
+                jobLrScenarioResult.setScenarioDuration(Long.valueOf(getAttributeIgnoreCase("Duration")));
+                timeDone = true;
+                skipElement();
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private void parseTransactions() throws XMLStreamException {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            jobLrScenarioResult.transactionSum.put(reader.getAttributeLocalName(i), Integer.valueOf(reader.getAttributeValue(i)));
+        }
+        while (nextChildElement()) {
+            TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
+            transactionData.put("Pass", Integer.valueOf(getAttribute("Pass")));
+            transactionData.put("Fail", Integer.valueOf(getAttribute("Fail")));
+            transactionData.put("Stop", Integer.valueOf(getAttribute("Stop")));
+            jobLrScenarioResult.transactionData.put(getAttribute("Name"), transactionData);
+            skipElement();
+        }
+    }
+
+    private void parseSla() throws XMLStreamException {
+        while (nextChildElement()) {
+            //check type by mesurment field:
+            LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(getAttribute("Measurement"));
+            GoalResult goalResult = createGoalResult(slaGoal);
+            if (goalResult == null) {
+                skipElement();
+                continue;
+            }
+            String status = parseSlaRuleContent(goalResult instanceof TimeRangeResult ? (TimeRangeResult) goalResult : null);
+            goalResult.setStatus(LrTest.SLA_STATUS.checkStatus(status.trim()));
+            jobLrScenarioResult.scenarioSlaResults.add(goalResult);
+        }
+    }
+
+    /**
+     * Creates the SLA rule result from the attributes of the rule element the reader is positioned on.
+     */
+    private GoalResult createGoalResult(LrTest.SLA_GOAL slaGoal) {
+        switch (slaGoal) {
+            case AverageThroughput:
+            case TotalThroughput:
+            case AverageHitsPerSecond:
+            case TotalHits:
+                WholeRunResult wholeRunResult = new WholeRunResult();
+                setWholeRunValues(wholeRunResult, slaGoal);
+                return wholeRunResult;
+            case ErrorsPerSecond:
+                TimeRangeResult errPerSec = new AvgTransactionResponseTime();
+                errPerSec.setSlaGoal(LrTest.SLA_GOAL.ErrorsPerSecond);
+                errPerSec.setFullName(getAttribute(SLA_FULL_NAME));
+                errPerSec.setLoadThrashold(getAttribute("SLALoadThresholdValue"));
+                return errPerSec;
+            case PercentileTRT:
+                PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
+                percentileTransactionWholeRun.setName(getAttribute("TransactionName"));
+                setWholeRunValues(percentileTransactionWholeRun, slaGoal);
+                percentileTransactionWholeRun.setPrecentage(Double.valueOf(getAttribute("Percentile")));
+                return percentileTransactionWholeRun;
+            case AverageTRT:
+                AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
+                transactionTimeRange.setSlaGoal(LrTest.SLA_GOAL.AverageTRT);
+                transactionTimeRange.setName(getAttribute("TransactionName"));
+                transactionTimeRange.setFullName(getAttribute(SLA_FULL_NAME));
+                transactionTimeRange.setLoadThrashold(getAttribute("SLALoadThresholdValue"));
+                return transactionTimeRange;
+            default:
+                return null;
+        }
+    }
+
+    private void setWholeRunValues(WholeRunResult wholeRunResult, LrTest.SLA_GOAL slaGoal) {
+        wholeRunResult.setSlaGoal(slaGoal);
+        wholeRunResult.setActualValue(Double.valueOf(getAttribute(SLA_ACTUAL_VALUE_LABEL)));
+        wholeRunResult.setGoalValue(Double.valueOf(getAttribute(SLA_GOAL_VALUE_LABEL)));
+        wholeRunResult.setFullName(getAttribute(SLA_FULL_NAME));
+    }
+
+    /**
+     * Reads the content of an SLA rule, adding its TimeRangeInfo elements (at any depth) to the time range result.
+     *
+     * @return the text following the last child element of the rule
+     */
+    private String parseSlaRuleContent(TimeRangeResult timeRangeResult) throws XMLStreamException {
+        StringBuilder trailingText = new StringBuilder();
+        boolean firstTimeRange = true;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 1) {
+                    trailingText.setLength(0);
+                }
+                if (timeRangeResult != null && "TimeRangeInfo".equals(reader.getLocalName())) {
+                    if (firstTimeRange) {
+                        //Taking the goal per transaction -
+                        timeRangeResult.setGoalValue(Double.parseDouble(getAttribute(SLA_GOAL_VALUE_LABEL)));
+                        firstTimeRange = false;
+                    }
+                    addTimeRange(timeRangeResult);
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                trailingText.append(reader.getText());
+            }
+        }
+        return trailingText.toString();
+    }
+
+    private void addTimeRange(TimeRangeResult timeRangeResult) throws XMLStreamException {
+        double actualValue = Double.parseDouble(getAttribute(SLA_ACTUAL_VALUE_LABEL));
+        double goalValue = Double.parseDouble(getAttribute(SLA_GOAL_VALUE_LABEL));
+        int loadValue = Integer.parseInt(getAttribute("LoadValue"));
+        double startTime = Double.parseDouble(getAttribute("StartTime"));
+        double endTime = Double.parseDouble(getAttribute("EndTime"));
+        LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS.checkStatus(reader.getElementText());
+        timeRangeResult.incActualValue(actualValue);
+        timeRangeResult.getTimeRanges().add(new TimeRange(actualValue, goalValue, slaStatus, loadValue, startTime, endTime));
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return false when the end of the current element was reached instead
+     */
+    private boolean nextChildElement() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private String getAttribute(String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    private String getAttributeIgnoreCase(String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeLocalName(i).equalsIgnoreCase(name)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return "";
+    }
+}
@@ -27,6 +27,7 @@ package com.microfocus.application.automation.tools.run;
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
 import com.microfocus.application.automation.tools.pc.PcClient;
 import com.microfocus.application.automation.tools.pc.PcModel;
+import com.microfocus.application.automation.tools.pc.TriTrendReportTypes;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Error;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Failure;
@@ -62,6 +63,7 @@ import java.lang.reflect.Method;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +87,7 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     public static final String pcReportArchiveName = "Reports.zip";
     public static final String pcReportFileName = "Report.html";
     private static final String RUNID_BUILD_VARIABLE = "PC_RUN_ID";
+    private static final long TREND_REPORT_DELAY = 5000;
 
     public static final String    TRENDED         = "Trended";
     public static final String    PENDING         = "Pending";
@@ -471,8 +474,7 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 
                 // Adding the trend report section if ID has been set or if the Associated Trend report is selected.
                 if(((("USE_ID").equals(getPcModel().getAddRunToTrendReport()) && getPcModel().getTrendReportId(true) != null) || ("ASSOCIATED").equals(getPcModel().getAddRunToTrendReport())) && RunState.get(response.getRunState()) != RUN_FAILURE){
-                    Thread.sleep(5000);
-                    pcClient.addRunToTrendReport(this.runId, getPcModel().getTrendReportId(true));
+                    pcClient.addRunToTrendReport(this.runId, getPcModel().getTrendReportId(true), TREND_REPORT_DELAY);
                     pcClient.waitForRunToPublishOnTrendReport(this.runId, getPcModel().getTrendReportId(true));
                     pcClient.downloadTrendReportAsPdf(getPcModel().getTrendReportId(true), getTrendReportsDirectory(build));
                     trendReportReady = true;
@@ -690,34 +692,9 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return false;
     }
 
-    private class TriTrendReportTypes {
+    private void updateCSVFilesForPlot(PcClient pcClient, int runId) throws IOException, PcException {
 
-        private TrendReportTypes.DataType dataType;
-        private TrendReportTypes.PctType pctType;
-        private TrendReportTypes.Measurement measurement;
-
-        public TrendReportTypes.DataType getDataType() {
-            return dataType;
-        }
-
-        public TrendReportTypes.PctType getPctType() {
-            return pctType;
-        }
-
-        public TrendReportTypes.Measurement getMeasurement() {
-            return measurement;
-        }
-
-        TriTrendReportTypes (TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement) {
-            this.dataType = dataType;
-            this.pctType = pctType;
-            this.measurement = measurement;
-        }
-    }
-
-    private void updateCSVFilesForPlot(PcClient pcClient, int runId) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
-
-        TriTrendReportTypes triTrendReportTypes[] = {
+        List<TriTrendReportTypes> triTrendReportTypes = Arrays.asList(
                 // Transaction - TRT
                 new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MINIMUM),
                 new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MAXIMUM),
@@ -751,30 +728,31 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
                 new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_AVERAGE),
                 new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_MEDIAN),
                 new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_SUM1)
-        };
+        );
 
-        for (TriTrendReportTypes triTrendReportType : triTrendReportTypes
-             ) {
-            saveFileToWorkspacePath(pcClient,getPcModel().getTrendReportId(true),runId, triTrendReportType.getDataType(), triTrendReportType.getPctType(), triTrendReportType.getMeasurement());
+        // the trend report is downloaded once for all the series
+        Map<TriTrendReportTypes, Map<String, String>> measurements =
+                pcClient.getTrendReportSeriesByXML(getPcModel().getTrendReportId(true), runId, triTrendReportTypes);
+        for (Map.Entry<TriTrendReportTypes, Map<String, String>> measurement : measurements.entrySet()) {
+            saveFileToWorkspacePath(measurement.getKey().getPctType(), measurement.getKey().getMeasurement(), measurement.getValue());
         }
 
     }
 
 
-    private boolean saveFileToWorkspacePath(PcClient pcClient, String trendReportID, int runId,TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement)throws IOException, PcException, IntrospectionException, NoSuchMethodException{
+    private boolean saveFileToWorkspacePath(TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement, Map<String, String> measurementMap) throws IOException {
         String fileName = measurement.toString().toLowerCase()  + "_" +  pctType.toString().toLowerCase() + ".csv";
-        Map<String, String> measurementMap = pcClient.getTrendReportByXML(trendReportID, runId, dataType, pctType, measurement);
         try {
             FilePath filePath = new FilePath(Workspace.getChannel(), getWorkspacePath().getPath() + "/" + fileName);
-            String filepathContent="";
+            StringBuilder filepathContent = new StringBuilder();
             for (String key : measurementMap.keySet()) {
-                filepathContent += key + ",";
+                filepathContent.append(key).append(',');
             }
-            filepathContent += "\r\n";
+            filepathContent.append("\r\n");
             for (String value : measurementMap.values()) {
-                filepathContent += value + ",";
+                filepathContent.append(value).append(',');
             }
-            filePath.write(filepathContent, null);
+            filePath.write(filepathContent.toString(), null);
             return true;
         } catch (InterruptedException e) {
             if (getWorkspacePath().getPath() != null)
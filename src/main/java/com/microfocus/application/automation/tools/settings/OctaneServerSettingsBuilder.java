@@ -28,6 +28,10 @@ import com.microfocus.application.automation.tools.octane.Messages;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationListener;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationValidator;
 import com.microfocus.application.automation.tools.octane.configuration.MqmProject;
+import com.microfocus.application.automation.tools.octane.events.SCMEventPublisher;
+import com.microfocus.application.automation.tools.octane.executor.UftTestDiscoveryDispatcher;
+import com.microfocus.application.automation.tools.octane.tests.TestListener;
+import com.microfocus.application.automation.tools.octane.tests.TestResultProcessingPool;
 import hudson.CopyOnWrite;
 import hudson.Extension;
 import hudson.ExtensionList;
@@ -378,6 +382,18 @@ public class OctaneServerSettingsBuilder extends Builder {
 			return servers;
 		}
 
+		public TestResultProcessingPool getTestResultProcessingPool() {
+			return TestListener.getProcessingPool();
+		}
+
+		public SCMEventPublisher getScmEventPublisher() {
+			return SCMEventPublisher.getInstance();
+		}
+
+		public UftTestDiscoveryDispatcher getUftTestDiscoveryDispatcher() {
+			return Jenkins.getInstance().getExtensionList(UftTestDiscoveryDispatcher.class).get(0);
+		}
+
 		public OctaneServerSettingsModel getSettings(String instanceId) {
 			if (instanceId == null || instanceId.isEmpty()) {
 				throw new IllegalArgumentException("instance ID MUST NOT be null nor empty");
@@ -0,0 +1,60 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.common;
+
+import com.microfocus.application.automation.tools.common.utils.SystemPropertyUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SystemPropertyUtilsTest {
+    private static final String PROPERTY = "octane.plugin.SystemPropertyUtilsTest.value";
+
+    @After
+    public void clearProperty() {
+        System.clearProperty(PROPERTY);
+    }
+
+    @Test
+    public void testIntProperty() {
+        Assert.assertEquals(7, SystemPropertyUtils.getIntProperty(PROPERTY, 7));
+        System.setProperty(PROPERTY, "12");
+        Assert.assertEquals(12, SystemPropertyUtils.getIntProperty(PROPERTY, 7));
+        System.setProperty(PROPERTY, "0");
+        Assert.assertEquals(0, SystemPropertyUtils.getIntProperty(PROPERTY, 7, 0));
+    }
+
+    @Test
+    public void testIllegalIntPropertyFallsBackToDefault() {
+        for (String value : new String[]{"abc", "0", "-3", "1.5", "3000000000"}) {
+            System.setProperty(PROPERTY, value);
+            Assert.assertEquals(value, 7, SystemPropertyUtils.getIntProperty(PROPERTY, 7));
+        }
+    }
+
+    @Test
+    public void testLongProperty() {
+        System.setProperty(PROPERTY, "3000000000");
+        Assert.assertEquals(3000000000L, SystemPropertyUtils.getLongProperty(PROPERTY, 7, 1));
+        System.setProperty(PROPERTY, "0");
+        Assert.assertEquals(7, SystemPropertyUtils.getLongProperty(PROPERTY, 7, 1));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ResultQueueTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testLeaseAndAcknowledgeOutOfOrder() throws IOException {
+		File queueFile = tmp.newFile();
+		queueFile.delete();
+		TestQueue queue = new TestQueue(queueFile, 3);
+		queue.add("job-a", 1);
+		queue.add("job-b", 2);
+		queue.add("job-c", 3);
+
+		List<ResultQueue.QueueItem> firstBatch = queue.lease(2);
+		Assert.assertEquals(2, firstBatch.size());
+		Assert.assertEquals("job-a", firstBatch.get(0).getProjectName());
+		Assert.assertEquals("job-b", firstBatch.get(1).getProjectName());
+
+		List<ResultQueue.QueueItem> secondBatch = queue.lease(2);
+		Assert.assertEquals(1, secondBatch.size());
+		Assert.assertEquals("job-c", secondBatch.get(0).getProjectName());
+
+		queue.acknowledge(Arrays.asList(firstBatch.get(1), secondBatch.get(0)));
+		Assert.assertEquals(1, queue.size());
+		Assert.assertEquals(1, queue.getLeasedCount());
+		queue.close();
+
+		//  acknowledged items behind the unacknowledged head are re-delivered after restart (at least once)
+		TestQueue reopened = new TestQueue(queueFile, 3);
+		Assert.assertEquals(3, reopened.size());
+		reopened.close();
+	}
+
+	@Test
+	public void testFailedItemIsRetriedWithBackoffAndDeadLettered() throws IOException {
+		File queueFile = tmp.newFile();
+		queueFile.delete();
+		TestQueue queue = new TestQueue(queueFile, 1);
+		queue.add("job-a", "type", 1);
+
+		ResultQueue.QueueItem item = queue.lease(1).get(0);
+		Assert.assertTrue(queue.failed(item));
+		Assert.assertEquals(1, queue.size());
+		//  backoff in effect
+		Assert.assertTrue(queue.lease(1).isEmpty());
+		Assert.assertNull(queue.peekFirst());
+		queue.close();
+
+		TestQueue reopened = new TestQueue(queueFile, 1);
+		Assert.assertEquals(1, reopened.size());
+		Assert.assertTrue(reopened.lease(1).isEmpty());
+
+		//  after the backoff the item is leased again and its second failure exceeds max retries
+		reopened.clock += TimeUnit.MINUTES.toMillis(1);
+		ResultQueue.QueueItem retried = reopened.lease(1).get(0);
+		Assert.assertEquals(1, retried.getFailCount());
+		Assert.assertFalse(reopened.failed(retried));
+		Assert.assertEquals(0, reopened.size());
+		Assert.assertEquals(1, reopened.getDeadLetterCount());
+		reopened.close();
+
+		Assert.assertTrue(new File(queueFile.getPath() + ".dead").exists());
+		TestQueue reopenedAgain = new TestQueue(queueFile, 1);
+		Assert.assertEquals(0, reopenedAgain.size());
+		Assert.assertEquals(1, reopenedAgain.getDeadLetterCount());
+		reopenedAgain.close();
+	}
+
+	@Test
+	public void testItemOutOfRetriesMovedToDeadLetterQueue() throws IOException {
+		File queueFile = tmp.newFile();
+		queueFile.delete();
+		TestQueue queue = new TestQueue(queueFile, 0);
+		queue.add("instance", "job-a", 1, "1002");
+
+		ResultQueue.QueueItem item = queue.peekFirst();
+		Assert.assertEquals("1002", item.getWorkspace());
+		Assert.assertEquals("instance", item.getInstanceId());
+		Assert.assertFalse(queue.failed());
+		Assert.assertEquals(0, queue.size());
+		Assert.assertEquals(1, queue.getDeadLetterCount());
+		Assert.assertEquals(Collections.emptyList(), queue.lease(1));
+		queue.close();
+	}
+
+	@Test
+	public void testExpiredLeaseIsLeasedAgain() throws IOException {
+		File queueFile = tmp.newFile();
+		queueFile.delete();
+		TestQueue queue = new TestQueue(queueFile, 3);
+		queue.add("job-a", 1);
+		queue.add("job-b", 2);
+
+		ResultQueue.QueueItem lost = queue.lease(1).get(0);
+		Assert.assertEquals("job-a", lost.getProjectName());
+		queue.clock += AbstractResultQueueImpl.LEASE_TIMEOUT - 1;
+		ResultQueue.QueueItem second = queue.lease(2).get(0);
+		Assert.assertEquals("job-b", second.getProjectName());
+		Assert.assertEquals(2, queue.getLeasedCount());
+
+		//  the lease of the first item expired, its dispatcher is considered gone
+		queue.clock += 1;
+		Assert.assertEquals(1, queue.getLeasedCount());
+		List<ResultQueue.QueueItem> again = queue.lease(2);
+		Assert.assertEquals(1, again.size());
+		Assert.assertSame(lost, again.get(0));
+		queue.acknowledge(again);
+		Assert.assertEquals(1, queue.size());
+
+		//  late acknowledgement of an expired lease still completes the item
+		queue.clock += AbstractResultQueueImpl.LEASE_TIMEOUT;
+		Assert.assertEquals(0, queue.getLeasedCount());
+		queue.acknowledge(Collections.singletonList(second));
+		Assert.assertEquals(0, queue.size());
+		Assert.assertTrue(queue.lease(1).isEmpty());
+		queue.close();
+	}
+
+	@Test
+	public void testPostponedItemIsMovedBehindWithoutTrialCharged() throws IOException {
+		File queueFile = tmp.newFile();
+		queueFile.delete();
+		TestQueue queue = new TestQueue(queueFile, 3);
+		queue.add("job-a", 1);
+		queue.add("job-b", 2);
+
+		queue.postpone(queue.lease(1).get(0), TimeUnit.SECONDS.toMillis(10));
+		Assert.assertEquals(2, queue.size());
+		List<ResultQueue.QueueItem> leased = queue.lease(2);
+		Assert.assertEquals(1, leased.size());
+		Assert.assertEquals("job-b", leased.get(0).getProjectName());
+
+		queue.clock += TimeUnit.SECONDS.toMillis(10);
+		ResultQueue.QueueItem postponed = queue.lease(1).get(0);
+		Assert.assertEquals("job-a", postponed.getProjectName());
+		Assert.assertEquals(0, postponed.getFailCount());
+		queue.acknowledge(Arrays.asList(leased.get(0), postponed));
+		Assert.assertEquals(0, queue.size());
+		queue.close();
+	}
+
+	private static class TestQueue extends AbstractResultQueueImpl {
+		private long clock = System.currentTimeMillis();
+
+		TestQueue(File queueFile, int maxRetries) throws IOException {
+			super(maxRetries);
+			init(queueFile);
+		}
+
+		@Override
+		protected long now() {
+			return clock;
+		}
+	}
+}
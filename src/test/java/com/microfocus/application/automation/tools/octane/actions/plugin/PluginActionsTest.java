@@ -32,6 +32,7 @@ import com.microfocus.application.automation.tools.octane.configuration.Configur
 import com.microfocus.application.automation.tools.octane.tests.TestUtils;
 import hudson.model.*;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
@@ -151,4 +152,27 @@ public class PluginActionsTest extends OctanePluginTestBase {
 		assertEquals("file param", response.getJobs()[0].getParameters().get(2).getDescription());
 		assertEquals("", response.getJobs()[0].getParameters().get(2).getDefaultValue());
 	}
+
+	@Test
+	public void testPluginActions_REST_JobsCatalog_Paging() throws IOException, SAXException {
+		String prefix = "catalog-job-" + UUID.randomUUID().toString();
+		for (int i = 0; i < 3; i++) {
+			rule.createFreeStyleProject(prefix + "-" + i);
+		}
+		int total = rule.getInstance().getTopLevelItemNames().size();
+
+		Page page = client.goTo("nga/api/v1/catalog/jobs?offset=1&limit=2", "application/json");
+		JSONObject result = JSONObject.fromObject(page.getWebResponse().getContentAsString());
+		assertEquals(total, result.getInt("total"));
+		assertEquals(Math.min(2, total - 1), result.getJSONArray("jobs").size());
+
+		FreeStyleProject disabled = rule.getInstance().getItemByFullName(prefix + "-0", FreeStyleProject.class);
+		disabled.disable();
+		page = client.goTo("nga/api/v1/catalog/jobs", "application/json");
+		result = JSONObject.fromObject(page.getWebResponse().getContentAsString());
+		assertEquals(total - 1, result.getInt("total"));
+		for (Object job : result.getJSONArray("jobs")) {
+			assertNotEquals(prefix + "-0", ((JSONObject) job).getString("name"));
+		}
+	}
 }
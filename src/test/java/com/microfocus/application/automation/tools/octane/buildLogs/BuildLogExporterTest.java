@@ -0,0 +1,178 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.buildLogs;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class BuildLogExporterTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testLogUnderCapIsUntouched() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (BuildLogExporter.CappedOutputStream capped = new BuildLogExporter.CappedOutputStream(bos, 10)) {
+			capped.write("0123456789".getBytes(StandardCharsets.UTF_8));
+		}
+		Assert.assertEquals("0123456789", bos.toString("UTF-8"));
+	}
+
+	@Test
+	public void testLogOverCapIsTruncatedWithMarker() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		BuildLogExporter.CappedOutputStream capped = new BuildLogExporter.CappedOutputStream(bos, 5);
+		capped.write("0123".getBytes(StandardCharsets.UTF_8));
+		capped.write("456789".getBytes(StandardCharsets.UTF_8), 0, 6);
+		capped.write('x');
+		capped.close();
+		capped.close();
+		Assert.assertEquals("01234\n[log truncated: 6 more bytes were not exported to ALM Octane]\n", bos.toString("UTF-8"));
+	}
+
+	@Test
+	public void testOffsetReadsStartAtTheMemberOfTheOffset() throws IOException {
+		String log = createLog(10000);
+		File target = new File(tmp.getRoot(), BuildLogExporter.EXPORTED_LOG_FILE_NAME);
+		BuildLogExporter.MultiMemberGzipOutputStream gzip = new BuildLogExporter.MultiMemberGzipOutputStream(new FileOutputStream(target), 1000);
+		byte[] bytes = log.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < bytes.length; i += 333) {
+			gzip.write(bytes, i, Math.min(333, bytes.length - i));
+		}
+		gzip.close();
+		BuildLogExporter.LogIndex index = gzip.getIndex();
+		index.write(new File(target.getPath() + ".idx"));
+		Assert.assertEquals(10, index.getMembersCount());
+
+		for (long offset : new long[]{0, 999, 1000, 5555, 9999, 10000, 20000}) {
+			try (BuildLogExporter.ExportedLog exported = BuildLogExporter.ExportedLog.open(target, offset)) {
+				Assert.assertEquals(10000, exported.getLength());
+				Assert.assertEquals(offset, exported.getOffset());
+				Assert.assertEquals("offset " + offset, log.substring((int) Math.min(offset, log.length())), IOUtils.toString(exported, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	@Test
+	public void testOffsetReadOfLogExportedWithNoIndex() throws IOException {
+		String log = createLog(3000);
+		File root = tmp.getRoot();
+		BuildLogExporter.export("run", new File(root, BuildLogExporter.EXPORTED_LOG_FILE_NAME), () -> toStream(log));
+		Assert.assertTrue(new File(root, BuildLogExporter.EXPORTED_LOG_FILE_NAME + ".idx").delete());
+
+		try (BuildLogExporter.ExportedLog exported = BuildLogExporter.openLog("run", root, () -> toStream(log), 1234)) {
+			Assert.assertEquals(-1, exported.getLength());
+			Assert.assertEquals(log.substring(1234), IOUtils.toString(exported, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testLogNotExportedIsExportedOnRequest() throws IOException {
+		String log = createLog(3000);
+		File root = tmp.getRoot();
+		try (BuildLogExporter.ExportedLog exported = BuildLogExporter.openLog("run", root, () -> toStream(log), 5)) {
+			Assert.assertEquals(3000, exported.getLength());
+			Assert.assertEquals(log.substring(5), IOUtils.toString(exported, StandardCharsets.UTF_8));
+		}
+		Assert.assertTrue(new File(root, BuildLogExporter.EXPORTED_LOG_FILE_NAME).isFile());
+	}
+
+	@Test(timeout = 30000)
+	public void testQueuedExportIsRunByTheRequestWithoutWaiting() throws Exception {
+		CountDownLatch exportStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		File blockedRoot = tmp.newFolder("blocked");
+		Future<File> blocked = BuildLogExporter.exportAsync("blocked", blockedRoot, () -> {
+			exportStarted.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+			return toStream("blocked");
+		});
+		try {
+			Assert.assertTrue(exportStarted.await(10, TimeUnit.SECONDS));
+			String log = createLog(2000);
+			File queuedRoot = tmp.newFolder("queued");
+			Future<File> queued = BuildLogExporter.exportAsync("queued", queuedRoot, () -> toStream(log));
+			Assert.assertFalse(queued.isDone());
+
+			try (BuildLogExporter.ExportedLog exported = BuildLogExporter.openLog("queued", queuedRoot, () -> toStream(log), 0)) {
+				Assert.assertEquals(log, IOUtils.toString(exported, StandardCharsets.UTF_8));
+			}
+			Assert.assertTrue(queued.isDone());
+		} finally {
+			release.countDown();
+		}
+		Assert.assertEquals(new File(blockedRoot, BuildLogExporter.EXPORTED_LOG_FILE_NAME), blocked.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test(timeout = 30000)
+	public void testAsyncExportIsOpenedOnceDone() throws Exception {
+		String log = createLog(2000);
+		File root = tmp.getRoot();
+		Future<File> export = BuildLogExporter.exportAsync("run", root, () -> toStream(log));
+		export.get(10, TimeUnit.SECONDS);
+		try (BuildLogExporter.ExportedLog exported = BuildLogExporter.openExportedLog("run", export, 10)) {
+			Assert.assertEquals(log.substring(10), IOUtils.toString(exported, StandardCharsets.UTF_8));
+		}
+		//already exported, done right away
+		Assert.assertTrue(BuildLogExporter.exportAsync("run", root, () -> toStream(log)).isDone());
+	}
+
+	@Test(timeout = 30000)
+	public void testFailedAsyncExportIsNotOpened() throws Exception {
+		Future<File> export = BuildLogExporter.exportAsync("run", tmp.getRoot(), () -> {
+			throw new IOException("log not readable");
+		});
+		try {
+			export.get(10, TimeUnit.SECONDS);
+			Assert.fail("export should fail");
+		} catch (ExecutionException e) {
+			Assert.assertNull(BuildLogExporter.openExportedLog("run", export, 0));
+		}
+		Assert.assertFalse(new File(tmp.getRoot(), BuildLogExporter.EXPORTED_LOG_FILE_NAME).exists());
+	}
+
+	private static String createLog(int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int line = 0; sb.length() < length; line++) {
+			sb.append("line ").append(line).append('\n');
+		}
+		return sb.substring(0, length);
+	}
+
+	private static InputStream toStream(String log) {
+		return new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8));
+	}
+}
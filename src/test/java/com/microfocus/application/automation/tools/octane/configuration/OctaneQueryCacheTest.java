@@ -0,0 +1,106 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.configuration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OctaneQueryCacheTest {
+
+	@Test
+	public void testCachedUntilExpired() throws Exception {
+		OctaneQueryCache cache = new OctaneQueryCache(50, 10);
+		AtomicInteger loads = new AtomicInteger();
+		Callable<String> loader = () -> "value" + loads.incrementAndGet();
+
+		Assert.assertEquals("value1", cache.get("instance|1|releases|a", loader));
+		Assert.assertEquals("value1", cache.get("instance|1|releases|a", loader));
+		Assert.assertEquals(1, cache.getHitCount());
+
+		Thread.sleep(100);
+		Assert.assertNull(cache.getIfPresent("instance|1|releases|a"));
+		Assert.assertEquals("value2", cache.get("instance|1|releases|a", loader));
+	}
+
+	@Test
+	public void testEvictionAndInvalidation() throws Exception {
+		OctaneQueryCache cache = new OctaneQueryCache(60000, 2);
+		cache.get("instance|1|a", () -> "a");
+		cache.get("instance|2|b", () -> "b");
+		cache.getIfPresent("instance|1|a");
+		cache.get("instance|1|c", () -> "c");
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull(cache.getIfPresent("instance|2|b"));
+
+		cache.invalidate("instance|1|");
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testFailuresNotCached() throws Exception {
+		OctaneQueryCache cache = new OctaneQueryCache(60000, 10);
+		try {
+			cache.get("key", () -> {
+				throw new IllegalStateException("octane is down");
+			});
+			Assert.fail("exception expected");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("octane is down", e.getMessage());
+		}
+		Assert.assertEquals("value", cache.get("key", () -> "value"));
+	}
+
+	@Test
+	public void testConcurrentQueriesCoalesced() throws Exception {
+		OctaneQueryCache cache = new OctaneQueryCache(60000, 10);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> cache.get("key", () -> {
+					loads.incrementAndGet();
+					release.await();
+					return "value";
+				})));
+			}
+			//let all the callers reach the cache before the load completes
+			while (cache.getCoalescedCount() + cache.getMissCount() < 8) {
+				Thread.sleep(10);
+			}
+			release.countDown();
+			for (Future<String> future : futures) {
+				Assert.assertEquals("value", future.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Assert.assertEquals(1, loads.get());
+		Assert.assertEquals(7, cache.getCoalescedCount());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import hudson.model.Run;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SCMEventPublisherTest {
+
+	@Test(timeout = 30000)
+	public void testFollowingEventWaitsForScmEventsOfItsRun() throws InterruptedException {
+		SCMEventPublisher publisher = new SCMEventPublisher(2, 10);
+		Run<?, ?> run = Mockito.mock(Run.class);
+		Run<?, ?> otherRun = Mockito.mock(Run.class);
+		List<String> published = new CopyOnWriteArrayList<>();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+
+		publisher.schedule(run, () -> {
+			awaitQuietly(release);
+			published.add("scm");
+		});
+		publisher.runAfterScmEvents(run, () -> {
+			published.add("finished");
+			finished.countDown();
+		});
+		publisher.runAfterScmEvents(otherRun, () -> published.add("other finished"));
+		Assert.assertEquals(Collections.singletonList("other finished"), published);
+
+		release.countDown();
+		Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(Arrays.asList("other finished", "scm", "finished"), published);
+
+		//  nothing pending anymore, the event is published on the calling thread
+		publisher.runAfterScmEvents(run, () -> published.add("finished again"));
+		Assert.assertEquals("finished again", published.get(3));
+		publisher.shutdown();
+	}
+
+	@Test(timeout = 30000)
+	public void testFailedScmEventReleasesFollowingEvent() throws InterruptedException {
+		SCMEventPublisher publisher = new SCMEventPublisher(1, 10);
+		Run<?, ?> run = Mockito.mock(Run.class);
+		CountDownLatch finished = new CountDownLatch(1);
+
+		publisher.schedule(run, () -> {
+			throw new IllegalStateException("enrichment failed");
+		});
+		publisher.runAfterScmEvents(run, finished::countDown);
+		Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+		publisher.shutdown();
+	}
+
+	@Test
+	public void testRejectedScmEventDoesNotHoldBackFollowingEvent() {
+		SCMEventPublisher publisher = new SCMEventPublisher(1, 1);
+		Run<?, ?> run = Mockito.mock(Run.class);
+		publisher.shutdown();
+
+		publisher.schedule(run, () -> Assert.fail("must not be published after shutdown"));
+		Assert.assertEquals(1, publisher.getRejectedCount());
+		List<String> published = new CopyOnWriteArrayList<>();
+		publisher.runAfterScmEvents(run, () -> published.add("finished"));
+		Assert.assertEquals(Collections.singletonList("finished"), published);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
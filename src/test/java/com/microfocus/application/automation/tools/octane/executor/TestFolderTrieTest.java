@@ -0,0 +1,77 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFolderTrieTest {
+
+	@Test
+	public void testFolderMatching() {
+		TestFolderTrie trie = new TestFolderTrie("\\");
+		trie.add("tests\\GUITest1");
+		trie.add("api\\nested\\APITest");
+		trie.add("RootTest");
+
+		Assert.assertTrue(trie.isInTestFolder("tests\\GUITest1"));
+		Assert.assertTrue(trie.isInTestFolder("tests\\GUITest1\\Action1"));
+		Assert.assertTrue(trie.isInTestFolder("RootTest\\Action1\\data"));
+		Assert.assertTrue(trie.isInTestFolder("api\\nested\\APITest"));
+		Assert.assertFalse(trie.isInTestFolder("tests"));
+		Assert.assertFalse(trie.isInTestFolder("tests\\GUITest10"));
+		Assert.assertFalse(trie.isInTestFolder("api\\nested"));
+		Assert.assertFalse(trie.isInTestFolder("other\\RootTest"));
+		Assert.assertFalse(trie.isInTestFolder(""));
+	}
+
+	@Test
+	public void testNestedAndSimilarlyNamedFolders() {
+		TestFolderTrie trie = new TestFolderTrie("\\");
+		trie.add("area\\feature\\Test1");
+		//test stored inside the folder of another test
+		trie.add("area\\feature\\Test1\\Inner");
+		trie.add("area\\feature\\Test10");
+		trie.add("area\\feature\\Test1.bak");
+
+		Assert.assertTrue(trie.isInTestFolder("area\\feature\\Test1\\Inner\\Action1"));
+		Assert.assertTrue(trie.isInTestFolder("area\\feature\\Test1\\Action1"));
+		Assert.assertTrue(trie.isInTestFolder("area\\feature\\Test10\\Action1"));
+		Assert.assertTrue(trie.isInTestFolder("area\\feature\\Test1.bak"));
+		Assert.assertFalse(trie.isInTestFolder("area\\feature\\Test1.ba"));
+		Assert.assertFalse(trie.isInTestFolder("area\\feature\\Test"));
+		Assert.assertFalse(trie.isInTestFolder("area\\feature"));
+		Assert.assertFalse(trie.isInTestFolder("area\\feature\\Test2\\Action1"));
+		//segments are matched whole, not by prefix of the path
+		Assert.assertFalse(trie.isInTestFolder("area\\featureTest1"));
+		Assert.assertFalse(trie.isInTestFolder("area\\feature\\"));
+	}
+
+	@Test
+	public void testMultiCharacterSeparator() {
+		TestFolderTrie trie = new TestFolderTrie("::");
+		trie.add("tests::GUI:Test");
+
+		Assert.assertTrue(trie.isInTestFolder("tests::GUI:Test::Action1"));
+		Assert.assertFalse(trie.isInTestFolder("tests::GUI"));
+		Assert.assertFalse(trie.isInTestFolder("tests:GUI:Test"));
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.items.AutomatedTest;
+import com.hp.octane.integrations.uft.items.UftTestDiscoveryResult;
+import com.hp.octane.integrations.uft.items.UftTestType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class UftDiscoveryIndexTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testUnchangedDataTablesReused() throws IOException {
+		File root = tmp.getRoot();
+		File folder = new File(root, "data");
+		Assert.assertTrue(folder.mkdirs());
+		Files.write(new File(folder, "first.xlsx").toPath(), new byte[]{1, 2, 3});
+		Files.write(new File(folder, "second.xlsx").toPath(), new byte[]{4, 5, 6});
+
+		UftDiscoveryIndex index = new UftDiscoveryIndex(root);
+		UftTestDiscoveryResult result = index.discover();
+		Assert.assertEquals(2, result.getAllScmResourceFiles().size());
+		Assert.assertEquals(2, index.getParsedCount());
+		Assert.assertEquals(0, index.getReusedCount());
+		Assert.assertTrue(new File(root, UftDiscoveryIndex.INDEX_FILE).exists());
+
+		Files.write(new File(folder, "second.xlsx").toPath(), new byte[]{4, 5, 6, 7});
+		Files.delete(new File(folder, "first.xlsx").toPath());
+		Files.write(new File(folder, "third.xlsx").toPath(), new byte[]{8});
+
+		index = new UftDiscoveryIndex(root);
+		result = index.discover();
+		Assert.assertEquals(2, result.getAllScmResourceFiles().size());
+		Assert.assertEquals(2, index.getParsedCount());
+
+		index = new UftDiscoveryIndex(root);
+		result = index.discover();
+		Assert.assertEquals(2, result.getAllScmResourceFiles().size());
+		Assert.assertEquals(0, index.getParsedCount());
+		Assert.assertEquals(2, index.getReusedCount());
+	}
+
+	@Test
+	public void testCorruptedIndexIgnored() throws IOException {
+		File root = tmp.getRoot();
+		Files.write(new File(root, "table.xlsx").toPath(), new byte[]{1});
+		new UftDiscoveryIndex(root).discover();
+		Files.write(new File(root, UftDiscoveryIndex.INDEX_FILE).toPath(), "garbage".getBytes("UTF-8"));
+
+		UftDiscoveryIndex index = new UftDiscoveryIndex(root);
+		Assert.assertEquals(1, index.discover().getAllScmResourceFiles().size());
+		Assert.assertEquals(1, index.getParsedCount());
+	}
+
+	@Test
+	public void testUnchangedTestFolderReused() throws IOException {
+		File root = tmp.getRoot();
+		File test = createTest(root, "tests" + File.separator + "GUITest1");
+		createTest(root, "tests" + File.separator + "GUITest2");
+
+		TestIndex index = new TestIndex(root);
+		UftTestDiscoveryResult result = index.discover();
+		Assert.assertEquals(2, result.getAllTests().size());
+		Assert.assertEquals(2, index.getParsedCount());
+
+		index = new TestIndex(root);
+		result = index.discover();
+		Assert.assertEquals(2, result.getAllTests().size());
+		Assert.assertEquals(0, index.getParsedCount());
+		Assert.assertEquals(2, index.getReusedCount());
+		Assert.assertEquals(test.getName(), result.getAllTests().get(0).getName());
+	}
+
+	@Test
+	public void testTestFolderWithSameContentReusedAfterCheckout() throws IOException {
+		File root = tmp.getRoot();
+		File test = createTest(root, "GUITest1");
+		new TestIndex(root).discover();
+
+		//fresh checkout rewrites the files with the same content
+		touch(test, 60000);
+		TestIndex index = new TestIndex(root);
+		Assert.assertEquals(1, index.discover().getAllTests().size());
+		Assert.assertEquals(0, index.getParsedCount());
+		Assert.assertEquals(1, index.getReusedCount());
+
+		//new modification time is in the index
+		index = new TestIndex(root);
+		index.discover();
+		Assert.assertEquals(0, index.getParsedCount());
+		Assert.assertEquals(1, index.getReusedCount());
+	}
+
+	@Test
+	public void testTestFolderWithChangedContentParsed() throws IOException {
+		File root = tmp.getRoot();
+		File test = createTest(root, "GUITest1");
+		new TestIndex(root).discover();
+
+		//same size, different content of a nested file
+		Files.write(new File(test, "Action1" + File.separator + "Script.mts").toPath(), "msgbox 2".getBytes("UTF-8"));
+		touch(test, 60000);
+		TestIndex index = new TestIndex(root);
+		Assert.assertEquals(1, index.discover().getAllTests().size());
+		Assert.assertEquals(1, index.getParsedCount());
+		Assert.assertEquals(0, index.getReusedCount());
+
+		//file added to the test folder
+		Files.write(new File(test, "Action1" + File.separator + "Resource.mtr").toPath(), new byte[]{1});
+		index = new TestIndex(root);
+		index.discover();
+		Assert.assertEquals(1, index.getParsedCount());
+	}
+
+	private static File createTest(File root, String path) throws IOException {
+		File test = new File(root, path);
+		File action = new File(test, "Action1");
+		Assert.assertTrue(action.mkdirs());
+		Files.write(new File(test, "Test.tsp").toPath(), new byte[]{1, 2, 3});
+		Files.write(new File(action, "Script.mts").toPath(), "msgbox 1".getBytes("UTF-8"));
+		return test;
+	}
+
+	private static void touch(File dir, long delta) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					touch(file, delta);
+				} else {
+					Assert.assertTrue(file.setLastModified(file.lastModified() + delta));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Index creating the tests without parsing the UFT test files
+	 */
+	private static class TestIndex extends UftDiscoveryIndex {
+
+		TestIndex(File root) {
+			super(root);
+		}
+
+		@Override
+		AutomatedTest parseTest(File dir, UftTestType testType) {
+			AutomatedTest test = new AutomatedTest();
+			test.setName(dir.getName());
+			return test;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class UftJobIndexTest extends OctanePluginTestBase {
+
+	@Test
+	public void testJobsIndexedByExecutor() throws Exception {
+		UftJobIndex index = UftJobIndex.getInstance();
+		FreeStyleProject discovery = rule.createFreeStyleProject(UftConstants.DISCOVERY_JOB_MIDDLE_NAME_WITH_TEST_RUNNERS + "-1001-runnerA");
+		discovery.addProperty(new ParametersDefinitionProperty(
+				new StringParameterDefinition(UftConstants.TEST_RUNNER_ID_PARAMETER_NAME, "1001", ""),
+				new StringParameterDefinition(UftConstants.TEST_RUNNER_LOGICAL_NAME_PARAMETER_NAME, "runnerA", "")));
+		FreeStyleProject execution = rule.createFreeStyleProject(UftConstants.EXECUTION_JOB_MIDDLE_NAME_WITH_TEST_RUNNERS + "-1001-runnerA");
+		execution.addProperty(new ParametersDefinitionProperty(
+				new StringParameterDefinition(UftConstants.TEST_RUNNER_ID_PARAMETER_NAME, "1001", "")));
+		rule.createFreeStyleProject("unrelated-job");
+
+		Assert.assertEquals(Collections.singletonList(discovery), index.getDiscoveryJobsByExecutor("1001"));
+		Assert.assertEquals(Collections.singletonList(discovery), index.getDiscoveryJobsByExecutor("runnerA"));
+		Assert.assertEquals(Collections.singletonList(execution), index.getExecutionJobsByExecutor("1001"));
+		Assert.assertTrue(index.getExecutionJobsByExecutor("runnerA").isEmpty());
+		Assert.assertTrue(index.getDiscoveryJobs().contains(discovery));
+		Assert.assertFalse(index.getExecutionJobs().contains(discovery));
+
+		execution.delete();
+		Assert.assertTrue(index.getExecutionJobsByExecutor("1001").isEmpty());
+
+		discovery.renameTo("renamed-job");
+		Assert.assertTrue(index.getDiscoveryJobsByExecutor("1001").isEmpty());
+	}
+}
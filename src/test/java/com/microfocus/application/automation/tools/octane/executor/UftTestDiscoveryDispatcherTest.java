@@ -0,0 +1,214 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.items.UftTestDiscoveryResult;
+import com.microfocus.application.automation.tools.octane.ResultQueue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class UftTestDiscoveryDispatcherTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private UftTestDiscoveryQueue queue;
+	private TestDispatcher dispatcher;
+
+	@Before
+	public void setUp() throws IOException {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		queue = new UftTestDiscoveryQueue(queueFile);
+		dispatcher = new TestDispatcher();
+		dispatcher.setTestResultQueue(queue);
+	}
+
+	@After
+	public void tearDown() {
+		dispatcher.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testWorkspacesDispatchedConcurrentlyAndItemsOfWorkspaceInOrder() {
+		CountDownLatch otherWorkspaceStarted = new CountDownLatch(1);
+		dispatcher.workspaces.put("job-a", "1001");
+		dispatcher.workspaces.put("job-b", "1002");
+		dispatcher.onPersist = item -> {
+			if (item.getProjectName().equals("job-b")) {
+				otherWorkspaceStarted.countDown();
+			} else if (item.getBuildNumber() == 1) {
+				//the first item of workspace 1001 completes only once workspace 1002 is being dispatched as well
+				try {
+					Assert.assertTrue(otherWorkspaceStarted.await(10, TimeUnit.SECONDS));
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		dispatcher.enqueueResult("job-a", 1);
+		dispatcher.enqueueResult("job-a", 2);
+		dispatcher.enqueueResult("job-b", 1);
+		dispatcher.enqueueResult("job-a", 3);
+
+		dispatcher.dispatchQueue();
+
+		Assert.assertEquals(Arrays.asList("job-a#1", "job-a#2", "job-a#3"), dispatcher.persisted.get("1001"));
+		Assert.assertEquals(Collections.singletonList("job-b#1"), dispatcher.persisted.get("1002"));
+		Assert.assertEquals(4, dispatcher.getDispatchedCount());
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(0, dispatcher.getInProgressCount());
+	}
+
+	@Test
+	public void testFailedItemBlocksItsWorkspaceUntilRetried() throws IOException {
+		queue.close();
+		ClockQueue clockQueue = new ClockQueue(new File(tmp.getRoot(), "clock-queue.dat"));
+		dispatcher.setTestResultQueue(clockQueue);
+		dispatcher.workspaces.put("job-a", "1001");
+		dispatcher.workspaces.put("job-b", "1002");
+		AtomicBoolean failHead = new AtomicBoolean(true);
+		dispatcher.onPersist = item -> {
+			if (item.getProjectName().equals("job-a") && item.getBuildNumber() == 1 && failHead.getAndSet(false)) {
+				throw new LinkageError("not an exception");
+			}
+		};
+		dispatcher.enqueueResult("job-a", 1);
+		dispatcher.enqueueResult("job-a", 2);
+		dispatcher.enqueueResult("job-b", 1);
+
+		dispatcher.dispatchQueue();
+
+		//  other workspaces go on, items behind the failed one wait for its retry
+		Assert.assertNull(dispatcher.persisted.get("1001"));
+		Assert.assertEquals(Collections.singletonList("job-b#1"), dispatcher.persisted.get("1002"));
+		Assert.assertEquals(1, dispatcher.getFailedCount());
+		Assert.assertEquals(1, dispatcher.getDispatchedCount());
+		Assert.assertEquals(0, dispatcher.getInProgressCount());
+		Assert.assertEquals(2, dispatcher.getQueueSize());
+
+		//  item enqueued later is blocked as well
+		dispatcher.enqueueResult("job-a", 3);
+		dispatcher.dispatchQueue();
+		Assert.assertNull(dispatcher.persisted.get("1001"));
+		Assert.assertEquals(3, dispatcher.getQueueSize());
+
+		//  after the backoff the workspace is dispatched in the original order, postponed items were not charged a trial
+		clockQueue.clock += TimeUnit.MINUTES.toMillis(1);
+		dispatcher.dispatchQueue();
+		Assert.assertEquals(Arrays.asList("job-a#1", "job-a#2", "job-a#3"), dispatcher.persisted.get("1001"));
+		Assert.assertEquals(1, dispatcher.getFailedCount());
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(0, dispatcher.getDeadLetterCount());
+	}
+
+	@Test
+	public void testItemOutOfTrialsIsDeadLettered() throws IOException {
+		queue.close();
+		ClockQueue clockQueue = new ClockQueue(new File(tmp.getRoot(), "clock-queue.dat"));
+		dispatcher.setTestResultQueue(clockQueue);
+		clockQueue.add("job-a", 1);
+
+		int trials = 0;
+		List<ResultQueue.QueueItem> leased;
+		while (!(leased = clockQueue.lease(1)).isEmpty()) {
+			trials++;
+			dispatcher.fail(leased.get(0), new IOException("trial " + trials));
+			//  skip the backoff
+			clockQueue.clock += TimeUnit.HOURS.toMillis(2);
+		}
+
+		Assert.assertEquals(UftTestDiscoveryQueue.MAX_DISPATCH_TRIALS, trials);
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(1, dispatcher.getDeadLetterCount());
+	}
+
+	@Test
+	public void testItemNotDispatchableIsDropped() {
+		dispatcher.enqueueResult("deleted-job", 1);
+		dispatcher.enqueueResult("job-a", 1);
+		dispatcher.workspaces.put("job-a", "1001");
+
+		dispatcher.dispatchQueue();
+
+		Assert.assertEquals(1, dispatcher.getDroppedCount());
+		Assert.assertEquals(1, dispatcher.getDispatchedCount());
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(0, dispatcher.getDeadLetterCount());
+	}
+
+	/**
+	 * Dispatcher resolving items of known jobs to their workspace and recording the persisted items by workspace
+	 */
+	private static class TestDispatcher extends UftTestDiscoveryDispatcher {
+		private final Map<String, String> workspaces = new HashMap<>();
+		private final Map<String, List<String>> persisted = Collections.synchronizedMap(new HashMap<>());
+		private volatile java.util.function.Consumer<ResultQueue.QueueItem> onPersist = item -> {
+		};
+
+		@Override
+		PendingDispatch prepareDispatch(ResultQueue.QueueItem item) {
+			String workspace = workspaces.get(item.getProjectName());
+			if (workspace == null) {
+				drop(item);
+				return null;
+			}
+			UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+			result.setConfigurationId("configuration");
+			result.setWorkspaceId(workspace);
+			return new PendingDispatch(item, null, result);
+		}
+
+		@Override
+		void persist(PendingDispatch pendingDispatch) {
+			ResultQueue.QueueItem item = pendingDispatch.getItem();
+			onPersist.accept(item);
+			persisted.computeIfAbsent(workspaces.get(item.getProjectName()), k -> Collections.synchronizedList(new ArrayList<>()))
+					.add(item.getProjectName() + "#" + item.getBuildNumber());
+		}
+	}
+
+	/**
+	 * Queue with a clock driven by the test
+	 */
+	private static class ClockQueue extends UftTestDiscoveryQueue {
+		private long clock = System.currentTimeMillis();
+
+		ClockQueue(File queueFile) throws IOException {
+			super(queueFile);
+		}
+
+		@Override
+		protected long now() {
+			return clock;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.hp.octane.integrations.dto.causes.CIEventCause;
+import com.hp.octane.integrations.dto.causes.CIEventCauseType;
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.model.Cause;
+import hudson.model.CauseAction;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.triggers.SCMTrigger;
+import hudson.triggers.TimerTrigger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class CIEventCausesFactoryTest extends OctanePluginTestBase {
+
+	@Test
+	public void testUpstreamChain() throws Exception {
+		FreeStyleProject upstream = rule.createFreeStyleProject("causes-upstream");
+		FreeStyleProject downstream = rule.createFreeStyleProject("causes-downstream");
+		FreeStyleBuild upstreamBuild = rule.assertBuildStatusSuccess(upstream.scheduleBuild2(0, new TimerTrigger.TimerTriggerCause()));
+		FreeStyleBuild downstreamBuild = rule.assertBuildStatusSuccess(downstream.scheduleBuild2(0, new Cause.UpstreamCause(upstreamBuild)));
+
+		List<CIEventCause> causes = CIEventCausesFactory.processCauses(downstreamBuild);
+		Assert.assertEquals(1, causes.size());
+		CIEventCause upstreamCause = causes.get(0);
+		Assert.assertEquals(CIEventCauseType.UPSTREAM, upstreamCause.getType());
+		Assert.assertEquals("causes-upstream", upstreamCause.getProject());
+		Assert.assertEquals(String.valueOf(upstreamBuild.getNumber()), upstreamCause.getBuildCiId());
+		Assert.assertEquals(1, upstreamCause.getCauses().size());
+		Assert.assertEquals(CIEventCauseType.TIMER, upstreamCause.getCauses().get(0).getType());
+	}
+
+	@Test
+	public void testCacheHitReturnsCopies() throws Exception {
+		FreeStyleProject project = rule.createFreeStyleProject("causes-cached");
+		FreeStyleBuild build = rule.assertBuildStatusSuccess(project.scheduleBuild2(0, new TimerTrigger.TimerTriggerCause()));
+		CIEventCausesFactory.invalidate(build);
+
+		List<CIEventCause> causes = CIEventCausesFactory.processCauses(build);
+		Assert.assertEquals(1, causes.size());
+		causes.get(0).setType(CIEventCauseType.USER);
+		causes.clear();
+
+		//  causes added later are not seen until the run is invalidated, the cached chain is served untouched by the caller
+		build.addAction(new CauseAction(new SCMTrigger.SCMTriggerCause("poll")));
+		List<CIEventCause> cached = CIEventCausesFactory.processCauses(build);
+		Assert.assertEquals(1, cached.size());
+		Assert.assertEquals(CIEventCauseType.TIMER, cached.get(0).getType());
+		Assert.assertNotSame(cached, CIEventCausesFactory.processCauses(build));
+
+		CIEventCausesFactory.invalidate(build);
+		Assert.assertEquals(2, CIEventCausesFactory.processCauses(build).size());
+	}
+
+	@Test
+	public void testCacheEvictsLeastRecentlyUsed() {
+		Map<String, String> cache = CIEventCausesFactory.createCache(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.get("a");
+		cache.put("c", "3");
+		Assert.assertEquals(2, cache.size());
+		Assert.assertTrue(cache.containsKey("a"));
+		Assert.assertFalse(cache.containsKey("b"));
+		Assert.assertTrue(cache.containsKey("c"));
+	}
+}
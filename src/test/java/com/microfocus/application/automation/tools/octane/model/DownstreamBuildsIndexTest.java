@@ -0,0 +1,90 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DownstreamBuildsIndexTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testNotIndexedBuild() throws IOException {
+		Assert.assertNull(DownstreamBuildsIndex.readEntries(tmp.newFolder()));
+	}
+
+	@Test
+	public void testDownstreamOfNotIndexedBuildIsIgnored() throws IOException {
+		//upstream build started before the index existed keeps falling back to scanning
+		File buildDir = tmp.newFolder();
+		DownstreamBuildsIndex.addDownstreamBuild(buildDir, "job-a", 1);
+		Assert.assertNull(DownstreamBuildsIndex.readEntries(buildDir));
+	}
+
+	@Test
+	public void testEntriesKeepStartOrder() throws IOException {
+		File buildDir = tmp.newFolder();
+		DownstreamBuildsIndex.markIndexed(buildDir);
+		Assert.assertTrue(DownstreamBuildsIndex.readEntries(buildDir).isEmpty());
+
+		DownstreamBuildsIndex.addDownstreamBuild(buildDir, "folder/job-a", 7);
+		DownstreamBuildsIndex.addDownstreamBuild(buildDir, "job b", 3);
+		DownstreamBuildsIndex.addDownstreamBuild(buildDir, "folder/job-a", 8);
+
+		List<String[]> entries = DownstreamBuildsIndex.readEntries(buildDir);
+		Assert.assertEquals(3, entries.size());
+		Assert.assertArrayEquals(new String[]{"folder/job-a", "7"}, entries.get(0));
+		Assert.assertArrayEquals(new String[]{"job b", "3"}, entries.get(1));
+		Assert.assertArrayEquals(new String[]{"folder/job-a", "8"}, entries.get(2));
+	}
+
+	@Test
+	public void testBuildsOfJobSelected() {
+		List<String[]> entries = Arrays.asList(new String[]{"job-a", "1"}, new String[]{"job-b", "4"}, new String[]{"job-a", "2"});
+		Assert.assertEquals(Arrays.asList("job-a#1", "job-a#2"),
+				DownstreamBuildsIndex.selectBuilds(entries, "job-a", number -> "job-a#" + number, name -> true));
+		Assert.assertEquals(Collections.emptyList(),
+				DownstreamBuildsIndex.selectBuilds(entries, "job-c", number -> "job-c#" + number, name -> true));
+	}
+
+	@Test
+	public void testRenamedJobFallsBackToScanning() {
+		//job-a was renamed (or moved) after its build was indexed, the index can't tell whether it is the job looked up
+		List<String[]> entries = Arrays.asList(new String[]{"job-a", "1"}, new String[]{"job-b", "4"});
+		Set<String> existingJobs = new HashSet<>(Arrays.asList("folder/job-a", "job-b"));
+		Assert.assertNull(DownstreamBuildsIndex.selectBuilds(entries, "folder/job-a", number -> "folder/job-a#" + number, existingJobs::contains));
+		//builds of jobs found in the index are still served by it
+		Assert.assertEquals(Collections.singletonList("job-b#4"),
+				DownstreamBuildsIndex.selectBuilds(entries, "job-b", number -> "job-b#" + number, existingJobs::contains));
+	}
+}
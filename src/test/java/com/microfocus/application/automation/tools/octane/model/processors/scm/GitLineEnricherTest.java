@@ -0,0 +1,153 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+public class GitLineEnricherTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testBlameAndDiffAreCached() throws Exception {
+		File repoDir = tmp.newFolder("repo");
+		File jobDir = tmp.newFolder("job");
+		try (Git git = Git.init().setDirectory(repoDir).call()) {
+			write(repoDir, "a.txt", "one\ntwo\nthree\n");
+			git.add().addFilepattern("a.txt").call();
+			RevCommit first = git.commit().setMessage("first").setAuthor("u", "u@mail").call();
+
+			write(repoDir, "a.txt", "one\n2\nthree\nfour\n");
+			git.add().addFilepattern("a.txt").call();
+			RevCommit second = git.commit().setMessage("second").setAuthor("u", "u@mail").call();
+
+			GitLineDataCache cache = GitLineDataCache.load(jobDir);
+			GitLineEnricher enricher = new GitLineEnricher(git.getRepository(), "repo", cache);
+			Map<String, List<GitLineDataCache.BlameRange>> blame = enricher.blame(null, new HashSet<>(Arrays.asList("a.txt", "deleted.txt")));
+			Assert.assertEquals(Collections.singleton("a.txt"), blame.keySet());
+			List<GitLineDataCache.BlameRange> ranges = blame.get("a.txt");
+			Assert.assertEquals(4, ranges.size());
+			assertRange(ranges.get(0), first.getName(), 1, 1);
+			assertRange(ranges.get(1), second.getName(), 2, 2);
+			assertRange(ranges.get(2), first.getName(), 3, 3);
+			assertRange(ranges.get(3), second.getName(), 4, 4);
+
+			Map<String, List<GitLineEnricher.FileEdits>> diff = enricher.diff(Collections.singletonList(second.getName()));
+			List<GitLineEnricher.FileEdits> edits = diff.get(second.getName());
+			Assert.assertEquals(1, edits.size());
+			Assert.assertEquals("a.txt", edits.get(0).path);
+			Assert.assertEquals(Edit.Type.REPLACE, edits.get(0).getType(0));
+			cache.store(jobDir);
+
+			//second round is served from the persisted cache even with no time left
+			GitLineDataCache loaded = GitLineDataCache.load(jobDir);
+			Assert.assertEquals(2, loaded.size());
+			Assert.assertEquals(1, loaded.subset("repo", Collections.emptySet(), Collections.singletonList(second.getName())).size());
+			GitLineEnricher expired = new GitLineEnricher(git.getRepository(), "repo", loaded, 0);
+			List<GitLineDataCache.BlameRange> cachedRanges = expired.blame(second.getName(), Collections.singleton("a.txt")).get("a.txt");
+			Assert.assertEquals(4, cachedRanges.size());
+			assertRange(cachedRanges.get(3), second.getName(), 4, 4);
+			Assert.assertEquals(1, expired.diff(Collections.singletonList(second.getName())).get(second.getName()).size());
+
+			//diffs not cached are skipped once the time is over
+			write(repoDir, "a.txt", "one\n");
+			git.add().addFilepattern("a.txt").call();
+			RevCommit third = git.commit().setMessage("third").setAuthor("u", "u@mail").call();
+			Assert.assertTrue(expired.diff(Collections.singletonList(third.getName())).isEmpty());
+		}
+	}
+
+	@Test
+	public void testConcurrentStoresAreMerged() throws IOException {
+		File jobDir = tmp.newFolder("job");
+		GitLineDataCache first = GitLineDataCache.load(jobDir);
+		GitLineDataCache second = GitLineDataCache.load(jobDir);
+		first.putEdits(GitLineDataCache.diffKey("repo", "1", "2"), new int[]{0, 0, 0, 0, 1});
+		second.putEdits(GitLineDataCache.diffKey("repo", "3", "4"), new int[]{0, 0, 0, 0, 2});
+		first.store(jobDir);
+		second.store(jobDir);
+
+		GitLineDataCache loaded = GitLineDataCache.load(jobDir);
+		Assert.assertEquals(2, loaded.size());
+		Assert.assertNotNull(loaded.getEdits(GitLineDataCache.diffKey("repo", "1", "2")));
+		Assert.assertNotNull(loaded.getEdits(GitLineDataCache.diffKey("repo", "3", "4")));
+	}
+
+	@Test
+	public void testSubsetAndMerge() {
+		GitLineDataCache cache = new GitLineDataCache(10);
+		cache.putBlame(GitLineDataCache.blameKey("repo", "a.txt", "1"), Collections.singletonList(new GitLineDataCache.BlameRange("r1", 1, 2)));
+		cache.putBlame(GitLineDataCache.blameKey("repo", "b.txt", "2"), Collections.singletonList(new GitLineDataCache.BlameRange("r2", 1, 5)));
+		cache.putEdits(GitLineDataCache.diffKey("repo", "1", "2"), new int[]{0, 0, 0, 0, 1});
+		cache.putEdits(GitLineDataCache.diffKey("repo", "2", "3"), new int[]{0, 0, 0, 0, 2});
+		cache.putCommitDiffs(GitLineDataCache.commitKey("repo", "c1"), Collections.singletonList(GitLineDataCache.diffKey("repo", "1", "2")));
+		cache.putCommitDiffs(GitLineDataCache.commitKey("repo", "c2"), Collections.singletonList(GitLineDataCache.diffKey("repo", "2", "3")));
+
+		GitLineDataCache subset = cache.subset("repo", Collections.singleton("a.txt"), Arrays.asList("c1", "unknown"));
+		Assert.assertEquals(2, subset.size());
+		Assert.assertNull(subset.getBlame(GitLineDataCache.blameKey("repo", "b.txt", "2")));
+		Assert.assertNotNull(subset.getEdits(GitLineDataCache.diffKey("repo", "1", "2")));
+		Assert.assertNull(subset.getEdits(GitLineDataCache.diffKey("repo", "2", "3")));
+		Assert.assertEquals(0, subset.getAdded().size());
+
+		subset.putBlame(GitLineDataCache.blameKey("repo", "c.txt", "3"), Collections.singletonList(new GitLineDataCache.BlameRange("r3", 1, 1)));
+		GitLineDataCache added = subset.getAdded();
+		Assert.assertEquals(1, added.size());
+		cache.merge(added);
+		Assert.assertEquals("r3", cache.getBlame(GitLineDataCache.blameKey("repo", "c.txt", "3")).get(0).revision);
+		Assert.assertEquals("r1", cache.getBlame(GitLineDataCache.blameKey("repo", "a.txt", "1")).get(0).revision);
+	}
+
+	@Test
+	public void testCacheIsBounded() {
+		GitLineDataCache cache = new GitLineDataCache(2);
+		cache.putEdits("a", new int[0]);
+		cache.putEdits("b", new int[0]);
+		cache.getEdits("a");
+		cache.putEdits("c", new int[0]);
+		Assert.assertNotNull(cache.getEdits("a"));
+		Assert.assertNull(cache.getEdits("b"));
+		Assert.assertNotNull(cache.getEdits("c"));
+	}
+
+	private static void assertRange(GitLineDataCache.BlameRange range, String revision, int start, int end) {
+		Assert.assertEquals(revision, range.revision);
+		Assert.assertEquals(start, range.start);
+		Assert.assertEquals(end, range.end);
+	}
+
+	private static void write(File dir, String name, String content) throws IOException {
+		Files.write(new File(dir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
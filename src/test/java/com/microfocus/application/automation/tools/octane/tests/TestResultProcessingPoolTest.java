@@ -0,0 +1,94 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestResultProcessingPoolTest {
+
+	@Test(timeout = 30000)
+	public void testSaturatedPoolRejectsWithoutProcessingOnCallingThread() throws InterruptedException {
+		TestResultProcessingPool pool = new TestResultProcessingPool(1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<Thread> rejectedRunThread = new AtomicReference<>();
+		try {
+			//the run itself is only passed through to the processor
+			Assert.assertTrue(pool.submit(null, run -> {
+				started.countDown();
+				awaitQuietly(release);
+			}));
+			Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+			Assert.assertTrue(pool.submit(null, run -> {
+			}));
+			Assert.assertEquals(1, pool.getQueueSize());
+
+			Assert.assertFalse(pool.submit(null, run -> rejectedRunThread.set(Thread.currentThread())));
+			Assert.assertNull(rejectedRunThread.get());
+			Assert.assertEquals(3, pool.getSubmittedCount());
+			Assert.assertEquals(1, pool.getRejectedCount());
+		} finally {
+			release.countDown();
+		}
+		awaitCompleted(pool, 2);
+		Assert.assertEquals(0, pool.getFailedCount());
+		Assert.assertNull(rejectedRunThread.get());
+		pool.shutdown();
+	}
+
+	@Test(timeout = 30000)
+	public void testFailedProcessingCounted() throws InterruptedException {
+		TestResultProcessingPool pool = new TestResultProcessingPool(1, 1);
+		Assert.assertTrue(pool.submit(null, run -> {
+			throw new IllegalStateException("failed to process");
+		}));
+		awaitCompleted(pool, 1);
+		Assert.assertEquals(1, pool.getFailedCount());
+		pool.shutdown();
+	}
+
+	@Test
+	public void testRejectedAfterShutdown() {
+		TestResultProcessingPool pool = new TestResultProcessingPool(1, 1);
+		pool.shutdown();
+		Assert.assertFalse(pool.submit(null, run -> Assert.fail("must not be processed after shutdown")));
+		Assert.assertEquals(1, pool.getRejectedCount());
+	}
+
+	private static void awaitCompleted(TestResultProcessingPool pool, long count) throws InterruptedException {
+		while (pool.getCompletedCount() < count) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
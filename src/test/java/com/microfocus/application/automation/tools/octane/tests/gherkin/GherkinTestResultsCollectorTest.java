@@ -20,21 +20,30 @@
 
 package com.microfocus.application.automation.tools.octane.tests.gherkin;
 
+import com.microfocus.application.automation.tools.octane.actions.cucumber.CucumberResultsService;
 import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
 import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
-import org.xml.sax.SAXException;
+import org.junit.rules.TemporaryFolder;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 public class GherkinTestResultsCollectorTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     String defaultResourceRelativePath = "f1";
     String defaultResourceName = "OctaneGherkinResults0.xml";
 
@@ -55,12 +64,12 @@ public class GherkinTestResultsCollectorTest {
     }
 
     @Test
-    public void testConstruct() throws InterruptedException, ParserConfigurationException, IOException, SAXException, TransformerException {
+    public void testConstruct() throws IOException, XMLStreamException {
         GherkinTestResultsCollector.collectGherkinTestsResults(new File(getDefaultRootResourceFolder()));
     }
 
     @Test
-    public void testGetResults() throws InterruptedException, ParserConfigurationException, IOException, SAXException, TransformerException {
+    public void testGetResults() throws IOException, XMLStreamException {
         List<TestResult> gherkinTestsResults = GherkinTestResultsCollector.collectGherkinTestsResults(new File(getDefaultRootResourceFolder()));
         Assert.assertEquals(3,gherkinTestsResults.size());
         validateGherkinTestResult((GherkinTestResult)gherkinTestsResults.get(0),"test Feature1",21, TestResultStatus.FAILED);
@@ -69,18 +78,66 @@ public class GherkinTestResultsCollectorTest {
     }
 
     @Test (expected=IllegalArgumentException.class)
-    public void testXmlHasNoVersion() throws InterruptedException, ParserConfigurationException, IOException, SAXException, TransformerException {
+    public void testXmlHasNoVersion() throws IOException, XMLStreamException {
         GherkinTestResultsCollector.collectGherkinTestsResults(new File(getRootResourceFolder("f2",defaultResourceName)));
     }
 
     @Test (expected=IllegalArgumentException.class)
-    public void testXmlHasHigherVersion() throws InterruptedException, ParserConfigurationException, IOException, SAXException, TransformerException {
+    public void testXmlHasHigherVersion() throws IOException, XMLStreamException {
         GherkinTestResultsCollector.collectGherkinTestsResults(new File(getRootResourceFolder("f3",defaultResourceName)));
     }
 
+    @Test
+    public void testWriteFeatures() throws IOException, XMLStreamException {
+        List<TestResult> gherkinTestsResults = GherkinTestResultsCollector.collectGherkinTestsResults(new File(getDefaultRootResourceFolder()));
+        //written out of order on purpose, the results file is reopened for an earlier feature
+        String feature10 = write(gherkinTestsResults.get(1));
+        String feature1 = write(gherkinTestsResults.get(0));
+        String feature1Again = write(gherkinTestsResults.get(0));
+        String feature2 = write(gherkinTestsResults.get(2));
+
+        Assert.assertEquals(feature1, feature1Again);
+        Assert.assertTrue(feature1.startsWith("<gherkin_test_run "));
+        Assert.assertTrue(feature1.contains("<feature name=\"test Feature1\""));
+        Assert.assertFalse(feature1.contains("test Feature10"));
+        Assert.assertTrue(feature1.contains("<scenario name=\"test scenario2\" status=\"Passed\">"));
+        Assert.assertTrue(feature1.contains("Scenario: test scenario3"));
+        Assert.assertTrue(feature1.endsWith("</feature></gherkin_test_run>"));
+        Assert.assertTrue(feature10.contains("<feature name=\"test Feature10\""));
+        Assert.assertTrue(feature2.contains("<feature name=\"test Feature2\""));
+        Assert.assertFalse(feature2.contains("status=\"Failed\""));
+    }
+
+    @Test
+    public void testOnlyCDataTextIsCopied() throws IOException, XMLStreamException {
+        File buildDir = tmp.newFolder();
+        FileUtils.writeStringToFile(new File(buildDir, CucumberResultsService.getGherkinResultFileName(0)),
+                "<features version=\"1\"><feature name=\"f\">stray text<file><![CDATA[Feature: f]]></file>" +
+                        "<scenarios>\n  <scenario name=\"s\"><steps><step name=\"st\" status=\"passed\" duration=\"1\"/></steps></scenario>\n</scenarios>" +
+                        "</feature></features>", StandardCharsets.UTF_8);
+        List<TestResult> gherkinTestsResults = GherkinTestResultsCollector.collectGherkinTestsResults(buildDir);
+        Assert.assertEquals(1, gherkinTestsResults.size());
+
+        String feature = write(gherkinTestsResults.get(0));
+        Assert.assertTrue(feature.contains("<file>Feature: f</file>"));
+        Assert.assertFalse(feature.contains("stray text"));
+        Assert.assertTrue(feature.contains("<scenarios><scenario name=\"s\" status=\"Passed\">"));
+
+        //closed results file is reopened when written again
+        ((GherkinTestResult) gherkinTestsResults.get(0)).getResultsFile().close();
+        Assert.assertEquals(feature, write(gherkinTestsResults.get(0)));
+    }
+
+    private String write(TestResult testResult) throws XMLStreamException {
+        StringWriter output = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output);
+        testResult.writeXmlElement(writer);
+        writer.flush();
+        return output.toString();
+    }
+
     private void validateGherkinTestResult(GherkinTestResult gherkinTestResult, String name, long duration, TestResultStatus status){
         validateAttributes(gherkinTestResult, name, duration, status);
-        Assert.assertNotNull(gherkinTestResult.getXmlElement());
     }
 
     private void validateAttributes(GherkinTestResult gherkinTestResult, String name, long duration, TestResultStatus status){
@@ -0,0 +1,76 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class JUnitTestResultCodecTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (JUnitTestResultCodec.Writer writer = new JUnitTestResultCodec.Writer(bos)) {
+			writer.write(new JUnitTestResult("module", "package", "class", "testA", TestResultStatus.PASSED, 1L, 2L, null, null));
+			writer.write(new JUnitTestResult("module", "package", "class", "testB", TestResultStatus.FAILED, 3L, 4L,
+					new TestError("stack\ntrace", "java.lang.AssertionError", "expected ✓"), "http://report"));
+			writer.write(new JUnitTestResult(null, "", "class", "testC", TestResultStatus.SKIPPED, 0L, 0L, null, null));
+		}
+
+		try (JUnitTestResultCodec.Reader reader = new JUnitTestResultCodec.Reader(new ByteArrayInputStream(bos.toByteArray()))) {
+			JUnitTestResult first = reader.read();
+			Assert.assertEquals("module", first.getModuleName());
+			Assert.assertEquals("package", first.getPackageName());
+			Assert.assertEquals("class", first.getClassName());
+			Assert.assertEquals("testA", first.getTestName());
+			Assert.assertEquals(TestResultStatus.PASSED, first.getResult());
+			Assert.assertEquals(1L, first.getDuration());
+			Assert.assertEquals(2L, first.getStarted());
+			Assert.assertNull(first.getTestError());
+			Assert.assertNull(first.getExternalReportUrl());
+
+			JUnitTestResult second = reader.read();
+			Assert.assertEquals("module", second.getModuleName());
+			Assert.assertEquals("testB", second.getTestName());
+			Assert.assertEquals(TestResultStatus.FAILED, second.getResult());
+			Assert.assertEquals("http://report", second.getExternalReportUrl());
+			Assert.assertEquals("stack\ntrace", second.getTestError().getStackTraceStr());
+			Assert.assertEquals("java.lang.AssertionError", second.getTestError().getErrorType());
+			Assert.assertEquals("expected ✓", second.getTestError().getErrorMsg());
+
+			JUnitTestResult third = reader.read();
+			Assert.assertNull(third.getModuleName());
+			Assert.assertEquals("", third.getPackageName());
+			Assert.assertEquals(TestResultStatus.SKIPPED, third.getResult());
+
+			Assert.assertNull(reader.read());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testForeignStreamRejected() throws IOException {
+		new JUnitTestResultCodec.Reader(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+	}
+}
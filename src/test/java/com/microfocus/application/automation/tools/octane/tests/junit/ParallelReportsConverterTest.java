@@ -0,0 +1,108 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelReportsConverterTest {
+
+	@Test(timeout = 10000)
+	public void testResultsKeepOrderOfReports() throws Exception {
+		List<String> reports = Arrays.asList("a", "b", "c", "d", "e");
+		//later reports finish first, small buffer makes them wait for the handler
+		ParallelReportsConverter<String> converter = new ParallelReportsConverter<>((report, handler) -> {
+			for (int i = 0; i < 50; i++) {
+				if (report.equals("a")) {
+					Thread.sleep(1);
+				}
+				handler.handle(result(report, i));
+			}
+		}, 3, 4);
+
+		List<String> handled = new ArrayList<>();
+		converter.convert(reports, testResult -> handled.add(testResult.getClassName() + testResult.getTestName()));
+
+		Assert.assertEquals(250, handled.size());
+		int index = 0;
+		for (String report : reports) {
+			for (int i = 0; i < 50; i++) {
+				Assert.assertEquals(report + i, handled.get(index++));
+			}
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testConversionFailureIsRethrownInOrder() throws Exception {
+		IOException failure = new IOException("broken report");
+		ParallelReportsConverter<String> converter = new ParallelReportsConverter<>((report, handler) -> {
+			handler.handle(result(report, 0));
+			if (report.equals("b")) {
+				throw failure;
+			}
+			handler.handle(result(report, 1));
+		}, 2, 1);
+
+		List<String> handled = new ArrayList<>();
+		try {
+			converter.convert(Arrays.asList("a", "b", "c"), testResult -> handled.add(testResult.getClassName() + testResult.getTestName()));
+			Assert.fail("failure of report b expected");
+		} catch (IOException e) {
+			Assert.assertSame(failure, e);
+		}
+		Assert.assertEquals(Arrays.asList("a0", "a1", "b0"), handled);
+	}
+
+	@Test(timeout = 10000)
+	public void testHandlerFailureReleasesBlockedConversions() throws Exception {
+		CountDownLatch released = new CountDownLatch(2);
+		ParallelReportsConverter<String> converter = new ParallelReportsConverter<>((report, handler) -> {
+			try {
+				for (int i = 0; i < 1000; i++) {
+					handler.handle(result(report, i));
+				}
+			} finally {
+				released.countDown();
+			}
+		}, 2, 2);
+
+		try {
+			converter.convert(Arrays.asList("a", "b"), testResult -> {
+				throw new IOException("target not writable");
+			});
+			Assert.fail("failure of the handler expected");
+		} catch (IOException e) {
+			Assert.assertEquals("target not writable", e.getMessage());
+		}
+		Assert.assertTrue("conversions are still blocked", released.await(5, TimeUnit.SECONDS));
+	}
+
+	private static JUnitTestResult result(String report, int index) {
+		return new JUnitTestResult("module", "package", report, String.valueOf(index), TestResultStatus.PASSED, 1L, 1L, null, null);
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class UftTestFolderIndexTest {
+
+	@Test
+	public void testInstancesConsumedInOrder() {
+		UftTestFolderIndex index = new UftTestFolderIndex(Arrays.asList("GUITest1[1]", "GUITest2[1]", "GUITest1[2]", "notATestFolder"));
+
+		Assert.assertEquals("GUITest1[1]", index.poll("GUITest1"));
+		Assert.assertEquals("GUITest2[1]", index.poll("GUITest2"));
+		Assert.assertEquals("GUITest1[2]", index.poll("GUITest1"));
+		Assert.assertNull(index.poll("GUITest1"));
+		Assert.assertNull(index.poll("GUITest3"));
+		Assert.assertNull(index.poll("notATestFolder"));
+	}
+}
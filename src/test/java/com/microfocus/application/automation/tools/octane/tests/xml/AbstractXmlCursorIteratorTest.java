@@ -0,0 +1,70 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.xml;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AbstractXmlCursorIteratorTest {
+
+	@Test
+	public void testTextValues() throws Exception {
+		Assert.assertEquals(Arrays.asList("plain", "", "a < b", "cdata <x/>", "first\nsecond"),
+				readValues("<values><value>plain</value><value/><value>a &lt; b</value><value><![CDATA[cdata <x/>]]></value>" +
+						"<value>first<!-- comment -->\nsecond</value></values>"));
+	}
+
+	@Test
+	public void testMixedContentValue() throws Exception {
+		Assert.assertEquals(Arrays.asList("expected <b>1</b> but was 2 in total", "next"),
+				readValues("<values><value>expected &lt;b&gt;1&lt;/b&gt; but was <b>2</b> in <i>total</i></value><value>next</value></values>"));
+	}
+
+	private static List<String> readValues(String xml) throws Exception {
+		ValueIterator iterator = new ValueIterator(xml);
+		List<String> values = new ArrayList<>();
+		while (iterator.hasNext()) {
+			values.add(iterator.next());
+		}
+		return values;
+	}
+
+	private static class ValueIterator extends AbstractXmlCursorIterator<String> {
+
+		private ValueIterator(String xml) throws XMLStreamException {
+			super(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		@Override
+		protected void onStartElement(String localName) throws XMLStreamException {
+			if ("value".equals(localName)) {
+				addItem(readNextValue());
+			}
+		}
+	}
+}
@@ -40,9 +40,8 @@ import org.apache.http.message.BasicHttpResponse;
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
 
 import static com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState.*;
-import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
 
-public class MockPcRestProxy extends PcRestProxy {
+public class MockPcRestProxy extends StreamingPcRestProxy {
     
     private static Iterator<RunState> runState = initializeRunStateIterator();
     
@@ -82,6 +81,11 @@ public class MockPcRestProxy extends PcRestProxy {
             response = getOkResponse();
             response.setEntity(new FileEntity(
                 new File(getClass().getResource(PcBuilder.pcReportArchiveName).getPath()), ContentType.DEFAULT_BINARY));
+        } else if (requestUrl.equals(String.format(getBaseURL() + "/%s/%s/%s", TREND_REPORT_RESOURCE_NAME, PcTestBase.TREND_REPORT_ID,
+            PcTestBase.RUN_ID))) {
+            response = getOkResponse();
+            response.setEntity(new FileEntity(
+                new File(getClass().getResource(PcTestBase.TREND_REPORT_FILE).getPath()), ContentType.APPLICATION_XML));
         }
         if (response == null)
             throw new PcException(String.format("%s %s is not recognized by PC Rest Proxy", request.getMethod(), requestUrl));
@@ -0,0 +1,105 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.application.automation.tools.run.PcBuilder;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PcReportExtractorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PrintStream logger = new PrintStream(new ByteArrayOutputStream());
+
+    @Test
+    public void testExtractAllEntries() throws Exception {
+        byte[] archive = readArchive();
+        File target = folder.newFolder();
+        int files = new PcReportExtractor(logger)
+                .extract(offset -> new ByteArrayInputStream(archive, (int) offset, archive.length - (int) offset), target);
+
+        Assert.assertTrue(new File(target, PcBuilder.pcReportFileName).isFile());
+        Assert.assertTrue(new File(target, "Report/contents.html").isFile());
+        Assert.assertEquals(FileUtils.listFiles(target, null, true).size(), files);
+    }
+
+    @Test
+    public void testInterruptedDownloadResumed() throws Exception {
+        byte[] archive = readArchive();
+        File expected = folder.newFolder();
+        new PcReportExtractor(logger)
+                .extract(offset -> new ByteArrayInputStream(archive, (int) offset, archive.length - (int) offset), expected);
+
+        File target = folder.newFolder();
+        AtomicInteger opened = new AtomicInteger();
+        new PcReportExtractor(logger).extract(offset -> {
+            opened.incrementAndGet();
+            // every connection breaks after 100KB
+            return new BrokenInputStream(new ByteArrayInputStream(archive, (int) offset, archive.length - (int) offset), 100 * 1024);
+        }, target);
+
+        Assert.assertTrue(opened.get() > 1);
+        for (File file : FileUtils.listFiles(expected, null, true)) {
+            File copy = new File(target, expected.toURI().relativize(file.toURI()).getPath());
+            Assert.assertTrue(FileUtils.contentEquals(file, copy));
+        }
+    }
+
+    private byte[] readArchive() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(PcBuilder.pcReportArchiveName)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private static class BrokenInputStream extends FilterInputStream {
+        private long remaining;
+
+        BrokenInputStream(InputStream in, long breakAfter) {
+            super(in);
+            this.remaining = breakAfter;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0)
+                throw new IOException("Connection reset");
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0)
+                remaining -= read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PcRunStatePollerTest {
+
+    @Test
+    public void testTaskPolledUntilDone() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(1);
+        final AtomicInteger polls = new AtomicInteger();
+        Integer result = poller.await(new PcRunStatePoller.Task<Integer>() {
+            @Override
+            public long poll() {
+                return polls.incrementAndGet() < 3 ? 10 : -1;
+            }
+
+            @Override
+            public Integer getResult() {
+                return polls.get();
+            }
+        });
+        Assert.assertEquals(Integer.valueOf(3), result);
+    }
+
+    @Test
+    public void testTasksMultiplexedOnSingleThread() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(1);
+        Future<String> first = poller.submit(new CountdownTask("first", 5));
+        Future<String> second = poller.submit(new CountdownTask("second", 5));
+        Assert.assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFirstPollDelayed() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(1);
+        long start = System.nanoTime();
+        Assert.assertEquals("delayed", poller.await(new CountdownTask("delayed", 1), 200));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+
+    @Test
+    public void testFailurePropagated() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(1);
+        try {
+            poller.await(new PcRunStatePoller.Task<Void>() {
+                @Override
+                public long poll() throws Exception {
+                    throw new IOException("unreachable");
+                }
+
+                @Override
+                public Void getResult() {
+                    return null;
+                }
+            });
+            Assert.fail("Expected the poll failure to be rethrown");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testErrorPropagated() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(1);
+        Future<Void> future = poller.submit(new PcRunStatePoller.Task<Void>() {
+            @Override
+            public long poll() {
+                throw new LinkageError("not an exception");
+            }
+
+            @Override
+            public Void getResult() {
+                return null;
+            }
+        });
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the poll error to be rethrown");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof LinkageError);
+        }
+    }
+
+    @Test
+    public void testHungPollDoesNotStallOtherTasks() throws Exception {
+        PcRunStatePoller poller = new PcRunStatePoller(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<String> hung = poller.submit(new PcRunStatePoller.Task<String>() {
+            @Override
+            public long poll() throws Exception {
+                release.await();
+                return -1;
+            }
+
+            @Override
+            public String getResult() {
+                return "hung";
+            }
+        });
+        try {
+            Assert.assertEquals("other", poller.submit(new CountdownTask("other", 5)).get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+        Assert.assertEquals("hung", hung.get(5, TimeUnit.SECONDS));
+    }
+
+    private static class CountdownTask implements PcRunStatePoller.Task<String> {
+        private final String name;
+        private int remaining;
+
+        CountdownTask(String name, int polls) {
+            this.name = name;
+            this.remaining = polls;
+        }
+
+        @Override
+        public long poll() {
+            return --remaining > 0 ? 20 : -1;
+        }
+
+        @Override
+        public String getResult() {
+            return name;
+        }
+    }
+}
@@ -42,6 +42,8 @@ public interface PcTestBase {
     public static final String        RUN_ID                          = "7";
     public static final String        RUN_ID_WAIT                     = "8";
     public static final String        REPORT_ID                       = "9";
+    public static final String        TREND_REPORT_ID                 = "10";
+    public static final String        TREND_REPORT_FILE               = "TrendReport.xml";
     public static final String        STOP_MODE                       = "stop";
     public static final String		  WEB_PROTOCOL					  = "http";
 	public static final Boolean		  IS_HTTPS					  	  = false;
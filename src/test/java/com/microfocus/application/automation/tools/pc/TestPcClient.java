@@ -23,6 +23,11 @@ package com.microfocus.application.automation.tools.pc;
 import com.microfocus.application.automation.tools.run.PcBuilder;
 import hudson.FilePath;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -91,6 +96,46 @@ public class TestPcClient {
         }       
     }    
     
+    @Test
+    public void testGetTrendReportSeries() throws Exception {
+        System.out.println("Testing Get Trend Report Series with PC client");
+        List<TriTrendReportTypes> seriesList = Arrays.asList(
+                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_AVERAGE),
+                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MAXIMUM),
+                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TPS, TrendReportTypes.Measurement.PCT_SUM1),
+                new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRS, TrendReportTypes.Measurement.PCT_COUNT1),
+                new TriTrendReportTypes(TrendReportTypes.DataType.Monitors, TrendReportTypes.PctType.UDP, TrendReportTypes.Measurement.PCT_AVERAGE),
+                new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.VU, TrendReportTypes.Measurement.PCT_MAXIMUM));
+
+        Map<TriTrendReportTypes, Map<String, String>> series =
+                pcClient.getTrendReportSeriesByXML(PcTestBase.TREND_REPORT_ID, Integer.parseInt(PcTestBase.RUN_ID), seriesList);
+
+        Assert.assertEquals(seriesList, new ArrayList<>(series.keySet()));
+        //series are looked up by value
+        Map<String, String> trtAverage = series.get(new TriTrendReportTypes(TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_AVERAGE));
+        Assert.assertEquals(Arrays.asList("RunId", "Trend Measurement Type", "Action_Transaction", "Virtual transaction 2"), new ArrayList<>(trtAverage.keySet()));
+        Assert.assertEquals("_" + PcTestBase.RUN_ID + "_", trtAverage.get("RunId"));
+        Assert.assertEquals("PCT_AVERAGE_TRT", trtAverage.get("Trend Measurement Type"));
+        Assert.assertEquals("0.5", trtAverage.get("Action_Transaction"));
+        Assert.assertEquals("0.51", trtAverage.get("Virtual transaction 2"));
+        //missing measurement of a row is an empty value
+        Assert.assertEquals("", series.get(seriesList.get(1)).get("Virtual transaction 2"));
+        Assert.assertEquals("12", series.get(seriesList.get(2)).get("Action_Transaction"));
+        //no row of the PCT type
+        Assert.assertEquals(2, series.get(seriesList.get(3)).size());
+        Assert.assertEquals("40", series.get(seriesList.get(4)).get("Disk"));
+        Assert.assertEquals("10", series.get(seriesList.get(5)).get("Running Vusers"));
+    }
+
+    @Test
+    public void testGetTrendReportSingleSeries() throws Exception {
+        System.out.println("Testing Get Trend Report by XML with PC client");
+        Map<String, String> measurements = pcClient.getTrendReportByXML(PcTestBase.TREND_REPORT_ID, Integer.parseInt(PcTestBase.RUN_ID),
+                TrendReportTypes.DataType.Transaction, TrendReportTypes.PctType.TRT, TrendReportTypes.Measurement.PCT_MINIMUM);
+        Assert.assertEquals("0.001", measurements.get("Action_Transaction"));
+        Assert.assertEquals("0.2", measurements.get("Virtual transaction 2"));
+    }
+
     @Test
     public void testLogout() {        
         System.out.println("Testing Logout from PC server");
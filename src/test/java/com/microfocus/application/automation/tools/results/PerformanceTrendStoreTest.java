@@ -0,0 +1,134 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import hudson.model.Item;
+import hudson.model.Job;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class PerformanceTrendStoreTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testBuildsAreKeptNewestFirstAndBounded() {
+        SortedMap<String, ArrayList<PerformanceTrendStore.TrendBuild>> scenarios = new TreeMap<>();
+        for (int build = 1; build <= PerformanceTrendStore.MAX_DISPLAY_BUILDS + 5; build++) {
+            Assert.assertTrue(PerformanceTrendStore.addBuild(scenarios, build, results("scenarioA")));
+        }
+        //builds completing out of order
+        Assert.assertTrue(PerformanceTrendStore.addBuild(scenarios, 100, results("scenarioA", "scenarioB")));
+        Assert.assertTrue(PerformanceTrendStore.addBuild(scenarios, 99, results("scenarioA")));
+        //older than the whole window
+        Assert.assertFalse(PerformanceTrendStore.addBuild(scenarios, 3, results("scenarioA")));
+
+        List<PerformanceTrendStore.TrendBuild> builds = scenarios.get("scenarioA");
+        Assert.assertEquals(PerformanceTrendStore.MAX_DISPLAY_BUILDS, builds.size());
+        Assert.assertEquals(100, builds.get(0).getNumber());
+        Assert.assertEquals(99, builds.get(1).getNumber());
+        Assert.assertEquals(PerformanceTrendStore.MAX_DISPLAY_BUILDS + 5, builds.get(2).getNumber());
+        Assert.assertEquals(8, builds.get(builds.size() - 1).getNumber());
+        Assert.assertEquals(1, scenarios.get("scenarioB").size());
+    }
+
+    @Test
+    public void testStoresOfDeletedItemsAreReleased() {
+        Job<?, ?> folderJob = job("folder/jobA");
+        Job<?, ?> otherJob = job("folderB/jobA");
+        PerformanceTrendStore folderJobStore = PerformanceTrendStore.forJob(folderJob);
+        PerformanceTrendStore otherJobStore = PerformanceTrendStore.forJob(otherJob);
+        Assert.assertSame(folderJobStore, PerformanceTrendStore.forJob(folderJob));
+
+        Item folder = Mockito.mock(Item.class);
+        Mockito.when(folder.getFullName()).thenReturn("folder");
+        PerformanceTrendStore.release(folder);
+        Assert.assertNotSame(folderJobStore, PerformanceTrendStore.forJob(folderJob));
+        Assert.assertSame(otherJobStore, PerformanceTrendStore.forJob(otherJob));
+
+        PerformanceTrendStore.release(otherJob);
+        Assert.assertNotSame(otherJobStore, PerformanceTrendStore.forJob(otherJob));
+        PerformanceTrendStore.release(folderJob);
+        PerformanceTrendStore.release(otherJob);
+    }
+
+    @Test
+    public void testOnlyExistingStoresAreLookedUp() throws IOException {
+        Job<?, ?> jobWithoutTrend = job("jobWithoutTrend");
+        Mockito.when(jobWithoutTrend.getRootDir()).thenReturn(tmp.newFolder());
+        Assert.assertNull(PerformanceTrendStore.getExisting(jobWithoutTrend));
+
+        Job<?, ?> jobWithPersistedTrend = job("jobWithPersistedTrend");
+        File rootDir = tmp.newFolder();
+        Assert.assertTrue(new File(rootDir, "lrPerformanceTrend.xml").createNewFile());
+        Mockito.when(jobWithPersistedTrend.getRootDir()).thenReturn(rootDir);
+        PerformanceTrendStore store = PerformanceTrendStore.getExisting(jobWithPersistedTrend);
+        Assert.assertNotNull(store);
+        Assert.assertSame(store, PerformanceTrendStore.forJob(jobWithPersistedTrend));
+
+        //store in memory, the trend is not persisted yet
+        Job<?, ?> jobWithStore = job("jobWithStore");
+        Mockito.when(jobWithStore.getRootDir()).thenReturn(tmp.newFolder());
+        Assert.assertSame(PerformanceTrendStore.forJob(jobWithStore), PerformanceTrendStore.getExisting(jobWithStore));
+
+        PerformanceTrendStore.release(jobWithPersistedTrend);
+        PerformanceTrendStore.release(jobWithStore);
+    }
+
+    @Test
+    public void testRemoveBuild() {
+        SortedMap<String, ArrayList<PerformanceTrendStore.TrendBuild>> scenarios = new TreeMap<>();
+        PerformanceTrendStore.addBuild(scenarios, 1, results("scenarioA"));
+        PerformanceTrendStore.addBuild(scenarios, 2, results("scenarioA", "scenarioB"));
+
+        Assert.assertFalse(PerformanceTrendStore.removeBuild(scenarios, 3));
+        Assert.assertTrue(PerformanceTrendStore.removeBuild(scenarios, 2));
+        Assert.assertEquals(1, scenarios.size());
+        Assert.assertEquals(1, scenarios.get("scenarioA").get(0).getNumber());
+    }
+
+    private static LrJobResults results(String... scenarioNames) {
+        LrJobResults results = new LrJobResults();
+        for (String scenarioName : scenarioNames) {
+            results.addScenario(new JobLrScenarioResult(scenarioName));
+        }
+        return results;
+    }
+
+    private static Job<?, ?> job(String fullName) {
+        Job<?, ?> job = Mockito.mock(Job.class);
+        Mockito.when(job.getFullName()).thenReturn(fullName);
+        return job;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class RunReportParserTest {
+
+    @Test
+    public void testParseRunReport() throws IOException, XMLStreamException {
+        JobLrScenarioResult result;
+        try (InputStream input = getClass().getResourceAsStream("/com/microfocus/application/automation/tools/results/RunReport.xml")) {
+            result = RunReportParser.parse("scenario", input);
+        }
+
+        Assert.assertEquals("scenario", result.getScenarioName());
+        Assert.assertEquals(94560L, result.getScenarioDuration());
+        Assert.assertEquals(1272, result.getConnectionMax());
+        Assert.assertEquals(Integer.valueOf(1000), result.vUserSum.get("Count"));
+        Assert.assertEquals(Integer.valueOf(6980), result.transactionSum.get("Pass"));
+        Assert.assertEquals(11, result.transactionData.size());
+        Assert.assertEquals(Integer.valueOf(299), result.transactionData.get("transTes_0").get("Fail"));
+
+        Assert.assertEquals(10, result.scenarioSlaResults.size());
+        GoalResult totalHits = result.scenarioSlaResults.get(0);
+        Assert.assertEquals(LrTest.SLA_GOAL.TotalHits, totalHits.getSlaGoal());
+        Assert.assertEquals(LrTest.SLA_STATUS.Passed, totalHits.getStatus());
+        Assert.assertEquals(22000, ((WholeRunResult) totalHits).getActualValue(), 0);
+
+        TimeRangeResult errorsPerSecond = (TimeRangeResult) result.scenarioSlaResults.get(9);
+        Assert.assertEquals(LrTest.SLA_GOAL.ErrorsPerSecond, errorsPerSecond.getSlaGoal());
+        Assert.assertEquals(LrTest.SLA_STATUS.Failed, errorsPerSecond.getStatus());
+        Assert.assertEquals(38, errorsPerSecond.getTimeRanges().size());
+        Assert.assertEquals(LrTest.SLA_STATUS.Passed, errorsPerSecond.getTimeRanges().get(0).getSlaStatus());
+        Assert.assertEquals(49, errorsPerSecond.getTimeRanges().get(0).getLoadAmount());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testNotARunReport() throws XMLStreamException {
+        RunReportParser.parse("scenario", new ByteArrayInputStream("<testsuites/>".getBytes(StandardCharsets.UTF_8)));
+    }
+}